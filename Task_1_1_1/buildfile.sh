@@ -1,11 +1,11 @@
-javac -cp ./junit-platform-console-standalone-1.7.0-all.jar ./src/main/java/ru/nsu/vyaznikova/Main.java ./src/test/java/ru/nsu/vyaznikova/MainTest.java -d ./builddir
+javac -cp ./junit-platform-console-standalone-1.7.0-all.jar ./src/main/java/ru/nsu/vyaznikova/*.java ./src/test/java/ru/nsu/vyaznikova/*.java -d ./builddir
 
 if [[ $? -ne 0 ]]; then
     echo "epic fail! (compilation)"
     exit 101
 fi
 
-jar -cfm ./main.jar ./Manifest.txt ./builddir/ru/nsu/vyaznikova/Main.class ./builddir/ru/nsu/vyaznikova/Heap.class
+jar -cfm ./main.jar ./Manifest.txt $(ls ./builddir/ru/nsu/vyaznikova/*.class | grep -v 'Test')
 
 if [[ $? -ne 0 ]]; then
     echo "epic fail! (building to jar)"
@@ -20,7 +20,7 @@ if [[ $? -ne 0 ]]; then
     exit 103
 fi
 
-javadoc ./src/main/java/ru/nsu/vyaznikova/Main.java -d ./javadoc
+javadoc ./src/main/java/ru/nsu/vyaznikova/*.java -d ./javadoc
 
 if [[ $? -ne 0 ]]; then
     echo "epic fail! (documentation)"
@@ -0,0 +1,71 @@
+package ru.nsu.vyaznikova;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the binary {@link Heap} with {@link DaryHeap} of different arities
+ * on extract-heavy workloads. Run with {@code ./gradlew jmh}.
+ *
+ * <p>{@code hold} takes the minimum out and puts a random value back, so the
+ * heap keeps its size. {@code drain} empties a full heap.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class HeapBenchmark {
+    private static final int MASK = (1 << 16) - 1;
+
+    @Param({"1000", "100000", "10000000", "100000000"})
+    int size;
+
+    @Param({"heap", "2", "4", "8"})
+    String arity;
+
+    private IntPriorityQueue queue;
+    private int[] values;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void fill() {
+        Random random = new Random(42);
+        queue = "heap".equals(arity) ? new Heap(size) : new DaryHeap(size, Integer.parseInt(arity));
+        for (int i = 0; i < size; i++) {
+            queue.insertnew(random.nextInt());
+        }
+        values = random.ints(MASK + 1).toArray();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int hold() {
+        int min = queue.extractmin();
+        queue.insertnew(values[next++ & MASK]);
+        return min;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long drain() {
+        long sum = 0;
+        while (!queue.isempty()) {
+            sum += queue.extractmin();
+        }
+        return sum;
+    }
+}
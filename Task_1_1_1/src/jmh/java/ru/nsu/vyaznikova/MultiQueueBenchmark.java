@@ -0,0 +1,80 @@
+package ru.nsu.vyaznikova;
+
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Throughput of {@link MultiQueue} against {@link PriorityBlockingQueue}
+ * when every thread both inserts and extracts. The queue is prefilled, so
+ * extraction does not run dry.
+ *
+ * <p>{@link #main} repeats the run for 1 to 64 threads; build the benchmark
+ * jar with {@code ./gradlew jmhJar} and run this class from it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MultiQueueBenchmark {
+    private static final int PREFILL = 1 << 20;
+
+    @Param({"multiqueue", "priorityblockingqueue"})
+    String queue;
+
+    private MultiQueue multiqueue;
+    private PriorityBlockingQueue<Integer> blockingqueue;
+
+    @Setup(Level.Iteration)
+    public void fill() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if ("multiqueue".equals(queue)) {
+            multiqueue = new MultiQueue();
+            for (int i = 0; i < PREFILL; i++) {
+                multiqueue.insertnew(random.nextInt());
+            }
+        } else {
+            blockingqueue = new PriorityBlockingQueue<>(PREFILL);
+            for (int i = 0; i < PREFILL; i++) {
+                blockingqueue.offer(random.nextInt());
+            }
+        }
+    }
+
+    @Benchmark
+    public int insertextract() {
+        int value = ThreadLocalRandom.current().nextInt();
+        if (multiqueue != null) {
+            multiqueue.insertnew(value);
+            return multiqueue.extractmin();
+        }
+        blockingqueue.offer(value);
+        return blockingqueue.poll();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads = 1; threads <= 64; threads *= 2) {
+            new Runner(new OptionsBuilder()
+                    .include(MultiQueueBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build()).run();
+        }
+    }
+}
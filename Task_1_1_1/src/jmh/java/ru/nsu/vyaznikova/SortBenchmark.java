@@ -0,0 +1,113 @@
+package ru.nsu.vyaznikova;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link HeapSort}, {@link AdaptiveSort} and {@link Arrays#sort}
+ * on inputs with different amounts of existing order.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SortBenchmark {
+
+    @Param({"1000000"})
+    int size;
+
+    /**
+     * random: uniform values; sorted and reversed: one run; runs: 100 sorted
+     * runs, every other one descending; swaps: sorted with 1% of the values
+     * swapped at random.
+     */
+    @Param({"random", "sorted", "reversed", "runs", "swaps"})
+    String distribution;
+
+    @Param({"heapsort", "adaptive", "arrays"})
+    String algorithm;
+
+    private int[] input;
+    private int[] array;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        Random random = new Random(42);
+        input = random.ints(size).toArray();
+        switch (distribution) {
+            case "sorted":
+                Arrays.sort(input);
+                break;
+            case "reversed":
+                Arrays.sort(input);
+                reverse(input, 0, size);
+                break;
+            case "runs":
+                int length = size / 100;
+                for (int from = 0; from < size; from += length) {
+                    int to = Math.min(from + length, size);
+                    Arrays.sort(input, from, to);
+                    if (from / length % 2 == 1) {
+                        reverse(input, from, to);
+                    }
+                }
+                break;
+            case "swaps":
+                Arrays.sort(input);
+                for (int i = 0; i < size / 100; i++) {
+                    int a = random.nextInt(size);
+                    int b = random.nextInt(size);
+                    int temp = input[a];
+                    input[a] = input[b];
+                    input[b] = temp;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void reverse(int[] array, int from, int to) {
+        for (int i = from, j = to - 1; i < j; i++, j--) {
+            int temp = array[i];
+            array[i] = array[j];
+            array[j] = temp;
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void copy() {
+        array = input.clone();
+    }
+
+    @Benchmark
+    public int[] sort() {
+        switch (algorithm) {
+            case "heapsort":
+                HeapSort.sort(array);
+                break;
+            case "adaptive":
+                AdaptiveSort.sort(array);
+                break;
+            default:
+                Arrays.sort(array);
+                break;
+        }
+        return array;
+    }
+}
@@ -0,0 +1,147 @@
+package ru.nsu.vyaznikova;
+
+import java.util.Objects;
+
+/**
+ * A sort for int arrays that takes advantage of existing order.
+ *
+ * <p>One pass splits the range into natural runs; descending runs are
+ * reversed in place on the way. Input that turns out to be a single run,
+ * such as sorted or reversed data, is done after this O(n) pass. If the runs
+ * are long on average, they are merged pairwise, which costs O(n log r) for
+ * r runs. Otherwise the pass stops early and the range is sorted by
+ * {@link HeapSort}, so the worst case stays O(n log n).
+ */
+public final class AdaptiveSort {
+
+    /**
+     * The shortest average run for which merging beats heapsort.
+     */
+    static final int MIN_AVERAGE_RUN = 32;
+
+    private AdaptiveSort() {
+    }
+
+    /**
+     * Sorts the array in ascending order.
+     *
+     * @param array the array to sort.
+     */
+    public static void sort(int[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sorts the range {@code [from, to)} of the array in ascending order.
+     *
+     * @param array the array to sort.
+     * @param from  the first index of the range, inclusive.
+     * @param to    the last index of the range, exclusive.
+     */
+    public static void sort(int[] array, int from, int to) {
+        Objects.checkFromToIndex(from, to, array.length);
+        int maxruns = (to - from) / MIN_AVERAGE_RUN + 1;
+        int[] starts = new int[maxruns + 1];
+        int runs = 0;
+        int start = from;
+        while (start < to) {
+            if (runs == maxruns) {
+                HeapSort.sort(array, from, to);
+                return;
+            }
+            starts[runs++] = start;
+            start = runend(array, start, to);
+        }
+        starts[runs] = to;
+        if (runs > 1) {
+            merge(array, starts, runs);
+        }
+    }
+
+    /**
+     * Finds where the run that begins at start ends. A strictly descending
+     * run is reversed, so every run is ascending afterwards.
+     */
+    private static int runend(int[] array, int start, int to) {
+        int end = start + 1;
+        if (end == to) {
+            return end;
+        }
+        if (array[end] < array[start]) {
+            while (end + 1 < to && array[end + 1] < array[end]) {
+                end++;
+            }
+            reverse(array, start, end);
+        } else {
+            while (end + 1 < to && array[end + 1] >= array[end]) {
+                end++;
+            }
+        }
+        return end + 1;
+    }
+
+    private static void reverse(int[] array, int from, int last) {
+        while (from < last) {
+            int temp = array[from];
+            array[from++] = array[last];
+            array[last--] = temp;
+        }
+    }
+
+    /**
+     * Merges neighbouring runs pairwise, round by round, moving the data
+     * between the array and a buffer until one run is left.
+     */
+    private static void merge(int[] array, int[] starts, int runs) {
+        int offset = starts[0];
+        int[] buffer = new int[starts[runs] - offset];
+        int[] source = array;
+        int sourceoffset = 0;
+        int[] target = buffer;
+        int targetoffset = -offset;
+        while (runs > 1) {
+            int merged = 0;
+            for (int run = 0; run < runs; run += 2) {
+                int left = starts[run];
+                int middle = starts[Math.min(run + 1, runs)];
+                int right = starts[Math.min(run + 2, runs)];
+                mergepair(source, sourceoffset, target, targetoffset, left, middle, right);
+                starts[merged++] = left;
+            }
+            starts[merged] = starts[runs];
+            runs = merged;
+
+            int[] swap = source;
+            source = target;
+            target = swap;
+            int swapoffset = sourceoffset;
+            sourceoffset = targetoffset;
+            targetoffset = swapoffset;
+        }
+        if (source != array) {
+            System.arraycopy(buffer, 0, array, offset, buffer.length);
+        }
+    }
+
+    /**
+     * Merges the runs {@code [left, middle)} and {@code [middle, right)}.
+     * Positions are given in array coordinates; each side adds its offset.
+     */
+    private static void mergepair(int[] source, int sourceoffset, int[] target, int targetoffset,
+                                  int left, int middle, int right) {
+        int i = left + sourceoffset;
+        int iend = middle + sourceoffset;
+        int j = iend;
+        int jend = right + sourceoffset;
+        int k = left + targetoffset;
+        if (j == jend || source[iend - 1] <= source[j]) {
+            System.arraycopy(source, i, target, k, jend - i);
+            return;
+        }
+        while (i < iend && j < jend) {
+            target[k++] = source[j] < source[i] ? source[j++] : source[i++];
+        }
+        System.arraycopy(source, i, target, k, iend - i);
+        System.arraycopy(source, j, target, k + iend - i, jend - j);
+    }
+}
@@ -0,0 +1,114 @@
+package ru.nsu.vyaznikova;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A d-ary min-heap of ints.
+ *
+ * <p>The children of a node sit next to each other in the array, so with
+ * arity 4 or 8 a whole group of siblings usually shares a cache line and the
+ * tree is two or three times shallower than a binary one. Both sifts are
+ * iterative and move a hole instead of swapping. The arity has to be a power
+ * of two, so child and parent indices are computed with shifts.
+ */
+public class DaryHeap implements IntPriorityQueue {
+    private final int[] heap;
+    private final int arity;
+    private final int shift;
+    private int size;
+
+    /**
+     * Creates an empty heap.
+     *
+     * @param capacity the maximum number of values the heap can hold.
+     * @param arity    the number of children of each node: 2, 4, 8 or 16.
+     */
+    public DaryHeap(int capacity, int arity) {
+        if (arity < 2 || arity > 16 || Integer.bitCount(arity) != 1) {
+            throw new IllegalArgumentException("arity must be 2, 4, 8 or 16: " + arity);
+        }
+        this.heap = new int[capacity];
+        this.arity = arity;
+        this.shift = Integer.numberOfTrailingZeros(arity);
+        this.size = 0;
+    }
+
+    /**
+     * Returns the number of children of each node.
+     *
+     * @return the arity of the heap.
+     */
+    public int arity() {
+        return arity;
+    }
+
+    @Override
+    public void insertnew(int value) {
+        if (size == heap.length) {
+            throw new IllegalStateException("heap is full");
+        }
+        siftup(size++, value);
+    }
+
+    @Override
+    public int extractmin() {
+        if (size == 0) {
+            throw new NoSuchElementException("heap is empty");
+        }
+        int min = heap[0];
+        int last = heap[--size];
+        if (size > 0) {
+            siftdown(0, last);
+        }
+        return min;
+    }
+
+    @Override
+    public boolean isempty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void siftup(int index, int value) {
+        int[] heap = this.heap;
+        while (index > 0) {
+            int parent = (index - 1) >> shift;
+            int parentvalue = heap[parent];
+            if (parentvalue <= value) {
+                break;
+            }
+            heap[index] = parentvalue;
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    private void siftdown(int index, int value) {
+        int[] heap = this.heap;
+        int size = this.size;
+        int lastparent = (size - 2) >> shift;
+        while (index <= lastparent) {
+            int first = (index << shift) + 1;
+            int end = Math.min(first + arity, size);
+            int minindex = first;
+            int minvalue = heap[first];
+            for (int child = first + 1; child < end; child++) {
+                int childvalue = heap[child];
+                if (childvalue < minvalue) {
+                    minindex = child;
+                    minvalue = childvalue;
+                }
+            }
+            if (value <= minvalue) {
+                break;
+            }
+            heap[index] = minvalue;
+            index = minindex;
+        }
+        heap[index] = value;
+    }
+}
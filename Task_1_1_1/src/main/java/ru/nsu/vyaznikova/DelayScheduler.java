@@ -0,0 +1,289 @@
+package ru.nsu.vyaznikova;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs callbacks after a delay on a single dispatcher thread.
+ *
+ * <p>Pending callbacks are ordered by a {@link LongKeyHeap} keyed by their
+ * deadline in nanoseconds. A scheduled callback takes a slot in a few
+ * parallel arrays instead of a task object; freed slots are reused, so a
+ * steady load of timeouts allocates nothing. When the dispatcher wakes up it
+ * takes every callback that is due in one pass under the lock and runs them
+ * after releasing it.
+ *
+ * <p>{@link #schedule} returns a handle made of the slot number and the
+ * generation of the slot. {@link #cancel} only clears the slot, which is
+ * O(1); the heap entry stays behind as a tombstone and is skipped when it
+ * comes out. If tombstones make up most of the heap, it is compacted.
+ */
+public class DelayScheduler implements AutoCloseable {
+
+    /**
+     * Returned by {@link #schedule} for a closed scheduler; cancelling it does nothing.
+     */
+    public static final long NO_HANDLE = -1;
+
+    /**
+     * The heap is compacted only if it holds at least this many entries.
+     */
+    private static final int MIN_COMPACT = 1024;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final long origin = System.nanoTime();
+    private final LongKeyHeap heap = new LongKeyHeap(16);
+    private final Thread dispatcher;
+
+    private Runnable[] tasks = new Runnable[16];
+    private int[] generations = new int[16];
+    private int[] free = new int[16];
+    private int freecount = 0;
+    private int slots = 0;
+    private int pending = 0;
+    private Runnable[] batch = new Runnable[16];
+    private boolean closed = false;
+
+    /**
+     * Creates a scheduler and starts its dispatcher thread.
+     */
+    public DelayScheduler() {
+        this(true);
+    }
+
+    DelayScheduler(boolean start) {
+        if (start) {
+            dispatcher = new Thread(this::dispatch, "delay-scheduler");
+            dispatcher.setDaemon(true);
+            dispatcher.start();
+        } else {
+            dispatcher = null;
+        }
+    }
+
+    /**
+     * Schedules a callback to run once after the delay.
+     *
+     * @param task  the callback.
+     * @param delay the delay.
+     * @param unit  the unit of the delay.
+     * @return the handle to cancel the callback with.
+     */
+    public long schedule(Runnable task, long delay, TimeUnit unit) {
+        long key = System.nanoTime() - origin;
+        long nanos = unit.toNanos(Math.max(0, delay));
+        return insert(task, nanos > Long.MAX_VALUE - key ? Long.MAX_VALUE : key + nanos);
+    }
+
+    /**
+     * Schedules a callback to run once at a deadline on the
+     * {@link System#nanoTime} scale.
+     *
+     * @param task     the callback.
+     * @param deadline the deadline in nanoseconds.
+     * @return the handle to cancel the callback with.
+     */
+    public long scheduleat(Runnable task, long deadline) {
+        return insert(task, deadline - origin);
+    }
+
+    private long insert(Runnable task, long key) {
+        if (task == null) {
+            throw new NullPointerException("task");
+        }
+        lock.lock();
+        try {
+            if (closed) {
+                return NO_HANDLE;
+            }
+            int slot = allocate();
+            tasks[slot] = task;
+            pending++;
+            boolean earliest = heap.isempty() || key < heap.minkey();
+            heap.insertnew(key, slot);
+            if (earliest) {
+                changed.signal();
+            }
+            return ((long) generations[slot] << 32) | slot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cancels a callback that has not run yet.
+     *
+     * @param handle the handle returned when the callback was scheduled.
+     * @return true if the callback was pending and will not run.
+     */
+    public boolean cancel(long handle) {
+        int slot = (int) handle;
+        int generation = (int) (handle >>> 32);
+        lock.lock();
+        try {
+            if (slot < 0 || slot >= slots || generations[slot] != generation
+                    || tasks[slot] == null) {
+                return false;
+            }
+            tasks[slot] = null;
+            pending--;
+            if (heap.size() >= MIN_COMPACT && pending < heap.size() / 2) {
+                heap.retain(id -> {
+                    if (tasks[id] != null) {
+                        return true;
+                    }
+                    release(id);
+                    return false;
+                });
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of callbacks that are scheduled and not cancelled.
+     *
+     * @return the number of pending callbacks.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return pending;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the dispatcher. Pending callbacks are dropped.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (dispatcher != null && dispatcher != Thread.currentThread()) {
+            try {
+                dispatcher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Runs every callback whose deadline is not after now on the calling thread.
+     *
+     * @param now the current time on the {@link System#nanoTime} scale.
+     * @return the number of callbacks that ran.
+     */
+    int expire(long now) {
+        int count;
+        lock.lock();
+        try {
+            count = collect(now - origin);
+        } finally {
+            lock.unlock();
+        }
+        return run(count);
+    }
+
+    private void dispatch() {
+        while (true) {
+            int count;
+            lock.lock();
+            try {
+                while (true) {
+                    if (closed) {
+                        return;
+                    }
+                    if (heap.isempty()) {
+                        changed.awaitUninterruptibly();
+                        continue;
+                    }
+                    long wait = heap.minkey() - (System.nanoTime() - origin);
+                    if (wait <= 0) {
+                        break;
+                    }
+                    try {
+                        changed.awaitNanos(wait);
+                    } catch (InterruptedException e) {
+                        closed = true;
+                    }
+                }
+                count = collect(System.nanoTime() - origin);
+            } finally {
+                lock.unlock();
+            }
+            run(count);
+        }
+    }
+
+    /**
+     * Moves the due callbacks into the batch and frees their slots.
+     * Must be called under the lock.
+     */
+    private int collect(long key) {
+        int count = 0;
+        while (!heap.isempty() && heap.minkey() <= key) {
+            int slot = heap.extractmin();
+            Runnable task = tasks[slot];
+            release(slot);
+            if (task != null) {
+                if (count == batch.length) {
+                    batch = Arrays.copyOf(batch, 2 * count);
+                }
+                batch[count++] = task;
+                pending--;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Runs the first count callbacks of the batch. Only one thread at a time
+     * may run a batch: the dispatcher, or a caller of {@link #expire} when
+     * there is no dispatcher.
+     */
+    private int run(int count) {
+        Runnable[] tasks = batch;
+        for (int i = 0; i < count; i++) {
+            Runnable task = tasks[i];
+            tasks[i] = null;
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }
+        return count;
+    }
+
+    private int allocate() {
+        if (freecount > 0) {
+            return free[--freecount];
+        }
+        if (slots == tasks.length) {
+            tasks = Arrays.copyOf(tasks, 2 * slots);
+            generations = Arrays.copyOf(generations, 2 * slots);
+            free = Arrays.copyOf(free, 2 * slots);
+        }
+        return slots++;
+    }
+
+    private void release(int slot) {
+        tasks[slot] = null;
+        generations[slot]++;
+        free[freecount++] = slot;
+    }
+}
@@ -0,0 +1,286 @@
+package ru.nsu.vyaznikova;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Heapsort for binary files of ints that do not fit into memory.
+ *
+ * <p>A file is a plain sequence of 4-byte big-endian ints, as written by
+ * {@link java.io.DataOutputStream#writeInt}. Sorting goes in two phases.
+ * First, replacement selection pushes the input through a heap of bounded
+ * size and writes sorted runs to temporary files; on random input a run is
+ * about twice as long as the heap, and already sorted input gives a single
+ * run. Then the runs are combined by a k-way merge through a heap that holds
+ * one head per run. If there are too many runs for one merge, they are first
+ * merged in groups. All files are read and written through buffers of their
+ * channels. They are not mapped into memory: a mapping lasts until it is
+ * collected, and some systems refuse to delete, move or truncate a file
+ * that is still mapped.
+ */
+public final class ExternalHeapSort {
+
+    /**
+     * The default number of values kept in memory while building runs.
+     */
+    public static final int DEFAULT_HEAP_CAPACITY = 1 << 22;
+
+    /**
+     * The largest number of runs merged at once.
+     */
+    static final int MAX_FAN_IN = 256;
+
+    /**
+     * The size of a file buffer in bytes, a multiple of the int size.
+     */
+    private static final int BUFFER = 1 << 16;
+
+    private ExternalHeapSort() {
+    }
+
+    /**
+     * Sorts the ints of the input file into the output file
+     * with the default heap capacity.
+     *
+     * @param input  the file to sort.
+     * @param output the file to write the sorted ints to.
+     * @throws IOException if a file cannot be read or written.
+     */
+    public static void sort(Path input, Path output) throws IOException {
+        sort(input, output, DEFAULT_HEAP_CAPACITY);
+    }
+
+    /**
+     * Sorts the ints of the input file into the output file.
+     * Temporary runs are placed next to the output file.
+     *
+     * @param input        the file to sort.
+     * @param output       the file to write the sorted ints to.
+     * @param heapCapacity the number of values kept in memory while building runs.
+     * @throws IOException if a file cannot be read or written.
+     */
+    public static void sort(Path input, Path output, int heapCapacity) throws IOException {
+        if (heapCapacity < 1) {
+            throw new IllegalArgumentException("heap capacity must be positive: " + heapCapacity);
+        }
+        if (Files.size(input) % Integer.BYTES != 0) {
+            throw new IOException(input + " does not hold a whole number of ints");
+        }
+        Path directory = output.toAbsolutePath().getParent();
+        List<Path> runs = new ArrayList<>();
+        List<Path> merges = new ArrayList<>();
+        try {
+            makeruns(input, directory, heapCapacity, runs);
+            while (runs.size() > MAX_FAN_IN) {
+                List<Path> merged = new ArrayList<>();
+                for (int from = 0; from < runs.size(); from += MAX_FAN_IN) {
+                    int to = Math.min(from + MAX_FAN_IN, runs.size());
+                    List<Path> group = runs.subList(from, to);
+                    Path run = Files.createTempFile(directory, "run", ".bin");
+                    merges.add(run);
+                    merged.add(run);
+                    merge(group, run);
+                    for (Path done : group) {
+                        Files.delete(done);
+                    }
+                }
+                runs = merged;
+            }
+            if (runs.size() == 1) {
+                Files.move(runs.get(0), output, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                merge(runs, output);
+            }
+        } finally {
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+            for (Path run : merges) {
+                Files.deleteIfExists(run);
+            }
+        }
+    }
+
+    /**
+     * Splits the input into sorted runs by replacement selection. The heap key
+     * holds the run number in the high half, so values that are too small for
+     * the current run wait in the heap until the next one starts.
+     */
+    private static void makeruns(Path input, Path directory, int heapCapacity, List<Path> runs)
+            throws IOException {
+        try (IntReader reader = new IntReader(input)) {
+            LongHeap heap = new LongHeap((int) Math.min(heapCapacity, reader.remaining()));
+            while (heap.size() < heapCapacity && reader.hasnext()) {
+                heap.insertnew(tag(0, reader.next()));
+            }
+
+            IntWriter writer = null;
+            int current = -1;
+            try {
+                while (!heap.isempty()) {
+                    long top = heap.min();
+                    int run = (int) (top >>> 32);
+                    int value = untag(top);
+                    if (run != current) {
+                        if (writer != null) {
+                            writer.close();
+                        }
+                        Path path = Files.createTempFile(directory, "run", ".bin");
+                        runs.add(path);
+                        writer = new IntWriter(path);
+                        current = run;
+                    }
+                    writer.write(value);
+
+                    if (reader.hasnext()) {
+                        int next = reader.next();
+                        heap.replacemin(tag(next >= value ? run : run + 1, next));
+                    } else {
+                        heap.extractmin();
+                    }
+                }
+            } finally {
+                if (writer != null) {
+                    writer.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Merges sorted runs into the output through a heap of run heads. The heap
+     * key holds the value in the high half and the run number in the low half.
+     */
+    private static void merge(List<Path> runs, Path output) throws IOException {
+        IntReader[] readers = new IntReader[runs.size()];
+        try (IntWriter writer = new IntWriter(output)) {
+            LongHeap heap = new LongHeap(readers.length);
+            for (int run = 0; run < readers.length; run++) {
+                readers[run] = new IntReader(runs.get(run));
+                if (readers[run].hasnext()) {
+                    heap.insertnew(((long) readers[run].next() << 32) | run);
+                }
+            }
+            while (!heap.isempty()) {
+                long head = heap.min();
+                int run = (int) head;
+                writer.write((int) (head >> 32));
+                if (readers[run].hasnext()) {
+                    heap.replacemin(((long) readers[run].next() << 32) | run);
+                } else {
+                    heap.extractmin();
+                }
+            }
+        } finally {
+            for (IntReader reader : readers) {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Packs a run number and a value into a key that orders by run first and
+     * by value second. Flipping the sign bit makes the unsigned order of the
+     * low half match the signed order of the values.
+     */
+    private static long tag(int run, int value) {
+        return ((long) run << 32) | ((value ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+    }
+
+    private static int untag(long key) {
+        return (int) key ^ Integer.MIN_VALUE;
+    }
+
+    /**
+     * Reads the ints of a file through a buffer.
+     */
+    private static final class IntReader implements Closeable {
+        private final FileChannel channel;
+        private final long size;
+        private long position;
+        private final ByteBuffer buffer;
+
+        IntReader(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            size = channel.size();
+            position = 0;
+            buffer = ByteBuffer.allocateDirect(BUFFER).limit(0);
+        }
+
+        long remaining() {
+            return (size - position + buffer.remaining()) / Integer.BYTES;
+        }
+
+        boolean hasnext() {
+            return buffer.hasRemaining() || position < size;
+        }
+
+        int next() throws IOException {
+            if (!buffer.hasRemaining()) {
+                buffer.clear();
+                while (buffer.hasRemaining() && position < size) {
+                    int read = channel.read(buffer);
+                    if (read < 0) {
+                        throw new IOException("the file ended before " + size + " bytes");
+                    }
+                    position += read;
+                }
+                buffer.flip();
+            }
+            return buffer.getInt();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes ints to a file through a buffer.
+     */
+    private static final class IntWriter implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        IntWriter(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            buffer = ByteBuffer.allocateDirect(BUFFER);
+        }
+
+        void write(int value) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.putInt(value);
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
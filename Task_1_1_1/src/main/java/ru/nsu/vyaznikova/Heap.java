@@ -0,0 +1,90 @@
+package ru.nsu.vyaznikova;
+
+import java.util.Arrays;
+
+class Heap implements IntPriorityQueue {
+    private int[] heap;
+    private int size;
+
+    public Heap(int amountofnums) {
+        heap = new int[amountofnums];
+        size = 0;
+    }
+
+    private void swap(int i, int j) {
+        int temp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = temp;
+    }
+
+    private void siftup(int index) {
+        int parentindex = (index - 1) / 2;
+        while (index > 0 && heap[index] < heap[parentindex]) {
+            swap(index, parentindex);
+            index = parentindex;
+            parentindex = (index - 1) / 2;
+        }
+    }
+
+    @Override
+    public void insertnew(int value) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, Math.max(1, 2 * size));
+        }
+        heap[size] = value;
+        siftup(size);
+        size++;
+    }
+
+    private void siftdown(int index) {
+        int minindex = index;
+        int leftindex = 2 * index + 1;
+        int rightindex = 2 * index + 2;
+
+        if (leftindex < size && heap[leftindex] < heap[minindex]) {
+            minindex = leftindex;
+        }
+
+        if (rightindex < size && heap[rightindex] < heap[minindex]) {
+            minindex = rightindex;
+        }
+
+        if (minindex != index) {
+            swap(index, minindex);
+            siftdown(minindex);
+        }
+    }
+
+    @Override
+    public int extractmin() {
+        int min = heap[0];
+        heap[0] = heap[--size];
+        siftdown(0);
+        return min;
+    }
+
+    public int min() {
+        return heap[0];
+    }
+
+    public int replacemin(int value) {
+        int min = heap[0];
+        heap[0] = value;
+        siftdown(0);
+        return min;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(heap, size);
+    }
+
+    @Override
+    public boolean isempty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
\ No newline at end of file
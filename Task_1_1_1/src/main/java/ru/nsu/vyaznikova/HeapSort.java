@@ -0,0 +1,256 @@
+package ru.nsu.vyaznikova;
+
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * In-place heapsort.
+ *
+ * <p>The heap is built bottom-up (Floyd's heapify) directly inside the
+ * caller's array, so sorting needs no buffer besides the array itself.
+ * Every overload runs the same algorithm: a max-heap over {@code [from, to)}
+ * followed by repeated extraction of the maximum to the end of the range.
+ * The primitive overloads are specialised copies of that core, the same way
+ * {@link java.util.Arrays} does it, so no value is ever boxed.
+ */
+public final class HeapSort {
+
+    private HeapSort() {
+    }
+
+    /**
+     * Sorts the array in ascending order.
+     *
+     * @param array the array to sort.
+     */
+    public static void sort(int[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sorts the range {@code [from, to)} of the array in ascending order.
+     *
+     * @param array the array to sort.
+     * @param from  the first index of the range, inclusive.
+     * @param to    the last index of the range, exclusive.
+     */
+    public static void sort(int[] array, int from, int to) {
+        Objects.checkFromToIndex(from, to, array.length);
+        int size = to - from;
+        for (int index = (size >>> 1) - 1; index >= 0; index--) {
+            siftdown(array, from, index, size, array[from + index]);
+        }
+        for (int end = size - 1; end > 0; end--) {
+            int last = array[from + end];
+            array[from + end] = array[from];
+            siftdown(array, from, 0, end, last);
+        }
+    }
+
+    /**
+     * Sorts the array in ascending order.
+     *
+     * @param array the array to sort.
+     */
+    public static void sort(long[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sorts the range {@code [from, to)} of the array in ascending order.
+     *
+     * @param array the array to sort.
+     * @param from  the first index of the range, inclusive.
+     * @param to    the last index of the range, exclusive.
+     */
+    public static void sort(long[] array, int from, int to) {
+        Objects.checkFromToIndex(from, to, array.length);
+        int size = to - from;
+        for (int index = (size >>> 1) - 1; index >= 0; index--) {
+            siftdown(array, from, index, size, array[from + index]);
+        }
+        for (int end = size - 1; end > 0; end--) {
+            long last = array[from + end];
+            array[from + end] = array[from];
+            siftdown(array, from, 0, end, last);
+        }
+    }
+
+    /**
+     * Sorts the array in ascending order.
+     * Values are ordered as by {@link Double#compare}: {@code -0.0} comes
+     * before {@code 0.0} and {@code NaN} goes last.
+     *
+     * @param array the array to sort.
+     */
+    public static void sort(double[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Sorts the range {@code [from, to)} of the array in ascending order.
+     * Values are ordered as by {@link Double#compare}.
+     *
+     * @param array the array to sort.
+     * @param from  the first index of the range, inclusive.
+     * @param to    the last index of the range, exclusive.
+     */
+    public static void sort(double[] array, int from, int to) {
+        Objects.checkFromToIndex(from, to, array.length);
+        int size = to - from;
+        for (int index = (size >>> 1) - 1; index >= 0; index--) {
+            siftdown(array, from, index, size, array[from + index]);
+        }
+        for (int end = size - 1; end > 0; end--) {
+            double last = array[from + end];
+            array[from + end] = array[from];
+            siftdown(array, from, 0, end, last);
+        }
+    }
+
+    /**
+     * Sorts the array according to the comparator.
+     *
+     * @param array      the array to sort.
+     * @param comparator the order of the elements.
+     * @param <T>        the type of the elements.
+     */
+    public static <T> void sort(T[] array, Comparator<? super T> comparator) {
+        sort(array, 0, array.length, comparator);
+    }
+
+    /**
+     * Sorts the range {@code [from, to)} of the array according to the comparator.
+     *
+     * @param array      the array to sort.
+     * @param from       the first index of the range, inclusive.
+     * @param to         the last index of the range, exclusive.
+     * @param comparator the order of the elements.
+     * @param <T>        the type of the elements.
+     */
+    public static <T> void sort(T[] array, int from, int to, Comparator<? super T> comparator) {
+        Objects.checkFromToIndex(from, to, array.length);
+        Objects.requireNonNull(comparator);
+        int size = to - from;
+        for (int index = (size >>> 1) - 1; index >= 0; index--) {
+            siftdown(array, from, index, size, array[from + index], comparator);
+        }
+        for (int end = size - 1; end > 0; end--) {
+            T last = array[from + end];
+            array[from + end] = array[from];
+            siftdown(array, from, 0, end, last, comparator);
+        }
+    }
+
+    /**
+     * Sorts an off-heap array in ascending order.
+     * The array may be longer than any Java array.
+     *
+     * @param array the array to sort.
+     */
+    public static void sort(OffHeapIntArray array) {
+        long size = array.length();
+        for (long index = (size >>> 1) - 1; index >= 0; index--) {
+            siftdown(array, index, size, array.get(index));
+        }
+        for (long end = size - 1; end > 0; end--) {
+            int last = array.get(end);
+            array.set(end, array.get(0));
+            siftdown(array, 0, end, last);
+        }
+    }
+
+    /*
+     * Each siftdown moves the hole at index down the max-heap of the given size,
+     * which starts at base, until value fits into it. Children are shifted up
+     * instead of swapped, so every level costs one write.
+     */
+
+    private static void siftdown(int[] heap, int base, int index, int size, int value) {
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && heap[base + child + 1] > heap[base + child]) {
+                child++;
+            }
+            if (value >= heap[base + child]) {
+                break;
+            }
+            heap[base + index] = heap[base + child];
+            index = child;
+        }
+        heap[base + index] = value;
+    }
+
+    private static void siftdown(long[] heap, int base, int index, int size, long value) {
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && heap[base + child + 1] > heap[base + child]) {
+                child++;
+            }
+            if (value >= heap[base + child]) {
+                break;
+            }
+            heap[base + index] = heap[base + child];
+            index = child;
+        }
+        heap[base + index] = value;
+    }
+
+    private static void siftdown(double[] heap, int base, int index, int size, double value) {
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size
+                    && Double.compare(heap[base + child + 1], heap[base + child]) > 0) {
+                child++;
+            }
+            if (Double.compare(value, heap[base + child]) >= 0) {
+                break;
+            }
+            heap[base + index] = heap[base + child];
+            index = child;
+        }
+        heap[base + index] = value;
+    }
+
+    private static void siftdown(OffHeapIntArray heap, long index, long size, int value) {
+        long half = size >>> 1;
+        while (index < half) {
+            long child = 2 * index + 1;
+            int childvalue = heap.get(child);
+            if (child + 1 < size) {
+                int rightvalue = heap.get(child + 1);
+                if (rightvalue > childvalue) {
+                    child++;
+                    childvalue = rightvalue;
+                }
+            }
+            if (value >= childvalue) {
+                break;
+            }
+            heap.set(index, childvalue);
+            index = child;
+        }
+        heap.set(index, value);
+    }
+
+    private static <T> void siftdown(T[] heap, int base, int index, int size, T value,
+                                     Comparator<? super T> comparator) {
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size
+                    && comparator.compare(heap[base + child + 1], heap[base + child]) > 0) {
+                child++;
+            }
+            if (comparator.compare(value, heap[base + child]) >= 0) {
+                break;
+            }
+            heap[base + index] = heap[base + child];
+            index = child;
+        }
+        heap[base + index] = value;
+    }
+}
@@ -0,0 +1,204 @@
+package ru.nsu.vyaznikova;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap of element ids ordered by int keys, where the key of an
+ * element already in the heap can be changed.
+ *
+ * <p>Ids are ints from 0 to capacity - 1. Three parallel arrays replace node
+ * objects: {@code heap} holds the ids in heap order, {@code positions} maps
+ * an id to its place in {@code heap} (or -1 if it is absent) and
+ * {@code keys} holds the key of every id. So a key change finds its element
+ * in O(1), moves it in O(log n) and allocates nothing.
+ */
+public class IndexedHeap {
+    private final int[] heap;
+    private final int[] positions;
+    private final int[] keys;
+    private int size;
+
+    /**
+     * Creates an empty heap for the ids from 0 to capacity - 1.
+     *
+     * @param capacity the number of possible ids.
+     */
+    public IndexedHeap(int capacity) {
+        heap = new int[capacity];
+        positions = new int[capacity];
+        keys = new int[capacity];
+        Arrays.fill(positions, -1);
+        size = 0;
+    }
+
+    /**
+     * Adds an element.
+     *
+     * @param id  the id of the element, not yet in the heap.
+     * @param key the key of the element.
+     */
+    public void insertnew(int id, int key) {
+        if (contains(id)) {
+            throw new IllegalArgumentException("id is already in the heap: " + id);
+        }
+        keys[id] = key;
+        heap[size] = id;
+        positions[id] = size;
+        siftup(size++);
+    }
+
+    /**
+     * Checks whether an element is in the heap.
+     *
+     * @param id the id of the element.
+     * @return true if the element is in the heap.
+     */
+    public boolean contains(int id) {
+        return positions[id] >= 0;
+    }
+
+    /**
+     * Returns the key of an element.
+     *
+     * @param id the id of the element.
+     * @return the key of the element.
+     */
+    public int keyof(int id) {
+        check(id);
+        return keys[id];
+    }
+
+    /**
+     * Returns the id of the element with the smallest key.
+     *
+     * @return the id of the smallest element.
+     */
+    public int minid() {
+        if (size == 0) {
+            throw new NoSuchElementException("heap is empty");
+        }
+        return heap[0];
+    }
+
+    /**
+     * Returns the smallest key.
+     *
+     * @return the smallest key.
+     */
+    public int minkey() {
+        return keys[minid()];
+    }
+
+    /**
+     * Removes the element with the smallest key.
+     *
+     * @return the id of the removed element.
+     */
+    public int extractmin() {
+        int id = minid();
+        remove(id);
+        return id;
+    }
+
+    /**
+     * Lowers the key of an element.
+     *
+     * @param id  the id of the element.
+     * @param key the new key, not greater than the current one.
+     */
+    public void decreaseKey(int id, int key) {
+        check(id);
+        if (key > keys[id]) {
+            throw new IllegalArgumentException("key " + key + " is greater than " + keys[id]);
+        }
+        keys[id] = key;
+        siftup(positions[id]);
+    }
+
+    /**
+     * Raises the key of an element.
+     *
+     * @param id  the id of the element.
+     * @param key the new key, not less than the current one.
+     */
+    public void increaseKey(int id, int key) {
+        check(id);
+        if (key < keys[id]) {
+            throw new IllegalArgumentException("key " + key + " is less than " + keys[id]);
+        }
+        keys[id] = key;
+        siftdown(positions[id]);
+    }
+
+    /**
+     * Removes an element.
+     *
+     * @param id the id of the element.
+     */
+    public void remove(int id) {
+        check(id);
+        int position = positions[id];
+        positions[id] = -1;
+        size--;
+        if (position == size) {
+            return;
+        }
+        int last = heap[size];
+        heap[position] = last;
+        positions[last] = position;
+        siftup(position);
+        siftdown(positions[last]);
+    }
+
+    public boolean isempty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void check(int id) {
+        if (!contains(id)) {
+            throw new NoSuchElementException("id is not in the heap: " + id);
+        }
+    }
+
+    private void place(int position, int id) {
+        heap[position] = id;
+        positions[id] = position;
+    }
+
+    private void siftup(int position) {
+        int id = heap[position];
+        int key = keys[id];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (keys[heap[parent]] <= key) {
+                break;
+            }
+            place(position, heap[parent]);
+            position = parent;
+        }
+        place(position, id);
+    }
+
+    private void siftdown(int position) {
+        int id = heap[position];
+        int key = keys[id];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                child++;
+            }
+            if (key <= keys[heap[child]]) {
+                break;
+            }
+            place(position, heap[child]);
+            position = child;
+        }
+        place(position, id);
+    }
+}
@@ -0,0 +1,35 @@
+package ru.nsu.vyaznikova;
+
+/**
+ * A min-priority queue of ints.
+ */
+public interface IntPriorityQueue {
+
+    /**
+     * Adds a value to the queue.
+     *
+     * @param value the value to add.
+     */
+    void insertnew(int value);
+
+    /**
+     * Removes and returns the smallest value of the queue.
+     *
+     * @return the smallest value.
+     */
+    int extractmin();
+
+    /**
+     * Checks whether the queue holds no values.
+     *
+     * @return true if the queue is empty.
+     */
+    boolean isempty();
+
+    /**
+     * Returns the number of values in the queue.
+     *
+     * @return the number of values.
+     */
+    int size();
+}
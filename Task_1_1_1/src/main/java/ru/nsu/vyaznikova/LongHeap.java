@@ -0,0 +1,90 @@
+package ru.nsu.vyaznikova;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap of longs with a fixed capacity.
+ *
+ * <p>It is the {@code long} counterpart of {@link Heap}. A long key is wide
+ * enough to carry an int value together with a tag, for example the run a
+ * value came from during a k-way merge.
+ */
+class LongHeap {
+    private final long[] heap;
+    private int size;
+
+    LongHeap(int capacity) {
+        heap = new long[capacity];
+        size = 0;
+    }
+
+    public void insertnew(long value) {
+        if (size == heap.length) {
+            throw new IllegalStateException("heap is full");
+        }
+        int index = size++;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] <= value) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    public long min() {
+        if (size == 0) {
+            throw new NoSuchElementException("heap is empty");
+        }
+        return heap[0];
+    }
+
+    public long extractmin() {
+        long min = min();
+        long last = heap[--size];
+        if (size > 0) {
+            siftdown(last);
+        }
+        return min;
+    }
+
+    /**
+     * Replaces the smallest value with a new one in a single sift,
+     * which is cheaper than an extractmin followed by an insertnew.
+     *
+     * @param value the value to insert.
+     * @return the value that was the smallest.
+     */
+    public long replacemin(long value) {
+        long min = min();
+        siftdown(value);
+        return min;
+    }
+
+    public boolean isempty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void siftdown(long value) {
+        int index = 0;
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (value <= heap[child]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+}
@@ -0,0 +1,117 @@
+package ru.nsu.vyaznikova;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.IntPredicate;
+
+/**
+ * A binary min-heap of int ids ordered by long keys, kept in two parallel
+ * arrays that grow when full. Unlike {@link LongHeap} the whole 64 bits of
+ * the key are free, so it fits keys such as {@link System#nanoTime} deadlines.
+ */
+class LongKeyHeap {
+    private long[] keys;
+    private int[] ids;
+    private int size;
+
+    LongKeyHeap(int capacity) {
+        keys = new long[capacity];
+        ids = new int[capacity];
+        size = 0;
+    }
+
+    public void insertnew(long key, int id) {
+        if (size == keys.length) {
+            int capacity = Math.max(16, 2 * size);
+            keys = Arrays.copyOf(keys, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+        }
+        int index = size++;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            keys[index] = keys[parent];
+            ids[index] = ids[parent];
+            index = parent;
+        }
+        keys[index] = key;
+        ids[index] = id;
+    }
+
+    public long minkey() {
+        if (size == 0) {
+            throw new NoSuchElementException("heap is empty");
+        }
+        return keys[0];
+    }
+
+    public int minid() {
+        if (size == 0) {
+            throw new NoSuchElementException("heap is empty");
+        }
+        return ids[0];
+    }
+
+    /**
+     * Removes the entry with the smallest key.
+     *
+     * @return the id of the removed entry.
+     */
+    public int extractmin() {
+        int id = minid();
+        size--;
+        if (size > 0) {
+            siftdown(0, keys[size], ids[size]);
+        }
+        return id;
+    }
+
+    /**
+     * Drops every entry whose id does not pass the test and rebuilds the
+     * heap bottom-up in O(n).
+     *
+     * @param keep the test for the ids to keep.
+     */
+    public void retain(IntPredicate keep) {
+        int kept = 0;
+        for (int index = 0; index < size; index++) {
+            if (keep.test(ids[index])) {
+                keys[kept] = keys[index];
+                ids[kept] = ids[index];
+                kept++;
+            }
+        }
+        size = kept;
+        for (int index = (size >>> 1) - 1; index >= 0; index--) {
+            siftdown(index, keys[index], ids[index]);
+        }
+    }
+
+    public boolean isempty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void siftdown(int index, long key, int id) {
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            keys[index] = keys[child];
+            ids[index] = ids[child];
+            index = child;
+        }
+        keys[index] = key;
+        ids[index] = id;
+    }
+}
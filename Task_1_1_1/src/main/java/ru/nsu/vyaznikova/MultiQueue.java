@@ -0,0 +1,169 @@
+package ru.nsu.vyaznikova;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A relaxed concurrent min-priority queue of ints built from several
+ * independent {@link Heap} stripes.
+ *
+ * <p>Every stripe is guarded by its own lock, which is only ever tried, so a
+ * thread that meets a busy stripe moves on to another one instead of waiting.
+ * A value is inserted into a random stripe. To extract, two random stripes
+ * are compared by their smallest values and the better one is popped. The
+ * result is not always the global minimum, but it is close to it with high
+ * probability, and threads rarely touch the same stripe at the same time.
+ * Two to four stripes per thread are a good start.
+ */
+public class MultiQueue {
+
+    /**
+     * The published minimum of an empty stripe, above every int.
+     */
+    private static final long EMPTY = Long.MAX_VALUE;
+
+    private final Stripe[] stripes;
+
+    /**
+     * Creates an empty queue with two stripes per available processor.
+     */
+    public MultiQueue() {
+        this(2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates an empty queue.
+     *
+     * @param stripes the number of stripes.
+     */
+    public MultiQueue(int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("there must be at least one stripe: " + stripes);
+        }
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Adds a value to a random stripe.
+     *
+     * @param value the value to add.
+     */
+    public void insertnew(int value) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int attempt = 0; attempt < stripes.length; attempt++) {
+            Stripe stripe = stripes[random.nextInt(stripes.length)];
+            if (stripe.lock.tryLock()) {
+                try {
+                    stripe.insertnew(value);
+                } finally {
+                    stripe.lock.unlock();
+                }
+                return;
+            }
+        }
+        Stripe stripe = stripes[random.nextInt(stripes.length)];
+        stripe.lock.lock();
+        try {
+            stripe.insertnew(value);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes and returns a value close to the smallest one: the smaller of
+     * the minima of two random stripes. When the random picks keep missing,
+     * every stripe is checked in turn.
+     *
+     * @return the extracted value.
+     * @throws NoSuchElementException if every stripe is empty.
+     */
+    public int extractmin() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int attempt = 0; attempt < stripes.length; attempt++) {
+            Stripe first = stripes[random.nextInt(stripes.length)];
+            Stripe second = stripes[random.nextInt(stripes.length)];
+            Stripe better = first.top <= second.top ? first : second;
+            if (better.top != EMPTY && better.lock.tryLock()) {
+                try {
+                    if (!better.heap.isempty()) {
+                        return better.extractmin();
+                    }
+                } finally {
+                    better.lock.unlock();
+                }
+            }
+        }
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                if (!stripe.heap.isempty()) {
+                    return stripe.extractmin();
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        throw new NoSuchElementException("queue is empty");
+    }
+
+    /**
+     * Checks whether all stripes were empty at the moment they were looked at.
+     *
+     * @return true if the queue looks empty.
+     */
+    public boolean isempty() {
+        for (Stripe stripe : stripes) {
+            if (stripe.top != EMPTY) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of values, which is exact only when no other
+     * thread changes the queue.
+     *
+     * @return the number of values.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+
+    /**
+     * A heap with its lock. The minimum and the size are published in
+     * volatile fields after every change, so other threads can choose a
+     * stripe without taking its lock.
+     */
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Heap heap = new Heap(16);
+        private volatile long top = EMPTY;
+        private volatile int size;
+
+        void insertnew(int value) {
+            heap.insertnew(value);
+            publish();
+        }
+
+        int extractmin() {
+            int min = heap.extractmin();
+            publish();
+            return min;
+        }
+
+        private void publish() {
+            top = heap.isempty() ? EMPTY : heap.min();
+            size = heap.size();
+        }
+    }
+}
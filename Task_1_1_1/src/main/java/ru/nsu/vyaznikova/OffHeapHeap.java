@@ -0,0 +1,89 @@
+package ru.nsu.vyaznikova;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap of ints kept in an {@link OffHeapIntArray}.
+ *
+ * <p>It has the same operations as {@link Heap}, but its capacity and size
+ * are longs, so it can hold billions of values without putting them on the
+ * Java heap.
+ */
+public class OffHeapHeap {
+    private final OffHeapIntArray heap;
+    private long size;
+
+    /**
+     * Creates an empty heap.
+     *
+     * @param capacity the maximum number of values the heap can hold.
+     */
+    public OffHeapHeap(long capacity) {
+        heap = new OffHeapIntArray(capacity);
+        size = 0;
+    }
+
+    OffHeapHeap(OffHeapIntArray storage) {
+        heap = storage;
+        size = 0;
+    }
+
+    public void insertnew(int value) {
+        if (size == heap.length()) {
+            throw new IllegalStateException("heap is full");
+        }
+        long index = size++;
+        while (index > 0) {
+            long parent = (index - 1) >>> 1;
+            int parentvalue = heap.get(parent);
+            if (parentvalue <= value) {
+                break;
+            }
+            heap.set(index, parentvalue);
+            index = parent;
+        }
+        heap.set(index, value);
+    }
+
+    public int min() {
+        if (size == 0) {
+            throw new NoSuchElementException("heap is empty");
+        }
+        return heap.get(0);
+    }
+
+    public int extractmin() {
+        int min = min();
+        int last = heap.get(--size);
+        long index = 0;
+        long half = size >>> 1;
+        while (index < half) {
+            long child = 2 * index + 1;
+            int childvalue = heap.get(child);
+            if (child + 1 < size) {
+                int rightvalue = heap.get(child + 1);
+                if (rightvalue < childvalue) {
+                    child++;
+                    childvalue = rightvalue;
+                }
+            }
+            if (last <= childvalue) {
+                break;
+            }
+            heap.set(index, childvalue);
+            index = child;
+        }
+        if (size > 0) {
+            heap.set(index, last);
+        }
+        return min;
+    }
+
+    public boolean isempty() {
+        return size == 0;
+    }
+
+    public long size() {
+        return size;
+    }
+}
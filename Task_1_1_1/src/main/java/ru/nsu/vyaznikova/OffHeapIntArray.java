@@ -0,0 +1,83 @@
+package ru.nsu.vyaznikova;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * A fixed-length array of ints stored outside the Java heap and indexed by
+ * long, so it may hold more than 2^31 values.
+ *
+ * <p>The values live in direct buffers of up to 2^26 ints (256 MB) each; an
+ * index is split into the number of the buffer and the place inside it with
+ * a shift and a mask. The garbage collector never scans or copies this
+ * memory. It is given back when the array becomes unreachable; the amount
+ * that can be allocated is limited by {@code -XX:MaxDirectMemorySize}.
+ */
+public class OffHeapIntArray {
+    private static final int PAGE_SHIFT = 26;
+
+    private final IntBuffer[] pages;
+    private final int shift;
+    private final int mask;
+    private final long length;
+
+    /**
+     * Creates an array of zeros.
+     *
+     * @param length the number of values.
+     */
+    public OffHeapIntArray(long length) {
+        this(length, PAGE_SHIFT);
+    }
+
+    OffHeapIntArray(long length, int shift) {
+        if (length < 0) {
+            throw new IllegalArgumentException("length must not be negative: " + length);
+        }
+        long pagesize = 1L << shift;
+        long count = (length + pagesize - 1) >>> shift;
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("length is too large: " + length);
+        }
+        this.pages = new IntBuffer[(int) count];
+        this.shift = shift;
+        this.mask = (int) (pagesize - 1);
+        this.length = length;
+        for (int page = 0; page < pages.length; page++) {
+            long ints = Math.min(pagesize, length - ((long) page << shift));
+            pages[page] = ByteBuffer.allocateDirect((int) ints * Integer.BYTES)
+                    .order(ByteOrder.nativeOrder())
+                    .asIntBuffer();
+        }
+    }
+
+    /**
+     * Returns the number of values.
+     *
+     * @return the length of the array.
+     */
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Returns the value at an index.
+     *
+     * @param index the index, from 0 to length - 1.
+     * @return the value.
+     */
+    public int get(long index) {
+        return pages[(int) (index >>> shift)].get((int) index & mask);
+    }
+
+    /**
+     * Stores a value at an index.
+     *
+     * @param index the index, from 0 to length - 1.
+     * @param value the value.
+     */
+    public void set(long index, int value) {
+        pages[(int) (index >>> shift)].put((int) index & mask, value);
+    }
+}
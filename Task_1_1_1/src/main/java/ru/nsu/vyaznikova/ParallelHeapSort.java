@@ -0,0 +1,172 @@
+package ru.nsu.vyaznikova;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Parallel heapsort for int arrays.
+ *
+ * <p>The array is cut into one run per worker of the pool and every run is
+ * sorted in place with {@link HeapSort}. The sorted runs are then combined by
+ * a k-way merge: a min-heap holds the head of every run and always yields the
+ * smallest of them. To keep all workers busy during the merge as well, the
+ * value range is split by splitters sampled from the runs, and every slice of
+ * it is merged by its own heap into its own part of a buffer.
+ */
+public final class ParallelHeapSort {
+
+    /**
+     * Runs shorter than this are not worth a separate task.
+     */
+    private static final int MIN_RUN = 1 << 13;
+
+    private ParallelHeapSort() {
+    }
+
+    /**
+     * Sorts the array in ascending order using the common pool.
+     *
+     * @param array the array to sort.
+     */
+    public static void sort(int[] array) {
+        sort(array, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Sorts the array in ascending order using the given pool.
+     *
+     * @param array the array to sort.
+     * @param pool  the pool to run the tasks in.
+     */
+    public static void sort(int[] array, ForkJoinPool pool) {
+        int length = array.length;
+        int runs = Math.min(pool.getParallelism(), length / MIN_RUN);
+        if (runs <= 1) {
+            HeapSort.sort(array);
+            return;
+        }
+
+        int[] bounds = new int[runs + 1];
+        for (int run = 0; run <= runs; run++) {
+            bounds[run] = (int) ((long) length * run / runs);
+        }
+        pool.invoke(new Each(0, runs, run -> HeapSort.sort(array, bounds[run], bounds[run + 1])));
+
+        int[][] cuts = cut(array, bounds);
+        int[] offsets = new int[runs + 1];
+        for (int slice = 0; slice < runs; slice++) {
+            int sliceLength = 0;
+            for (int run = 0; run < runs; run++) {
+                sliceLength += cuts[slice + 1][run] - cuts[slice][run];
+            }
+            offsets[slice + 1] = offsets[slice] + sliceLength;
+        }
+
+        int[] buffer = new int[length];
+        pool.invoke(new Each(0, runs, slice ->
+                merge(array, cuts[slice], cuts[slice + 1], buffer, offsets[slice])));
+        pool.invoke(new Each(0, runs, slice -> System.arraycopy(buffer, offsets[slice],
+                array, offsets[slice], offsets[slice + 1] - offsets[slice])));
+    }
+
+    /**
+     * Splits every sorted run into as many slices as there are runs, so that
+     * the slices with the same number hold the same range of values.
+     * {@code cuts[slice][run]} is where the slice starts inside the run.
+     */
+    private static int[][] cut(int[] array, int[] bounds) {
+        int runs = bounds.length - 1;
+        int[] samples = new int[runs * runs];
+        for (int run = 0; run < runs; run++) {
+            int runLength = bounds[run + 1] - bounds[run];
+            for (int sample = 0; sample < runs; sample++) {
+                int index = bounds[run] + (int) ((long) runLength * sample / runs);
+                samples[run * runs + sample] = array[index];
+            }
+        }
+        HeapSort.sort(samples);
+
+        int[][] cuts = new int[runs + 1][];
+        cuts[0] = Arrays.copyOf(bounds, runs);
+        cuts[runs] = Arrays.copyOfRange(bounds, 1, runs + 1);
+        for (int slice = 1; slice < runs; slice++) {
+            int splitter = samples[slice * runs];
+            cuts[slice] = new int[runs];
+            for (int run = 0; run < runs; run++) {
+                cuts[slice][run] = lowerbound(array, bounds[run], bounds[run + 1], splitter);
+            }
+        }
+        return cuts;
+    }
+
+    private static int lowerbound(int[] array, int from, int to, int value) {
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (array[middle] < value) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+
+    /**
+     * Merges the parts {@code [starts[run], ends[run])} of all runs into the
+     * output, beginning at the offset. The heap keys hold the value in the
+     * high half and the run number in the low half.
+     */
+    private static void merge(int[] array, int[] starts, int[] ends, int[] output, int offset) {
+        int runs = starts.length;
+        int[] positions = starts.clone();
+        LongHeap heap = new LongHeap(runs);
+        for (int run = 0; run < runs; run++) {
+            if (positions[run] < ends[run]) {
+                heap.insertnew(pack(array[positions[run]], run));
+            }
+        }
+        while (!heap.isempty()) {
+            long head = heap.min();
+            int run = (int) head;
+            output[offset++] = (int) (head >> 32);
+            if (++positions[run] < ends[run]) {
+                heap.replacemin(pack(array[positions[run]], run));
+            } else {
+                heap.extractmin();
+            }
+        }
+    }
+
+    private static long pack(int value, int run) {
+        return ((long) value << 32) | run;
+    }
+
+    /**
+     * Runs the action for every index in {@code [from, to)}, one task per index.
+     */
+    private static final class Each extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final IntConsumer action;
+
+        Each(int from, int to, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                action.accept(from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Each(from, middle, action), new Each(middle, to, action));
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package ru.nsu.vyaznikova;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.stream.IntStream;
+
+/**
+ * Keeps the k smallest or the k largest of the values it has seen.
+ *
+ * <p>The values are held in a {@link Heap} of capacity k whose root is the
+ * worst value kept so far, so memory stays O(k) however long the input is,
+ * and every new value costs one comparison plus a sift only if it gets in.
+ * The heap is a min-heap, which suits the k largest values directly; for the
+ * k smallest the values are stored bitwise inverted, which reverses their
+ * order without the overflow of negation.
+ *
+ * <p>Accumulators can be merged, so a parallel {@link IntStream} keeps one
+ * accumulator per thread and combines them at the end.
+ */
+public class TopK {
+    private final Heap heap;
+    private final int k;
+    private final boolean largest;
+
+    private TopK(int k, boolean largest) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+        this.heap = new Heap(k);
+        this.k = k;
+        this.largest = largest;
+    }
+
+    /**
+     * Creates an empty accumulator of the k smallest values.
+     *
+     * @param k the number of values to keep.
+     * @return the accumulator.
+     */
+    public static TopK smallest(int k) {
+        return new TopK(k, false);
+    }
+
+    /**
+     * Creates an empty accumulator of the k largest values.
+     *
+     * @param k the number of values to keep.
+     * @return the accumulator.
+     */
+    public static TopK largest(int k) {
+        return new TopK(k, true);
+    }
+
+    /**
+     * Offers a value to the accumulator.
+     *
+     * @param value the value.
+     */
+    public void add(int value) {
+        addkey(largest ? value : ~value);
+    }
+
+    private void addkey(int key) {
+        if (heap.size() < k) {
+            heap.insertnew(key);
+        } else if (k > 0 && key > heap.min()) {
+            heap.replacemin(key);
+        }
+    }
+
+    /**
+     * Adds the values kept by another accumulator of the same kind to this one.
+     *
+     * @param other the accumulator to take the values from.
+     * @return this accumulator.
+     */
+    public TopK merge(TopK other) {
+        if (other.largest != largest) {
+            throw new IllegalArgumentException("cannot merge smallest and largest values");
+        }
+        for (int key : other.heap.toArray()) {
+            addkey(key);
+        }
+        return this;
+    }
+
+    /**
+     * Returns the kept values from the best to the worst: ascending
+     * for the smallest values and descending for the largest ones.
+     *
+     * @return the kept values, at most k of them.
+     */
+    public int[] toArray() {
+        int[] keys = heap.toArray();
+        HeapSort.sort(keys);
+        int[] values = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            int key = keys[keys.length - 1 - i];
+            values[i] = largest ? key : ~key;
+        }
+        return values;
+    }
+
+    /**
+     * Returns the k smallest values of the stream in ascending order.
+     * A parallel stream is processed with one accumulator per thread.
+     *
+     * @param values the stream of values.
+     * @param k      the number of values to keep.
+     * @return the smallest values.
+     */
+    public static int[] smallest(IntStream values, int k) {
+        return values.collect(() -> smallest(k), TopK::add, TopK::merge).toArray();
+    }
+
+    /**
+     * Returns the k largest values of the stream in descending order.
+     * A parallel stream is processed with one accumulator per thread.
+     *
+     * @param values the stream of values.
+     * @param k      the number of values to keep.
+     * @return the largest values.
+     */
+    public static int[] largest(IntStream values, int k) {
+        return values.collect(() -> largest(k), TopK::add, TopK::merge).toArray();
+    }
+
+    /**
+     * Returns the k smallest values of the array in ascending order,
+     * scanning parts of the array in parallel.
+     *
+     * @param values the values.
+     * @param k      the number of values to keep.
+     * @return the smallest values.
+     */
+    public static int[] parallelSmallest(int[] values, int k) {
+        return smallest(Arrays.stream(values).parallel(), k);
+    }
+
+    /**
+     * Returns the k largest values of the array in descending order,
+     * scanning parts of the array in parallel.
+     *
+     * @param values the values.
+     * @param k      the number of values to keep.
+     * @return the largest values.
+     */
+    public static int[] parallelLargest(int[] values, int k) {
+        return largest(Arrays.stream(values).parallel(), k);
+    }
+
+    /**
+     * Returns the k smallest values of the iterator in ascending order.
+     *
+     * @param values the iterator over the values.
+     * @param k      the number of values to keep.
+     * @return the smallest values.
+     */
+    public static int[] smallest(PrimitiveIterator.OfInt values, int k) {
+        TopK top = smallest(k);
+        while (values.hasNext()) {
+            top.add(values.nextInt());
+        }
+        return top.toArray();
+    }
+
+    /**
+     * Returns the k largest values of the iterator in descending order.
+     *
+     * @param values the iterator over the values.
+     * @param k      the number of values to keep.
+     * @return the largest values.
+     */
+    public static int[] largest(PrimitiveIterator.OfInt values, int k) {
+        TopK top = largest(k);
+        while (values.hasNext()) {
+            top.add(values.nextInt());
+        }
+        return top.toArray();
+    }
+
+    /**
+     * Returns the k smallest of the big-endian ints read from the stream,
+     * in ascending order.
+     *
+     * @param in the stream of ints.
+     * @param k  the number of values to keep.
+     * @return the smallest values.
+     * @throws IOException if the stream fails or ends in the middle of an int.
+     */
+    public static int[] smallest(InputStream in, int k) throws IOException {
+        return smallest(k).addall(in).toArray();
+    }
+
+    /**
+     * Returns the k largest of the big-endian ints read from the stream,
+     * in descending order.
+     *
+     * @param in the stream of ints.
+     * @param k  the number of values to keep.
+     * @return the largest values.
+     * @throws IOException if the stream fails or ends in the middle of an int.
+     */
+    public static int[] largest(InputStream in, int k) throws IOException {
+        return largest(k).addall(in).toArray();
+    }
+
+    /**
+     * Reads big-endian ints from the stream block by block until it ends.
+     */
+    private TopK addall(InputStream in) throws IOException {
+        byte[] buffer = new byte[1 << 16];
+        int filled = 0;
+        int read;
+        while ((read = in.read(buffer, filled, buffer.length - filled)) != -1) {
+            filled += read;
+            int whole = filled & -Integer.BYTES;
+            for (int i = 0; i < whole; i += Integer.BYTES) {
+                add((buffer[i] << 24) | ((buffer[i + 1] & 0xFF) << 16)
+                        | ((buffer[i + 2] & 0xFF) << 8) | (buffer[i + 3] & 0xFF));
+            }
+            System.arraycopy(buffer, whole, buffer, 0, filled - whole);
+            filled -= whole;
+        }
+        if (filled != 0) {
+            throw new IOException("stream ends in the middle of an int");
+        }
+        return this;
+    }
+}
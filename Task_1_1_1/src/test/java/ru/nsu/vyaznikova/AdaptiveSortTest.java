@@ -0,0 +1,81 @@
+package ru.nsu.vyaznikova;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class AdaptiveSortTest {
+    private static void check(int[] unsorted) {
+        int[] sorted = unsorted.clone();
+        Arrays.sort(sorted);
+        AdaptiveSort.sort(unsorted);
+        assertArrayEquals(sorted, unsorted);
+    }
+
+    @Test
+    public void sortspresortedandreversed() {
+        int[] ascending = new int[10000];
+        int[] descending = new int[10000];
+        for (int i = 0; i < ascending.length; i++) {
+            ascending[i] = i / 3;
+            descending[i] = -i;
+        }
+        check(ascending);
+        check(descending);
+        check(new int[0]);
+        check(new int[] {1});
+        check(new int[] {2, 1});
+    }
+
+    @Test
+    public void sortsruns() {
+        Random random = new Random(16);
+        for (int runs : new int[] {2, 3, 17, 100, 1000}) {
+            int[] values = random.ints(50000, -1000, 1000).toArray();
+            int length = values.length / runs;
+            for (int run = 0; run < runs; run++) {
+                int from = run * length;
+                int to = run == runs - 1 ? values.length : from + length;
+                Arrays.sort(values, from, to);
+                if (run % 2 == 1) {
+                    for (int i = from, j = to - 1; i < j; i++, j--) {
+                        int temp = values[i];
+                        values[i] = values[j];
+                        values[j] = temp;
+                    }
+                }
+            }
+            check(values);
+        }
+    }
+
+    @Test
+    public void sortsrandom() {
+        Random random = new Random(17);
+        for (int size : new int[] {10, 100, 31, 33, 100000}) {
+            check(random.ints(size).toArray());
+        }
+    }
+
+    @Test
+    public void sortsonlytherange() {
+        int[] array = {9, 1, 2, 3, 8, 7, 6, 0};
+        AdaptiveSort.sort(array, 1, 7);
+        assertArrayEquals(new int[] {9, 1, 2, 3, 6, 7, 8, 0}, array);
+    }
+
+    @Test
+    public void mergesrunsinsidetherange() {
+        int[] array = new int[300];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = i < 50 || i >= 250 ? -1 : (i % 100) * 7 % 100;
+        }
+        int[] expected = array.clone();
+        Arrays.sort(expected, 50, 250);
+        AdaptiveSort.sort(array, 50, 250);
+        assertArrayEquals(expected, array);
+    }
+}
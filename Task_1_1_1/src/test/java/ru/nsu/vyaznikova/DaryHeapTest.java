@@ -0,0 +1,52 @@
+package ru.nsu.vyaznikova;
+
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DaryHeapTest {
+    @Test
+    public void matchespriorityqueue() {
+        for (int arity : new int[] {2, 4, 8, 16}) {
+            Random random = new Random(arity);
+            DaryHeap heap = new DaryHeap(5000, arity);
+            PriorityQueue<Integer> expected = new PriorityQueue<>();
+            for (int i = 0; i < 20000; i++) {
+                if (heap.size() < 5000 && (heap.isempty() || random.nextInt(3) != 0)) {
+                    int value = random.nextInt(1000);
+                    heap.insertnew(value);
+                    expected.add(value);
+                } else {
+                    assertEquals((int) expected.poll(), heap.extractmin());
+                }
+                assertEquals(expected.size(), heap.size());
+            }
+            while (!heap.isempty()) {
+                assertEquals((int) expected.poll(), heap.extractmin());
+            }
+            assertTrue(expected.isEmpty());
+        }
+    }
+
+    @Test
+    public void rejectsbadarity() {
+        assertThrows(IllegalArgumentException.class, () -> new DaryHeap(10, 3));
+        assertThrows(IllegalArgumentException.class, () -> new DaryHeap(10, 1));
+        assertThrows(IllegalArgumentException.class, () -> new DaryHeap(10, 32));
+    }
+
+    @Test
+    public void rejectsoverflowandunderflow() {
+        DaryHeap heap = new DaryHeap(1, 4);
+        heap.insertnew(1);
+        assertThrows(IllegalStateException.class, () -> heap.insertnew(2));
+        assertEquals(1, heap.extractmin());
+        assertThrows(NoSuchElementException.class, heap::extractmin);
+    }
+}
@@ -0,0 +1,91 @@
+package ru.nsu.vyaznikova;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DelaySchedulerTest {
+    @Test
+    public void expiresduecallbacksinorder() {
+        DelayScheduler scheduler = new DelayScheduler(false);
+        List<Integer> fired = new ArrayList<>();
+        long now = System.nanoTime();
+        for (int i = 9; i >= 0; i--) {
+            int value = i;
+            scheduler.scheduleat(() -> fired.add(value), now + i * 1000L);
+        }
+        assertEquals(10, scheduler.size());
+        assertEquals(5, scheduler.expire(now + 4000));
+        assertEquals(List.of(0, 1, 2, 3, 4), fired);
+        assertEquals(5, scheduler.expire(now + 10000));
+        assertEquals(0, scheduler.size());
+    }
+
+    @Test
+    public void cancelledcallbacksdonotrun() {
+        DelayScheduler scheduler = new DelayScheduler(false);
+        int[] fired = new int[1];
+        long now = System.nanoTime();
+        long first = scheduler.scheduleat(() -> fired[0]++, now);
+        long second = scheduler.scheduleat(() -> fired[0] += 10, now);
+        assertTrue(scheduler.cancel(second));
+        assertFalse(scheduler.cancel(second));
+        assertEquals(1, scheduler.expire(now));
+        assertEquals(1, fired[0]);
+        assertFalse(scheduler.cancel(first));
+        assertFalse(scheduler.cancel(DelayScheduler.NO_HANDLE));
+    }
+
+    @Test
+    public void stalehandledoesnotcancelreusedslot() {
+        DelayScheduler scheduler = new DelayScheduler(false);
+        long now = System.nanoTime();
+        long old = scheduler.scheduleat(() -> { }, now);
+        scheduler.expire(now);
+        int[] fired = new int[1];
+        scheduler.scheduleat(() -> fired[0]++, now);
+        assertFalse(scheduler.cancel(old));
+        assertEquals(1, scheduler.expire(now));
+        assertEquals(1, fired[0]);
+    }
+
+    @Test
+    public void compactsmanycancellations() {
+        DelayScheduler scheduler = new DelayScheduler(false);
+        long now = System.nanoTime();
+        long[] handles = new long[10000];
+        int[] fired = new int[1];
+        for (int i = 0; i < handles.length; i++) {
+            handles[i] = scheduler.scheduleat(() -> fired[0]++, now + i);
+        }
+        for (int i = 0; i < handles.length; i++) {
+            if (i % 10 != 0) {
+                assertTrue(scheduler.cancel(handles[i]));
+            }
+        }
+        assertEquals(1000, scheduler.size());
+        assertEquals(1000, scheduler.expire(now + handles.length));
+        assertEquals(1000, fired[0]);
+    }
+
+    @Test
+    public void dispatcherfirescallbacks() throws InterruptedException {
+        try (DelayScheduler scheduler = new DelayScheduler()) {
+            CountDownLatch latch = new CountDownLatch(100);
+            for (int i = 0; i < 100; i++) {
+                scheduler.schedule(latch::countDown, i % 20, TimeUnit.MILLISECONDS);
+            }
+            long cancelled = scheduler.schedule(() -> latch.countDown(), 1, TimeUnit.DAYS);
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertTrue(scheduler.cancel(cancelled));
+            assertEquals(0, scheduler.size());
+        }
+    }
+}
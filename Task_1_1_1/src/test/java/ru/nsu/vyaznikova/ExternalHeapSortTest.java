@@ -0,0 +1,89 @@
+package ru.nsu.vyaznikova;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExternalHeapSortTest {
+    @TempDir
+    Path directory;
+
+    private Path write(int[] values) throws IOException {
+        Path path = Files.createTempFile(directory, "input", ".bin");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(path)))) {
+            for (int value : values) {
+                out.writeInt(value);
+            }
+        }
+        return path;
+    }
+
+    private int[] read(Path path) throws IOException {
+        int[] values = new int[(int) (Files.size(path) / Integer.BYTES)];
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(path)))) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = in.readInt();
+            }
+        }
+        return values;
+    }
+
+    private void check(int[] values, int heapCapacity) throws IOException {
+        Path output = directory.resolve("output.bin");
+        ExternalHeapSort.sort(write(values), output, heapCapacity);
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(sorted, read(output));
+    }
+
+    @Test
+    public void sortsrandom() throws IOException {
+        check(new Random(9).ints(20000).toArray(), 1000);
+    }
+
+    @Test
+    public void mergesmanyrunsingroups() throws IOException {
+        int heapCapacity = 8;
+        int size = ExternalHeapSort.MAX_FAN_IN * heapCapacity * 3;
+        check(new Random(10).ints(size).toArray(), heapCapacity);
+    }
+
+    @Test
+    public void sortsedgecases() throws IOException {
+        check(new int[0], 10);
+        check(new int[] {Integer.MAX_VALUE, 0, Integer.MIN_VALUE, -1}, 1);
+        check(new int[] {3, 3, 3, 1, 1}, 100);
+    }
+
+    @Test
+    public void leavesnotemporaryfiles() throws IOException {
+        Path input = write(new Random(11).ints(5000).toArray());
+        ExternalHeapSort.sort(input, directory.resolve("output.bin"), 50);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    public void rejectstruncatedfile() throws IOException {
+        Path input = Files.write(directory.resolve("broken.bin"), new byte[7]);
+        assertThrows(IOException.class,
+                () -> ExternalHeapSort.sort(input, directory.resolve("output.bin")));
+    }
+}
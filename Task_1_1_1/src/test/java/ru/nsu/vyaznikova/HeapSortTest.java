@@ -0,0 +1,89 @@
+package ru.nsu.vyaznikova;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HeapSortTest {
+    private static final int[] SIZES = {0, 1, 2, 3, 7, 64, 1000, 12345};
+
+    @Test
+    public void sortsints() {
+        Random random = new Random(1);
+        for (int size : SIZES) {
+            int[] unsorted = random.ints(size, -50, 50).toArray();
+            int[] sorted = unsorted.clone();
+            Arrays.sort(sorted);
+            HeapSort.sort(unsorted);
+            assertArrayEquals(sorted, unsorted);
+        }
+    }
+
+    @Test
+    public void sortslongs() {
+        Random random = new Random(2);
+        for (int size : SIZES) {
+            long[] unsorted = random.longs(size).toArray();
+            long[] sorted = unsorted.clone();
+            Arrays.sort(sorted);
+            HeapSort.sort(unsorted);
+            assertArrayEquals(sorted, unsorted);
+        }
+    }
+
+    @Test
+    public void sortsdoubles() {
+        Random random = new Random(3);
+        for (int size : SIZES) {
+            double[] unsorted = random.doubles(size, -1, 1).toArray();
+            double[] sorted = unsorted.clone();
+            Arrays.sort(sorted);
+            HeapSort.sort(unsorted);
+            assertArrayEquals(sorted, unsorted);
+        }
+    }
+
+    @Test
+    public void doublesfollowdoublecompare() {
+        double[] unsorted = {
+            Double.NaN, 0.0, 1.0, -0.0, Double.NEGATIVE_INFINITY, Double.NaN, -1.0
+        };
+        double[] sorted = unsorted.clone();
+        Arrays.sort(sorted);
+        HeapSort.sort(unsorted);
+        assertArrayEquals(sorted, unsorted);
+    }
+
+    @Test
+    public void sortsobjects() {
+        Random random = new Random(4);
+        for (int size : SIZES) {
+            String[] unsorted = new String[size];
+            for (int i = 0; i < size; i++) {
+                unsorted[i] = Integer.toString(random.nextInt(1000));
+            }
+            String[] sorted = unsorted.clone();
+            Arrays.sort(sorted, Comparator.reverseOrder());
+            HeapSort.sort(unsorted, Comparator.reverseOrder());
+            assertArrayEquals(sorted, unsorted);
+        }
+    }
+
+    @Test
+    public void sortsonlytherange() {
+        int[] array = {9, 8, 7, 6, 5, 4, 3, 2, 1, 0};
+        HeapSort.sort(array, 2, 8);
+        assertArrayEquals(new int[] {9, 8, 2, 3, 4, 5, 6, 7, 1, 0}, array);
+    }
+
+    @Test
+    public void rejectsbadrange() {
+        assertThrows(IndexOutOfBoundsException.class, () -> HeapSort.sort(new int[3], 2, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> HeapSort.sort(new long[3], 0, 4));
+    }
+}
@@ -1,6 +1,41 @@
 package ru.nsu.vyaznikova;
 
+import java.util.Arrays;
+import java.util.Random;
+
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeapTest {
+    @Test
+    public void extractsinorder() {
+        int[] values = new Random(5).ints(1000, -100, 100).toArray();
+        Heap heap = new Heap(values.length);
+        for (int value : values) {
+            heap.insertnew(value);
+        }
+        assertEquals(values.length, heap.size());
+
+        int[] extracted = new int[values.length];
+        for (int i = 0; i < extracted.length; i++) {
+            extracted[i] = heap.extractmin();
+        }
+        Arrays.sort(values);
+        assertArrayEquals(values, extracted);
+        assertTrue(heap.isempty());
+    }
 
+    @Test
+    public void growsbeyondinitialsize() {
+        Heap heap = new Heap(0);
+        for (int i = 10; i > 0; i--) {
+            heap.insertnew(i);
+        }
+        assertEquals(10, heap.size());
+        assertEquals(1, heap.extractmin());
+        assertEquals(2, heap.min());
+    }
+}
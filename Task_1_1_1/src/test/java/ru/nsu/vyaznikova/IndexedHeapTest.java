@@ -0,0 +1,74 @@
+package ru.nsu.vyaznikova;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndexedHeapTest {
+    @Test
+    public void matchesmodel() {
+        int capacity = 200;
+        Random random = new Random(13);
+        IndexedHeap heap = new IndexedHeap(capacity);
+        Map<Integer, Integer> model = new HashMap<>();
+        for (int step = 0; step < 50000; step++) {
+            int id = random.nextInt(capacity);
+            int key = random.nextInt(1000);
+            if (!model.containsKey(id)) {
+                heap.insertnew(id, key);
+                model.put(id, key);
+            } else {
+                switch (random.nextInt(4)) {
+                    case 0:
+                        heap.remove(id);
+                        model.remove(id);
+                        break;
+                    case 1:
+                        key = Math.min(key, model.get(id));
+                        heap.decreaseKey(id, key);
+                        model.put(id, key);
+                        break;
+                    case 2:
+                        key = Math.max(key, model.get(id));
+                        heap.increaseKey(id, key);
+                        model.put(id, key);
+                        break;
+                    default:
+                        int min = model.values().stream().min(Integer::compare).get();
+                        int extracted = heap.extractmin();
+                        assertEquals(min, (int) model.remove(extracted));
+                        break;
+                }
+            }
+            assertEquals(model.size(), heap.size());
+            if (!model.isEmpty()) {
+                int min = model.values().stream().min(Integer::compare).get();
+                assertEquals(min, heap.minkey());
+                assertEquals(min, heap.keyof(heap.minid()));
+            }
+        }
+    }
+
+    @Test
+    public void rejectsmisuse() {
+        IndexedHeap heap = new IndexedHeap(3);
+        heap.insertnew(1, 10);
+        assertThrows(IllegalArgumentException.class, () -> heap.insertnew(1, 5));
+        assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(1, 11));
+        assertThrows(IllegalArgumentException.class, () -> heap.increaseKey(1, 9));
+        assertThrows(NoSuchElementException.class, () -> heap.remove(2));
+        assertTrue(heap.contains(1));
+        assertEquals(1, heap.extractmin());
+        assertFalse(heap.contains(1));
+        assertTrue(heap.isempty());
+        assertThrows(NoSuchElementException.class, heap::extractmin);
+    }
+}
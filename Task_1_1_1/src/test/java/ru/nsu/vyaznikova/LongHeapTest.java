@@ -0,0 +1,40 @@
+package ru.nsu.vyaznikova;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongHeapTest {
+    @Test
+    public void extractsinorder() {
+        long[] values = new Random(8).longs(1000).toArray();
+        LongHeap heap = new LongHeap(values.length);
+        for (long value : values) {
+            heap.insertnew(value);
+        }
+        long[] extracted = new long[values.length];
+        for (int i = 0; i < extracted.length; i++) {
+            extracted[i] = heap.extractmin();
+        }
+        Arrays.sort(values);
+        assertArrayEquals(values, extracted);
+        assertTrue(heap.isempty());
+    }
+
+    @Test
+    public void replacesmin() {
+        LongHeap heap = new LongHeap(3);
+        heap.insertnew(5);
+        heap.insertnew(1);
+        heap.insertnew(3);
+        assertEquals(1, heap.replacemin(4));
+        assertEquals(3, heap.extractmin());
+        assertEquals(4, heap.extractmin());
+        assertEquals(5, heap.extractmin());
+    }
+}
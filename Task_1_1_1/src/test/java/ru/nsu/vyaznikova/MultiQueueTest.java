@@ -0,0 +1,81 @@
+package ru.nsu.vyaznikova;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MultiQueueTest {
+    @Test
+    public void returnseveryvalueonce() {
+        MultiQueue queue = new MultiQueue(4);
+        for (int i = 0; i < 1000; i++) {
+            queue.insertnew(i);
+        }
+        assertEquals(1000, queue.size());
+        boolean[] seen = new boolean[1000];
+        for (int i = 0; i < 1000; i++) {
+            int value = queue.extractmin();
+            assertTrue(!seen[value]);
+            seen[value] = true;
+        }
+        assertTrue(queue.isempty());
+        assertThrows(NoSuchElementException.class, queue::extractmin);
+    }
+
+    @Test
+    public void singlestripeisexact() {
+        MultiQueue queue = new MultiQueue(1);
+        queue.insertnew(3);
+        queue.insertnew(1);
+        queue.insertnew(2);
+        assertEquals(1, queue.extractmin());
+        assertEquals(2, queue.extractmin());
+        assertEquals(3, queue.extractmin());
+    }
+
+    @Test
+    public void survivesconcurrentuse() throws InterruptedException {
+        int threads = 4;
+        int perthread = 20000;
+        MultiQueue queue = new MultiQueue(8);
+        AtomicIntegerArray seen = new AtomicIntegerArray(threads * perthread);
+        AtomicInteger extracted = new AtomicInteger();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int base = t * perthread;
+            workers.add(new Thread(() -> {
+                for (int i = 0; i < perthread; i++) {
+                    queue.insertnew(base + i);
+                }
+            }));
+            workers.add(new Thread(() -> {
+                while (extracted.get() < threads * perthread) {
+                    try {
+                        seen.incrementAndGet(queue.extractmin());
+                        extracted.incrementAndGet();
+                    } catch (NoSuchElementException e) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        for (int i = 0; i < seen.length(); i++) {
+            assertEquals(1, seen.get(i));
+        }
+        assertTrue(queue.isempty());
+    }
+}
@@ -0,0 +1,55 @@
+package ru.nsu.vyaznikova;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapHeapTest {
+    @Test
+    public void extractsinorder() {
+        int[] values = new Random(14).ints(5000).toArray();
+        OffHeapHeap heap = new OffHeapHeap(new OffHeapIntArray(values.length, 6));
+        for (int value : values) {
+            heap.insertnew(value);
+        }
+        assertEquals(values.length, heap.size());
+        int[] extracted = new int[values.length];
+        for (int i = 0; i < extracted.length; i++) {
+            extracted[i] = heap.extractmin();
+        }
+        Arrays.sort(values);
+        assertArrayEquals(values, extracted);
+        assertTrue(heap.isempty());
+        assertThrows(NoSuchElementException.class, heap::extractmin);
+    }
+
+    @Test
+    public void sortsacrosspages() {
+        int[] values = new Random(15).ints(10007, -1000, 1000).toArray();
+        OffHeapIntArray array = new OffHeapIntArray(values.length, 7);
+        for (int i = 0; i < values.length; i++) {
+            array.set(i, values[i]);
+        }
+        Main.heapsort(array);
+        Arrays.sort(values);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], array.get(i));
+        }
+    }
+
+    @Test
+    public void rejectsoverflow() {
+        OffHeapHeap heap = new OffHeapHeap(2);
+        heap.insertnew(2);
+        heap.insertnew(1);
+        assertThrows(IllegalStateException.class, () -> heap.insertnew(0));
+        assertEquals(1, heap.min());
+    }
+}
@@ -0,0 +1,52 @@
+package ru.nsu.vyaznikova;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class ParallelHeapSortTest {
+    private static void check(int[] unsorted, ForkJoinPool pool) {
+        int[] sorted = unsorted.clone();
+        Arrays.sort(sorted);
+        ParallelHeapSort.sort(unsorted, pool);
+        assertArrayEquals(sorted, unsorted);
+    }
+
+    @Test
+    public void sortsrandom() {
+        Random random = new Random(6);
+        ForkJoinPool pool = new ForkJoinPool(7);
+        for (int size : new int[] {0, 1, 100, 50000, 1000003}) {
+            check(random.ints(size).toArray(), pool);
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void sortsfewdistinct() {
+        Random random = new Random(7);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        check(random.ints(300000, 0, 3).toArray(), pool);
+        check(new int[200000], pool);
+        pool.shutdown();
+    }
+
+    @Test
+    public void sortspresorted() {
+        ForkJoinPool pool = new ForkJoinPool(5);
+        int[] ascending = new int[200000];
+        int[] descending = new int[200000];
+        for (int i = 0; i < ascending.length; i++) {
+            ascending[i] = i - 100000;
+            descending[i] = Integer.MAX_VALUE - i;
+        }
+        descending[7] = Integer.MIN_VALUE;
+        check(ascending, pool);
+        check(descending, pool);
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,76 @@
+package ru.nsu.vyaznikova;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TopKTest {
+    private final int[] values = new Random(12).ints(100000).toArray();
+    private final int[] sorted;
+
+    TopKTest() {
+        values[0] = Integer.MIN_VALUE;
+        values[1] = Integer.MAX_VALUE;
+        sorted = values.clone();
+        Arrays.sort(sorted);
+    }
+
+    private int[] firstsmallest(int k) {
+        return Arrays.copyOf(sorted, k);
+    }
+
+    private int[] firstlargest(int k) {
+        int[] largest = new int[k];
+        for (int i = 0; i < k; i++) {
+            largest[i] = sorted[sorted.length - 1 - i];
+        }
+        return largest;
+    }
+
+    @Test
+    public void selectsfromstream() {
+        assertArrayEquals(firstsmallest(100), TopK.smallest(Arrays.stream(values), 100));
+        assertArrayEquals(firstlargest(100), TopK.largest(Arrays.stream(values), 100));
+    }
+
+    @Test
+    public void selectsinparallel() {
+        assertArrayEquals(firstsmallest(1000), TopK.parallelSmallest(values, 1000));
+        assertArrayEquals(firstlargest(1000), TopK.parallelLargest(values, 1000));
+    }
+
+    @Test
+    public void selectsfromiterator() {
+        assertArrayEquals(firstsmallest(7), TopK.smallest(Arrays.stream(values).iterator(), 7));
+        assertArrayEquals(firstlargest(7), TopK.largest(Arrays.stream(values).iterator(), 7));
+    }
+
+    @Test
+    public void selectsfrombinarystream() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+        byte[] data = bytes.toByteArray();
+        assertArrayEquals(firstsmallest(50), TopK.smallest(new ByteArrayInputStream(data), 50));
+        assertArrayEquals(firstlargest(50), TopK.largest(new ByteArrayInputStream(data), 50));
+        assertThrows(IOException.class,
+                () -> TopK.smallest(new ByteArrayInputStream(new byte[5]), 1));
+    }
+
+    @Test
+    public void handlessmallk() {
+        assertArrayEquals(new int[0], TopK.smallest(Arrays.stream(values), 0));
+        assertArrayEquals(new int[] {1, 2}, TopK.smallest(Arrays.stream(new int[] {2, 1}), 5));
+        assertThrows(IllegalArgumentException.class, () -> TopK.largest(-1));
+    }
+}
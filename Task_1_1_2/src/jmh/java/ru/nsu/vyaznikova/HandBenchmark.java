@@ -0,0 +1,86 @@
+package ru.nsu.vyaznikova;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares scoring a hand kept in an {@link ArrayList} with scoring a
+ * {@link Hand}. Run with {@code ./gradlew jmh}.
+ *
+ * <p>{@code score} scores ready hands of random cards. {@code rescore} builds
+ * every hand card by card and scores it after each card, as the game loop
+ * does while a player takes cards.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HandBenchmark {
+    private static final int HANDS = 1024;
+
+    @Param({"list", "hand"})
+    String kind;
+
+    private Player[] players;
+    private Card[][] deals;
+
+    @Setup
+    public void deal() {
+        SplittableRandom random = new SplittableRandom(42);
+        players = new Player[HANDS];
+        deals = new Card[HANDS][];
+        for (int i = 0; i < HANDS; i++) {
+            Deck deck = new Deck();
+            deck.shuffle(random);
+            deals[i] = new Card[2 + random.nextInt(4)];
+            Player player = new Player(deck) {};
+            if ("list".equals(kind)) {
+                player.cards = new ArrayList<>();
+            }
+            for (int j = 0; j < deals[i].length; j++) {
+                deals[i][j] = deck.takeCard();
+                player.cards.add(deals[i][j]);
+            }
+            players[i] = player;
+        }
+    }
+
+    @Benchmark
+    public int score() {
+        int sum = 0;
+        for (Player player : players) {
+            sum += player.calculateScore();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int rescore() {
+        int sum = 0;
+        for (int i = 0; i < HANDS; i++) {
+            Player player = players[i];
+            List<Card> cards = player.getCards();
+            cards.clear();
+            for (Card card : deals[i]) {
+                cards.add(card);
+                sum += player.calculateScore();
+            }
+        }
+        return sum;
+    }
+}
@@ -1,55 +1,126 @@
 package ru.nsu.vyaznikova;
 
+import java.io.PrintStream;
 import java.util.Scanner;
 
 /**
  * This class provides functionality for reading user input,
  * with an option to simulate an AI player for testing purposes.
+ *
+ * <p>Every reader keeps its own state, so that every table of a server can
+ * have one. The static methods work with the reader of the console game.
  */
 public class BotReader {
 
+    /**
+     * The reader of the console game.
+     */
+    private static final BotReader CONSOLE = new BotReader(new Scanner(System.in), System.out);
+
     /**
      * Flag indicating whether AI mode is enabled.
      */
-    static boolean aiEnable = false;
+    private boolean aiEnable = false;
 
     /**
-     * Scanner for reading user input from the console.
+     * Scanner for reading user input.
      */
-    static Scanner console = new Scanner(System.in);
+    private final Scanner input;
+
+    /**
+     * The stream the moves of the AI are written to.
+     */
+    private final PrintStream out;
 
     /**
      * Stores the last read value.
      */
-    static int lastreaded;
+    private int lastreaded;
 
     /**
      * Stores the current player's score.
      */
-    static int pscore;
+    private int pscore;
 
     /**
      * Threshold score for the AI to stop taking cards.
      */
-    static int threshold;
+    private int threshold;
 
     /**
      * Maximum number of rounds the AI will play before exiting.
      */
-    static int maxreads;
+    private int maxreads;
 
     /**
      * Current round number in AI mode.
      */
-    static int curround;
+    private int curround;
 
     /**
-     * Enables the AI mode with specified parameters.
+     * Constructs a new BotReader that reads from the specified scanner.
+     *
+     * @param input The scanner for reading user input.
+     * @param out   The stream the game is written to.
+     */
+    public BotReader(Scanner input, PrintStream out) {
+        this.input = input;
+        this.out = out;
+    }
+
+    /**
+     * Returns the reader of the console game.
+     *
+     * @return The reader of the console game.
+     */
+    public static BotReader console() {
+        return CONSOLE;
+    }
+
+    /**
+     * Enables the AI mode of the console game with specified parameters.
      *
      * @param thr The threshold score for the AI to stop taking cards.
      * @param mxr The maximum number of rounds the AI will play before exiting.
      */
     public static void autotestEnable(int thr, int mxr) {
+        CONSOLE.enableBot(thr, mxr);
+    }
+
+    /**
+     * Returns the last value read in the console game.
+     *
+     * @return The last read value.
+     */
+    public static int getLastreaded() {
+        return CONSOLE.getLast();
+    }
+
+    /**
+     * Sets the player's score in the console game.
+     *
+     * @param npscore The player's score.
+     */
+    public static void setPscore(int npscore) {
+        CONSOLE.setScore(npscore);
+    }
+
+    /**
+     * Reads input of the console game from the user or AI.
+     *
+     * @return The read value (0 or 1).
+     */
+    public static int read() {
+        return CONSOLE.next();
+    }
+
+    /**
+     * Enables the AI mode with specified parameters.
+     *
+     * @param thr The threshold score for the AI to stop taking cards.
+     * @param mxr The maximum number of rounds the AI will play before exiting.
+     */
+    public void enableBot(int thr, int mxr) {
         aiEnable = true;
         threshold = thr;
         maxreads = mxr;
@@ -61,7 +132,7 @@ public class BotReader {
      *
      * @return The last read value.
      */
-    public static int getLastreaded() {
+    public int getLast() {
         return lastreaded;
     }
 
@@ -70,33 +141,36 @@ public class BotReader {
      *
      * @param npscore The player's score.
      */
-    public static void setPscore(int npscore) {
+    public void setScore(int npscore) {
         pscore = npscore;
     }
 
     /**
      * Reads input from the user or AI, based on the current mode.
+     * Everything written so far is flushed first, so that the user
+     * sees the question before answering it.
      *
      * @return The read value (0 or 1).
      */
-    public static int read() {
+    public int next() {
         if (aiEnable) {
             curround++;
             if (curround > maxreads) {
                 return 2;
             }
             if (pscore > threshold) {
-                System.out.printf("Бот ходит: 0\n", pscore);
+                out.printf("Бот ходит: 0\n");
                 lastreaded = 0;
                 return 0;
             } else {
-                System.out.printf("Бот ходит: 1\n", pscore);
+                out.printf("Бот ходит: 1\n");
                 lastreaded = 1;
                 return 1;
             }
         } else {
-            lastreaded = console.nextInt();
+            out.flush();
+            lastreaded = input.nextInt();
             return lastreaded;
         }
     }
-}
\ No newline at end of file
+}
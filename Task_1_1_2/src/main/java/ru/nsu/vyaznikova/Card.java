@@ -5,6 +5,21 @@ package ru.nsu.vyaznikova;
  */
 public class Card {
 
+    /**
+     * The number of ranks in a suit.
+     */
+    private static final int RANKS = Rank.values().length;
+
+    /**
+     * The number of different cards in a deck.
+     */
+    static final int COUNT = Suit.values().length * RANKS;
+
+    /**
+     * Shared instances of all 52 cards, indexed by their code.
+     */
+    private static final Card[] ALL = createAll();
+
     /**
      * The suit of the card.
      */
@@ -26,6 +41,38 @@ public class Card {
         this.rank = rank;
     }
 
+    /**
+     * Returns the shared instance of the card with the specified suit and rank.
+     *
+     * @param suit The suit of the card.
+     * @param rank The rank of the card.
+     * @return The card.
+     */
+    public static Card of(Suit suit, Rank rank) {
+        return ALL[code(suit, rank)];
+    }
+
+    /**
+     * Returns the shared instance of the card with the specified code.
+     *
+     * @param code The code of the card, from 0 to 51.
+     * @return The card.
+     */
+    static Card of(int code) {
+        return ALL[code];
+    }
+
+    /**
+     * Returns the compact code of a card, from 0 to 51.
+     *
+     * @param suit The suit of the card.
+     * @param rank The rank of the card.
+     * @return The code of the card.
+     */
+    static int code(Suit suit, Rank rank) {
+        return suit.ordinal() * RANKS + rank.ordinal();
+    }
+
     /**
      * Returns the suit of the card.
      *
@@ -53,4 +100,19 @@ public class Card {
     public String toString() {
         return rank.getName() + " " + suit.getRussianName();
     }
+
+    /**
+     * Creates one instance of every card.
+     *
+     * @return The cards indexed by their code.
+     */
+    private static Card[] createAll() {
+        Card[] cards = new Card[COUNT];
+        for (Suit suit : Suit.values()) {
+            for (Rank rank : Rank.values()) {
+                cards[code(suit, rank)] = new Card(suit, rank);
+            }
+        }
+        return cards;
+    }
 }
\ No newline at end of file
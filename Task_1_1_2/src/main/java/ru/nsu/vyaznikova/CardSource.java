@@ -0,0 +1,15 @@
+package ru.nsu.vyaznikova;
+
+/**
+ * A source of cards that players take their cards from,
+ * such as a {@link Deck} or a {@link Shoe}.
+ */
+public interface CardSource {
+
+    /**
+     * Takes the next card.
+     *
+     * @return The next card.
+     */
+    Card takeCard();
+}
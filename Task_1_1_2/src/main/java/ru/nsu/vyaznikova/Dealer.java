@@ -11,7 +11,7 @@ public class Dealer extends Player {
      *
      * @param deck The deck of cards used in the game.
      */
-    Dealer(Deck deck) {
+    Dealer(CardSource deck) {
         super(deck);
     }
 }
\ No newline at end of file
@@ -3,11 +3,18 @@ package ru.nsu.vyaznikova;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.SplittableRandom;
 
 /**
  * Represents a deck of playing cards used in a Blackjack game.
  */
-public class Deck {
+public class Deck implements CardSource {
+
+    /**
+     * The full set of 52 cards in order. Cards are immutable,
+     * so all decks share these objects.
+     */
+    private static final List<Card> FULL = createFull();
 
     /**
      * The list of cards in the deck.
@@ -18,12 +25,7 @@ public class Deck {
      * Constructs a new Deck object with a full set of 52 cards.
      */
     public Deck() {
-        cards = new ArrayList<>();
-        for (Suit suit : Suit.values()) {
-            for (Rank rank : Rank.values()) {
-                cards.add(new Card(suit, rank));
-            }
-        }
+        cards = new ArrayList<>(FULL);
     }
 
     /**
@@ -42,12 +44,48 @@ public class Deck {
         Collections.shuffle(cards);
     }
 
+    /**
+     * Shuffles the deck with the given random generator,
+     * so that every simulation thread can use its own one.
+     *
+     * @param random The source of randomness.
+     */
+    public void shuffle(SplittableRandom random) {
+        for (int i = cards.size() - 1; i > 0; i--) {
+            Collections.swap(cards, i, random.nextInt(i + 1));
+        }
+    }
+
+    /**
+     * Puts all 52 cards back into the deck in order.
+     */
+    public void reset() {
+        cards.clear();
+        cards.addAll(FULL);
+    }
+
     /**
      * Takes the top card from the deck.
      *
      * @return The top card from the deck.
      */
+    @Override
     public Card takeCard() {
         return cards.remove(0);
     }
+
+    /**
+     * Creates the full set of 52 cards.
+     *
+     * @return The list of all cards.
+     */
+    private static List<Card> createFull() {
+        List<Card> cards = new ArrayList<>();
+        for (Suit suit : Suit.values()) {
+            for (Rank rank : Rank.values()) {
+                cards.add(Card.of(suit, rank));
+            }
+        }
+        return Collections.unmodifiableList(cards);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,182 @@
+package ru.nsu.vyaznikova;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Represents the cards in a player's hand, with a score that is ready at once.
+ *
+ * <p>Besides the list of cards, the hand keeps the number of cards of every
+ * rank in four bits of one long, the hard total with aces counted as 1 and
+ * the number of aces. All of them change by one step when a card is added,
+ * and the score is then looked up in a table by the hard total and whether
+ * there is an ace, so {@link #score()} does not walk the cards. The score is
+ * the same as {@link Player#calculateScore()} gives for a list of cards.
+ *
+ * <p>A hand holds at most 15 cards of one rank. A hand played by the rules
+ * stops at 21 and so never holds more than 11 of them.
+ */
+public class Hand extends AbstractList<Card> {
+
+    /**
+     * The largest number of cards of one rank.
+     */
+    static final int MAX_RANK_COUNT = 15;
+
+    /**
+     * The number of bits for the count of one rank.
+     */
+    private static final int BITS = 4;
+
+    /**
+     * The hard totals below this one are looked up in the table.
+     */
+    private static final int LIMIT = 32;
+
+    /**
+     * The scores by the hard total times two plus one if there is an ace.
+     */
+    private static final int[] SCORES = createScores();
+
+    /**
+     * The cards in the order they were added.
+     */
+    private Card[] cards = new Card[8];
+
+    /**
+     * The number of cards.
+     */
+    private int size;
+
+    /**
+     * The number of cards of every rank, four bits per rank by the ordinal.
+     */
+    private long ranks;
+
+    /**
+     * The total with every ace counted as 1.
+     */
+    private int hard;
+
+    /**
+     * The number of aces.
+     */
+    private int aces;
+
+    /**
+     * Adds a card to the hand.
+     *
+     * @param card The card to add.
+     * @return Always true.
+     * @throws IllegalStateException If the hand already holds 15 cards of the rank.
+     */
+    @Override
+    public boolean add(Card card) {
+        Rank rank = card.getRank();
+        int shift = BITS * rank.ordinal();
+        if ((ranks >>> shift & MAX_RANK_COUNT) == MAX_RANK_COUNT) {
+            throw new IllegalStateException("too many cards of rank " + rank);
+        }
+        if (size == cards.length) {
+            cards = Arrays.copyOf(cards, 2 * size);
+        }
+        cards[size++] = card;
+        ranks += 1L << shift;
+        if (rank == Rank.ACE) {
+            aces++;
+            hard++;
+        } else {
+            hard += rank.getValue();
+        }
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Returns the card at the specified position.
+     *
+     * @param index The position of the card.
+     * @return The card.
+     */
+    @Override
+    public Card get(int index) {
+        Objects.checkIndex(index, size);
+        return cards[index];
+    }
+
+    /**
+     * Returns the number of cards in the hand.
+     *
+     * @return The number of cards.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all cards from the hand.
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(cards, 0, size, null);
+        size = 0;
+        ranks = 0;
+        hard = 0;
+        aces = 0;
+        modCount++;
+    }
+
+    /**
+     * Returns the score of the hand, with one ace counted as 11
+     * if that does not go over 21.
+     *
+     * @return The score.
+     */
+    public int score() {
+        return hard < LIMIT ? SCORES[hard << 1 | (aces > 0 ? 1 : 0)] : hard;
+    }
+
+    /**
+     * Returns the total with every ace counted as 1.
+     *
+     * @return The hard total.
+     */
+    public int getHard() {
+        return hard;
+    }
+
+    /**
+     * Returns whether an ace is counted as 11 in the score.
+     *
+     * @return true if the hand is soft.
+     */
+    public boolean isSoft() {
+        return score() != hard;
+    }
+
+    /**
+     * Returns the number of cards of the specified rank.
+     *
+     * @param rank The rank.
+     * @return The number of cards of the rank.
+     */
+    public int count(Rank rank) {
+        return (int) (ranks >>> BITS * rank.ordinal()) & MAX_RANK_COUNT;
+    }
+
+    /**
+     * Creates the table of scores.
+     *
+     * @return The scores by the hard total and whether there is an ace.
+     */
+    private static int[] createScores() {
+        int[] scores = new int[2 * LIMIT];
+        for (int hard = 0; hard < LIMIT; hard++) {
+            scores[hard << 1] = hard;
+            scores[hard << 1 | 1] = hard + 10 <= 21 ? hard + 10 : hard;
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,287 @@
+package ru.nsu.vyaznikova;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * An append-only binary log of played rounds, one byte per event.
+ *
+ * <p>The log records every card in the order it is dealt, every decision
+ * of the player and the outcome of every round. Who gets a card is not
+ * written down: the rules decide it, so {@link HandReplay} finds it out by
+ * playing the round again. The events are
+ * <ul>
+ *     <li>{@code 0xC0 + n} — the round is played by {@code n > 1} players at
+ *     a {@link Table}; without it a round has one player;</li>
+ *     <li>{@code 0..51} — the card with this code, from suit and rank, is dealt;</li>
+ *     <li>{@code 0x40}, {@code 0x41} — the player stops or takes a card;</li>
+ *     <li>{@code 0x80 + outcome} — the round ends for a player with this
+ *     {@link Outcome}, one event per player in the order of their turns.</li>
+ * </ul>
+ * A new file starts with the four bytes of {@link #MAGIC}. Events are
+ * collected in a buffer and written in large blocks.
+ *
+ * <p>A log may be shared by threads. The simulator and the tables collect
+ * the events of a round in a {@link Round} and write them at once, so the
+ * rounds of different games never mix, and the lock is taken once a round.
+ */
+public class HandLog implements AutoCloseable {
+
+    /**
+     * The first bytes of every log file.
+     */
+    static final int MAGIC = 0x424a4831;
+
+    /**
+     * The event of a decision to stop; taking a card adds one.
+     */
+    static final int DECISION = 0x40;
+
+    /**
+     * The event of the end of a round; the ordinal of the outcome is added.
+     */
+    static final int END = 0x80;
+
+    /**
+     * The event of a round with several players; the number of players is added.
+     */
+    static final int SEATS = 0xC0;
+
+    /**
+     * The size of the write buffer in bytes.
+     */
+    private static final int BUFFER = 1 << 16;
+
+    /**
+     * The file the events are appended to.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The events that are not written yet.
+     */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER);
+
+    /**
+     * Opens a log, creating the file if it does not exist
+     * and appending to it otherwise.
+     *
+     * @param path The path of the log file.
+     * @throws IOException If the file cannot be opened.
+     */
+    public HandLog(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (channel.size() == 0) {
+            buffer.putInt(MAGIC);
+        }
+    }
+
+    /**
+     * Records a dealt card.
+     *
+     * @param card The card.
+     */
+    public synchronized void card(Card card) {
+        put(Card.code(card.getSuit(), card.getRank()));
+    }
+
+    /**
+     * Records a decision of the player.
+     *
+     * @param hit true if the player takes a card.
+     */
+    public synchronized void decision(boolean hit) {
+        put(hit ? DECISION + 1 : DECISION);
+    }
+
+    /**
+     * Records the end of a round.
+     *
+     * @param outcome The outcome of the round for the player.
+     */
+    public synchronized void end(Outcome outcome) {
+        put(END + outcome.ordinal());
+    }
+
+    /**
+     * Records all events of a round at once and clears the round.
+     *
+     * @param round The events of the round.
+     */
+    public synchronized void write(Round round) {
+        int from = 0;
+        while (from < round.size) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            int length = Math.min(buffer.remaining(), round.size - from);
+            buffer.put(round.events, from, length);
+            from += length;
+        }
+        round.size = 0;
+    }
+
+    /**
+     * Returns a source that deals the cards of the given one and records them.
+     *
+     * @param source The source the cards are taken from.
+     * @return The recording source.
+     */
+    public CardSource deck(CardSource source) {
+        return () -> {
+            Card card = source.takeCard();
+            card(card);
+            return card;
+        };
+    }
+
+    /**
+     * Returns a strategy that decides as the given one and records the decisions.
+     *
+     * @param strategy The strategy that decides.
+     * @return The recording strategy.
+     */
+    public Strategy strategy(Strategy strategy) {
+        return (player, upcard) -> {
+            boolean hit = strategy.hit(player, upcard);
+            decision(hit);
+            return hit;
+        };
+    }
+
+    /**
+     * Writes the collected events to the file.
+     *
+     * @throws UncheckedIOException If the file cannot be written.
+     */
+    public synchronized void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Writes the collected events and closes the file.
+     *
+     * @throws IOException If the file cannot be written or closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } catch (UncheckedIOException e) {
+            channel.close();
+            throw e.getCause();
+        }
+        channel.close();
+    }
+
+    private void put(int event) {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put((byte) event);
+    }
+
+    /**
+     * The events of one round, collected before they are written to a log.
+     */
+    public static final class Round {
+        private byte[] events = new byte[64];
+        private int size;
+
+        /**
+         * Records the number of players of the round; nothing is recorded
+         * for a single player.
+         *
+         * @param players The number of players, at most {@link Table#MAX_SEATS}.
+         */
+        public void seats(int players) {
+            if (players > 1) {
+                put(SEATS + players);
+            }
+        }
+
+        /**
+         * Records a dealt card.
+         *
+         * @param card The card.
+         */
+        public void card(Card card) {
+            put(Card.code(card.getSuit(), card.getRank()));
+        }
+
+        /**
+         * Records a decision of a player.
+         *
+         * @param hit true if the player takes a card.
+         */
+        public void decision(boolean hit) {
+            put(hit ? DECISION + 1 : DECISION);
+        }
+
+        /**
+         * Records the end of the round for a player.
+         *
+         * @param outcome The outcome of the round for the player.
+         */
+        public void end(Outcome outcome) {
+            put(END + outcome.ordinal());
+        }
+
+        /**
+         * Forgets the events of the round.
+         */
+        void clear() {
+            size = 0;
+        }
+
+        /**
+         * Returns a source that deals the cards of the given one and records them.
+         *
+         * @param source The source the cards are taken from.
+         * @return The recording source.
+         */
+        public CardSource deck(CardSource source) {
+            return () -> {
+                Card card = source.takeCard();
+                card(card);
+                return card;
+            };
+        }
+
+        /**
+         * Returns a strategy that decides as the given one and records the decisions.
+         *
+         * @param strategy The strategy that decides.
+         * @return The recording strategy.
+         */
+        public Strategy strategy(Strategy strategy) {
+            return (player, upcard) -> {
+                boolean hit = strategy.hit(player, upcard);
+                decision(hit);
+                return hit;
+            };
+        }
+
+        private void put(int event) {
+            if (size == events.length) {
+                events = Arrays.copyOf(events, 2 * size);
+            }
+            events[size++] = (byte) event;
+        }
+    }
+}
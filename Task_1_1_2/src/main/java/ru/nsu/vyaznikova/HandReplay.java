@@ -0,0 +1,247 @@
+package ru.nsu.vyaznikova;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Plays the rounds of a {@link HandLog} again and checks them.
+ *
+ * <p>Every round is dealt from a deck holding exactly the recorded cards, and
+ * the player repeats the recorded decisions. The replayed outcome must be the
+ * recorded one, and the round must use up its cards and decisions; otherwise
+ * the round counts as a mismatch. A round of several players at a
+ * {@link Table} counts as one round, with an outcome for every player. The
+ * rules of {@link Simulator#play} are applied as they are now, so replaying
+ * an old log tests that they still give the same results, and replaying the
+ * log of a console or server game tests that the tables follow them.
+ */
+public class HandReplay {
+
+    /**
+     * The size of the read buffer in bytes.
+     */
+    private static final int BUFFER = 1 << 16;
+
+    /**
+     * The outcomes by their ordinal.
+     */
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    /**
+     * The outcomes of the replayed rounds.
+     */
+    private final SimulationResult result = new SimulationResult();
+
+    /**
+     * The largest number of players a round of a log can have.
+     */
+    private static final int MAX_PLAYERS = 0xff - HandLog.SEATS;
+
+    /**
+     * The number of replayed rounds.
+     */
+    private long rounds;
+
+    /**
+     * The number of rounds that did not go as recorded.
+     */
+    private long mismatches;
+
+    /**
+     * The number of the first round that did not go as recorded, or -1.
+     */
+    private long firstMismatch = -1;
+
+    private HandReplay() {
+    }
+
+    /**
+     * Replays every round of a log.
+     *
+     * @param path The path of the log file.
+     * @return The results of the replay.
+     * @throws IOException If the file cannot be read or is not a log.
+     */
+    public static HandReplay replay(Path path) throws IOException {
+        HandReplay replay = new HandReplay();
+        ReplayDeck deck = new ReplayDeck();
+        ReplayStrategy strategy = new ReplayStrategy();
+        Player[] players = new Player[MAX_PLAYERS];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new HumanPlayer(deck);
+        }
+        Dealer dealer = new Dealer(deck);
+        Outcome[] recorded = new Outcome[MAX_PLAYERS];
+        int seats = 1;
+        int ended = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER);
+            buffer.limit(Integer.BYTES);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                continue;
+            }
+            if (buffer.hasRemaining() || buffer.getInt(0) != HandLog.MAGIC) {
+                throw new IOException("not a hand log: " + path);
+            }
+            buffer.clear();
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    int event = buffer.get() & 0xff;
+                    if (event < Card.COUNT) {
+                        deck.add(Card.of(event));
+                    } else if ((event & ~1) == HandLog.DECISION) {
+                        strategy.add(event == HandLog.DECISION + 1);
+                    } else if (event >= HandLog.END && event < HandLog.END + OUTCOMES.length) {
+                        recorded[ended++] = OUTCOMES[event - HandLog.END];
+                        if (ended == seats) {
+                            replay.check(players, seats, dealer, deck, strategy, recorded);
+                            seats = 1;
+                            ended = 0;
+                        }
+                    } else if (event > HandLog.SEATS + 1) {
+                        if (deck.size > 0 || strategy.size > 0 || ended > 0) {
+                            throw new IOException("broken hand log: a round starts"
+                                    + " before the last one has ended");
+                        }
+                        seats = event - HandLog.SEATS;
+                    } else {
+                        throw new IOException("broken hand log: unknown event " + event);
+                    }
+                }
+                buffer.clear();
+            }
+        }
+        if (deck.size > 0 || strategy.size > 0 || ended > 0 || seats > 1) {
+            throw new IOException("broken hand log: the last round has no end");
+        }
+        return replay;
+    }
+
+    /**
+     * Plays a recorded round again and compares the outcomes.
+     */
+    private void check(Player[] players, int count, Dealer dealer, ReplayDeck deck,
+                       ReplayStrategy strategy, Outcome[] recorded) {
+        long round = rounds++;
+        for (int i = 0; i < count; i++) {
+            players[i].clearHand();
+        }
+        dealer.clearHand();
+        Outcome[] outcomes = new Outcome[count];
+        boolean matches;
+        try {
+            if (count == 1) {
+                outcomes[0] = Simulator.play(players[0], dealer, strategy);
+            } else {
+                Simulator.play(players, count, dealer, strategy, outcomes);
+            }
+            matches = deck.cursor == deck.size && strategy.cursor == strategy.size;
+        } catch (IllegalStateException e) {
+            outcomes = Arrays.copyOf(recorded, count);
+            matches = false;
+        }
+        for (int i = 0; i < count; i++) {
+            matches &= outcomes[i] == recorded[i];
+            result.add(outcomes[i]);
+        }
+        if (!matches) {
+            mismatches++;
+            if (firstMismatch < 0) {
+                firstMismatch = round;
+            }
+        }
+        deck.clear();
+        strategy.clear();
+    }
+
+    /**
+     * Returns the outcomes of the replayed rounds.
+     *
+     * @return The number of rounds won, lost and drawn.
+     */
+    public SimulationResult getResult() {
+        return result;
+    }
+
+    /**
+     * Returns the number of rounds that did not go as recorded.
+     *
+     * @return The number of mismatches.
+     */
+    public long getMismatches() {
+        return mismatches;
+    }
+
+    /**
+     * Returns the number of the first round, counted from 0,
+     * that did not go as recorded.
+     *
+     * @return The number of the round, or -1 if all rounds matched.
+     */
+    public long getFirstMismatch() {
+        return firstMismatch;
+    }
+
+    /**
+     * A deck that deals the recorded cards of one round.
+     */
+    private static final class ReplayDeck implements CardSource {
+        private Card[] dealt = new Card[16];
+        private int size;
+        private int cursor;
+
+        void add(Card card) {
+            if (size == dealt.length) {
+                dealt = Arrays.copyOf(dealt, 2 * size);
+            }
+            dealt[size++] = card;
+        }
+
+        void clear() {
+            size = 0;
+            cursor = 0;
+        }
+
+        @Override
+        public Card takeCard() {
+            if (cursor == size) {
+                throw new IllegalStateException("no more recorded cards");
+            }
+            return dealt[cursor++];
+        }
+    }
+
+    /**
+     * A strategy that repeats the recorded decisions of one round.
+     */
+    private static final class ReplayStrategy implements Strategy {
+        private boolean[] decisions = new boolean[16];
+        private int size;
+        private int cursor;
+
+        void add(boolean hit) {
+            if (size == decisions.length) {
+                decisions = Arrays.copyOf(decisions, 2 * size);
+            }
+            decisions[size++] = hit;
+        }
+
+        void clear() {
+            size = 0;
+            cursor = 0;
+        }
+
+        @Override
+        public boolean hit(Player player, Card upcard) {
+            if (cursor == size) {
+                throw new IllegalStateException("no more recorded decisions");
+            }
+            return decisions[cursor++];
+        }
+    }
+}
@@ -11,7 +11,7 @@ public class HumanPlayer extends Player {
      *
      * @param deck The deck of cards used in the game.
      */
-    HumanPlayer(Deck deck) {
+    HumanPlayer(CardSource deck) {
         super(deck);
     }
 }
\ No newline at end of file
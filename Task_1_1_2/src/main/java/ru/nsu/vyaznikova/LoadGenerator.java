@@ -0,0 +1,242 @@
+package ru.nsu.vyaznikova;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Drives many bot clients against a {@link TableServer} and measures how fast
+ * the server plays.
+ *
+ * <p>Every client is a player that the server seats at one of its tables,
+ * and plays by a threshold, like the bot of {@link BotReader}. The latency
+ * of a decision is the time from asking for a card to receiving the card.
+ * Stopping is not measured: the answer to it comes only after the other
+ * players at the table have taken their turns.
+ */
+public final class LoadGenerator {
+
+    /**
+     * The beginning of the line with the player's cards and score.
+     */
+    private static final String CARDS = "Ваши карты: ";
+
+    /**
+     * The beginning of the question to the player.
+     */
+    private static final String QUESTION = "Введите";
+
+    /**
+     * The beginning of the line printed after every round.
+     */
+    private static final String SCORE = "Счет: ";
+
+    private LoadGenerator() {
+    }
+
+    /**
+     * Runs the clients and waits until all of them have finished.
+     *
+     * @param host      The host of the server.
+     * @param port      The port of the server.
+     * @param clients   The number of clients.
+     * @param hands     The number of rounds every client plays at least. A client
+     *                  can leave only when asked, so rounds won with Blackjack
+     *                  may add a few more.
+     * @param threshold The highest score at which the bots take a card.
+     * @return The measured throughput and latency.
+     * @throws IOException If a client fails to talk to the server.
+     */
+    public static Report run(String host, int port, int clients, int hands, int threshold)
+            throws IOException {
+        ExecutorService executor = TableServer.newTableExecutor();
+        try {
+            long start = System.nanoTime();
+            List<Future<Client>> futures = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                Client client = new Client(host, port, hands, threshold);
+                futures.add(executor.submit(() -> {
+                    client.run();
+                    return client;
+                }));
+            }
+            long played = 0;
+            long[] latencies = new long[0];
+            for (Future<Client> future : futures) {
+                Client client = future.get();
+                played += client.played;
+                int from = latencies.length;
+                latencies = Arrays.copyOf(latencies, from + client.count);
+                System.arraycopy(client.latencies, 0, latencies, from, client.count);
+            }
+            return new Report(played, System.nanoTime() - start, latencies);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * One bot at a table.
+     */
+    private static final class Client {
+        private final String host;
+        private final int port;
+        private final int hands;
+        private final int threshold;
+        private long played;
+        private long[] latencies = new long[64];
+        private int count;
+
+        Client(String host, int port, int hands, int threshold) {
+            this.host = host;
+            this.port = port;
+            this.hands = hands;
+            this.threshold = threshold;
+        }
+
+        /**
+         * Plays the rounds and leaves the table.
+         */
+        void run() {
+            try (Socket socket = new Socket(host, port)) {
+                socket.setTcpNoDelay(true);
+                BufferedReader in = new BufferedReader(new InputStreamReader(
+                        socket.getInputStream(), StandardCharsets.UTF_8));
+                PrintStream out = new PrintStream(socket.getOutputStream(), true,
+                        StandardCharsets.UTF_8);
+                int score = 0;
+                long sent = 0;
+                boolean leaving = false;
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (sent != 0) {
+                        record(System.nanoTime() - sent);
+                        sent = 0;
+                    }
+                    if (line.startsWith(CARDS)) {
+                        score = Integer.parseInt(line.substring(line.lastIndexOf(' ') + 1));
+                    } else if (line.startsWith(SCORE) && !leaving) {
+                        played++;
+                    } else if (line.startsWith(QUESTION)) {
+                        leaving = played >= hands;
+                        int choice = leaving ? 2 : score <= threshold ? 1 : 0;
+                        if (choice == 1) {
+                            sent = System.nanoTime();
+                        }
+                        out.println(choice);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void record(long latency) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, 2 * count);
+            }
+            latencies[count++] = latency;
+        }
+    }
+
+    /**
+     * The results of a run.
+     */
+    public static final class Report {
+        private final long hands;
+        private final long nanos;
+        private final long[] latencies;
+
+        Report(long hands, long nanos, long[] latencies) {
+            this.hands = hands;
+            this.nanos = nanos;
+            this.latencies = latencies;
+            Arrays.sort(this.latencies);
+        }
+
+        /**
+         * Returns the number of rounds played by all clients.
+         *
+         * @return The number of rounds.
+         */
+        public long getHands() {
+            return hands;
+        }
+
+        /**
+         * Returns the number of rounds played per second.
+         *
+         * @return The throughput.
+         */
+        public double getHandsPerSecond() {
+            return hands * 1e9 / nanos;
+        }
+
+        /**
+         * Returns the number of decisions that were measured.
+         *
+         * @return The number of decisions.
+         */
+        public int getDecisions() {
+            return latencies.length;
+        }
+
+        /**
+         * Returns the latency that 99% of the decisions did not exceed.
+         *
+         * @return The latency in nanoseconds, or 0 if no decision was made.
+         */
+        public long getP99Latency() {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            return latencies[(int) Math.ceil(0.99 * latencies.length) - 1];
+        }
+
+        /**
+         * Returns the results in a readable form.
+         *
+         * @return A string with the throughput and latency.
+         */
+        @Override
+        public String toString() {
+            return String.format("%d раундов, %.0f раундов/с, p99 решения %.1f мкс",
+                    hands, getHandsPerSecond(), getP99Latency() / 1e3);
+        }
+    }
+
+    /**
+     * Starts a server and drives it with bots.
+     *
+     * @param args The number of clients and the number of rounds per client,
+     *             1000 and 100 by default.
+     * @throws IOException If a client fails to talk to the server.
+     */
+    public static void main(String[] args) throws IOException {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int hands = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        try (TableServer server = new TableServer(0)) {
+            String host = InetAddress.getLoopbackAddress().getHostAddress();
+            System.out.println(run(host, server.getPort(), clients, hands, 16));
+        }
+    }
+}
@@ -1,9 +1,8 @@
 package ru.nsu.vyaznikova;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Scanner;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
 
 /**
  * This class represents the main game logic of a Blackjack game.
@@ -13,151 +12,54 @@ public class Main {
     /**
      * The main method of the program, which starts the game.
      *
-     * @param args Command line arguments, not used in this program.
+     * @param args The path of a {@link HandLog} to record the game to, if any.
+     * @throws IOException If the log cannot be written.
      */
-    public static void main(String[] args) {
-        doAll();
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            doAll();
+            return;
+        }
+        try (HandLog log = new HandLog(Path.of(args[0]))) {
+            doAll(BotReader.console(), System.out, log);
+        }
     }
 
     /**
      * The main game loop, handling all aspects of the Blackjack game.
      */
     public static String doAll() {
-        Scanner scanner = new Scanner(System.in);
-        int playerScore = 0;
-        int dealerScore = 0;
-
-        System.out.println("Добро пожаловать в Блэкджек!");
-
-        int round = 1;
-        boolean end = false;
-        while (!end) {
-            System.out.println("\nРаунд " + round);
-            System.out.println("Если захотите завершить игру, введите \"2\".");
-            Deck deck = new Deck();
-            deck.shuffle();
-            Player player = new HumanPlayer(deck);
-            Dealer dealer = new Dealer(deck);
-
-            player.takeCard();
-            player.takeCard();
-            dealer.takeCard();
-            dealer.takeCard();
-
-            if (player.calculateScore() == 21 && player.getCards().size() == 2) {
-                System.out.println("Вы выиграли раунд! У вас Blackjack!");
-                playerScore++;
-                System.out.println("Счет: " + playerScore + ":" + dealerScore);
-                round++;
-                continue;
-            }
-
-            if (dealer.calculateScore() == 21 && dealer.getCards().size() == 2) {
-                System.out.println("Дилер выиграл раунд! У него Blackjack!");
-                dealerScore++;
-                System.out.println("Счет: " + playerScore + ":" + dealerScore);
-                round++;
-                continue;
-            }
-
-            System.out.println("\nДилер раздал карты");
-            System.out.println("Ваши карты: "
-                    + player.getCards()
-                    + " => "
-                    + player.calculateScore());
-            System.out.println("Карты дилера: ["
-                    + dealer.getCards().get(0) + ", <закрытая карта>]");
-
-            while (player.calculateScore() < 21) {
-                System.out.println("\nВаш ход");
-                System.out.println("-------");
-                System.out.println("Введите \"1\", чтобы взять карту,"
-                        + "и \"0\", чтобы остановиться...");
-
-                BotReader.setPscore(player.calculateScore());
-                int choice = BotReader.read();
-
-                if (choice == 2) {
-
-                    System.out.println("\nИгра окончена! Счет "
-                            + playerScore + ":" + dealerScore + ".");
-
-                    end = true;
-                    break; // Прерываем цикл
-                } else if (choice == 1) {
-                    player.takeCard();
-                    System.out.println("Вы открыли карту "
-                            + player.getCards().get(player.getCards().size() - 1));
-                    System.out.println("Ваши карты: "
-                            + player.getCards()
-                            + " => " + player.calculateScore());
-
-                } else if (choice == 0) {
-                    break;
-                } else {
-                    System.out.println("Неверный ввод. Пожалуйста, введите 1 или 0.");
-                }
-            }
-
-            if (player.calculateScore() > 21) {
-                System.out.println("Вы проиграли раунд! Превышен лимит очков.");
-                dealerScore++;
-            } else {
-                System.out.println("\nХод дилера");
-                System.out.println("-------");
-                System.out.println("Дилер открывает закрытую карту "
-                        + dealer.getCards().get(1));
-                System.out.println("Ваши карты: "
-                        + player.getCards()
-                        + " => "
-                        + player.calculateScore());
-                System.out.println("Карты дилера: "
-                        + dealer.getCards()
-                        + " => "
-                        + dealer.calculateScore());
-
-                while (dealer.calculateScore() < 17) {
-                    dealer.takeCard();
-                    System.out.println("Дилер открывает карту "
-                            + dealer.getCards().get(dealer.getCards().size() - 1));
-                    System.out.println("Ваши карты: "
-                            + player.getCards()
-                            + " => "
-                            + player.calculateScore());
-                    System.out.println("Карты дилера: "
-                            + dealer.getCards()
-                            + " => "
-                            + dealer.calculateScore());
-                }
-
-
-                if (player.calculateScore() > 21) {
-                    System.out.println("Вы проиграли раунд! Превышен лимит очков.");
-                    dealerScore++;
-                } else if (dealer.calculateScore() > 21) {
-                    System.out.println("Вы выиграли раунд! Дилер превысил лимит очков.");
-                    playerScore++;
-                } else if (player.calculateScore() > dealer.calculateScore()) {
-                    System.out.println("Вы выиграли раунд! У вас больше очков.");
-                    playerScore++;
-                } else if (dealer.calculateScore() > player.calculateScore()) {
-                    System.out.println("Вы проиграли раунд! У дилера больше очков.");
-                    dealerScore++;
-                } else {
-                    System.out.println("Ничья! У вас одинаковое количество очков.");
-                }
-            }
+        return doAll(BotReader.console(), System.out);
+    }
 
-            System.out.println("Счет: " + playerScore + ":" + dealerScore);
-            round++;
-        }
+    /**
+     * The main game loop for one player, which reads the choices of the player
+     * from the reader and writes the game to the stream. Every game has
+     * its own reader, so that many games can go on at the same time.
+     * The game is a {@link Table} with a single seat.
+     *
+     * @param reader The source of the player's choices.
+     * @param out    The stream the game is written to.
+     * @return The final result of the game.
+     */
+    public static String doAll(BotReader reader, PrintStream out) {
+        return doAll(reader, out, null);
+    }
 
-        if (playerScore > dealerScore) {
-            return "Вы победили!";
-        } else if (dealerScore > playerScore) {
-            return "Дилер победил!";
-        } else {
-            return "Ничья!";
-        }
+    /**
+     * The main game loop for one player that records the rounds to a log,
+     * so that they can be checked later by {@link HandReplay}.
+     *
+     * @param reader The source of the player's choices.
+     * @param out    The stream the game is written to.
+     * @param log    The log the rounds are recorded to, or null.
+     * @return The final result of the game.
+     */
+    public static String doAll(BotReader reader, PrintStream out, HandLog log) {
+        Table table = new Table(1, log);
+        Table.Seat seat = new Table.Seat(reader, out);
+        table.join(seat);
+        table.play();
+        return seat.getResult();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,64 @@
+package ru.nsu.vyaznikova;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The strategy that takes a card whenever the {@link Solver} finds it better
+ * than stopping. The strategy assumes that the round is dealt from a full
+ * shoe, so the only cards it knows to be gone are its own and the open card
+ * of the dealer.
+ */
+public class OptimalStrategy implements Strategy {
+
+    /**
+     * The number of decks in the shoe.
+     */
+    private final int decks;
+
+    /**
+     * The solver with the cache of solved states.
+     */
+    private final Solver solver = new Solver();
+
+    /**
+     * Constructs a new OptimalStrategy for a single deck.
+     */
+    public OptimalStrategy() {
+        this(1);
+    }
+
+    /**
+     * Constructs a new OptimalStrategy for a shoe of the specified number of decks.
+     *
+     * @param decks The number of decks in the shoe.
+     */
+    public OptimalStrategy(int decks) {
+        Solver.shoe(decks);
+        this.decks = decks;
+    }
+
+    /**
+     * Takes a card if the expected result of taking it is higher than of stopping.
+     *
+     * @param player The player whose turn it is.
+     * @param upcard The open card of the dealer.
+     * @return true if taking a card is better.
+     */
+    @Override
+    public boolean hit(Player player, Card upcard) {
+        List<Card> dealt = new ArrayList<>(player.getCards());
+        dealt.add(upcard);
+        return solver.shouldHit(player.getCards(), upcard, Solver.shoe(decks, dealt));
+    }
+
+    /**
+     * Returns a string representation of the strategy.
+     *
+     * @return The name of the strategy.
+     */
+    @Override
+    public String toString() {
+        return "оптимальная";
+    }
+}
@@ -0,0 +1,19 @@
+package ru.nsu.vyaznikova;
+
+/**
+ * Enum representing the outcome of a round from the player's point of view.
+ */
+public enum Outcome {
+    /**
+     * The player won the round.
+     */
+    WIN,
+    /**
+     * The dealer won the round.
+     */
+    LOSS,
+    /**
+     * The round is a draw.
+     */
+    PUSH
+}
@@ -1,6 +1,5 @@
 package ru.nsu.vyaznikova;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -10,22 +9,22 @@ import java.util.List;
 public abstract class Player {
 
     /**
-     * The player's hand of cards.
+     * The player's hand of cards. It is a {@link Hand} unless replaced.
      */
     protected List<Card> cards;
 
     /**
      * The deck of cards used in the game.
      */
-    protected Deck deck;
+    protected CardSource deck;
 
     /**
      * Constructs a new Player object with the specified deck.
      *
      * @param deck The deck of cards used in the game.
      */
-    Player(Deck deck) {
-        this.cards = new ArrayList<>();
+    Player(CardSource deck) {
+        this.cards = new Hand();
         this.deck = deck;
     }
 
@@ -36,6 +35,13 @@ public abstract class Player {
         cards.add(deck.takeCard());
     }
 
+    /**
+     * Discards the player's hand, so that the player can take part in the next round.
+     */
+    public void clearHand() {
+        cards.clear();
+    }
+
     /**
      * Returns the player's current hand of cards.
      *
@@ -48,10 +54,15 @@ public abstract class Player {
     /**
      * Calculates the player's score based on their hand of cards,
      * taking into account the special rules for Aces (1 or 11).
+     * The score of a {@link Hand} is looked up at once; other lists
+     * of cards are walked through.
      *
      * @return The player's score.
      */
     public int calculateScore() {
+        if (cards instanceof Hand) {
+            return ((Hand) cards).score();
+        }
         int score = 0;
         int aceCount = 0;
         for (Card card : cards) {
@@ -0,0 +1,135 @@
+package ru.nsu.vyaznikova;
+
+import java.util.SplittableRandom;
+
+/**
+ * Represents a shoe of several decks with a cut card.
+ *
+ * <p>The cards are kept as one-byte codes in an array that is shuffled in
+ * place and dealt by moving a cursor, and every dealt card is a shared
+ * instance from {@link Card#of(int)}. So dealing and shuffling neither shift
+ * a list nor allocate. Once the cursor passes the cut card, the shoe should
+ * be shuffled before the next round.
+ */
+public class Shoe implements CardSource {
+
+    /**
+     * The number of cards always left behind the cut card,
+     * enough for one round of a player against the dealer.
+     */
+    static final int RESERVE = 24;
+
+    /**
+     * The codes of the cards in the order they are dealt.
+     */
+    private final byte[] codes;
+
+    /**
+     * The random generator used for shuffling.
+     */
+    private final SplittableRandom random;
+
+    /**
+     * The position of the cut card.
+     */
+    private final int cut;
+
+    /**
+     * The position of the next card to deal.
+     */
+    private int cursor;
+
+    /**
+     * Constructs a new shuffled Shoe.
+     *
+     * @param decks       The number of decks in the shoe.
+     * @param penetration The share of the cards dealt before the cut card, from 0 to 1.
+     * @param random      The random generator used for shuffling.
+     */
+    public Shoe(int decks, double penetration, SplittableRandom random) {
+        if (decks < 1) {
+            throw new IllegalArgumentException("shoe needs at least one deck: " + decks);
+        }
+        if (!(penetration >= 0 && penetration <= 1)) {
+            throw new IllegalArgumentException("penetration must be from 0 to 1: " + penetration);
+        }
+        this.codes = new byte[decks * Card.COUNT];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = (byte) (i % Card.COUNT);
+        }
+        this.random = random;
+        this.cut = Math.min((int) (codes.length * penetration), codes.length - RESERVE);
+        shuffle();
+    }
+
+    /**
+     * Constructs a new shuffled Shoe with its own random generator.
+     *
+     * @param decks       The number of decks in the shoe.
+     * @param penetration The share of the cards dealt before the cut card, from 0 to 1.
+     */
+    public Shoe(int decks, double penetration) {
+        this(decks, penetration, new SplittableRandom());
+    }
+
+    /**
+     * Collects all cards and shuffles the shoe with its own random generator.
+     */
+    public void shuffle() {
+        shuffle(random);
+    }
+
+    /**
+     * Collects all cards and shuffles the shoe in place
+     * with the Fisher-Yates algorithm.
+     *
+     * @param random The source of randomness.
+     */
+    public void shuffle(SplittableRandom random) {
+        for (int i = codes.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            byte code = codes[i];
+            codes[i] = codes[j];
+            codes[j] = code;
+        }
+        cursor = 0;
+    }
+
+    /**
+     * Collects all cards without changing their order.
+     */
+    public void reset() {
+        cursor = 0;
+    }
+
+    /**
+     * Takes the next card from the shoe.
+     *
+     * @return The next card.
+     */
+    @Override
+    public Card takeCard() {
+        if (cursor == codes.length) {
+            throw new IllegalStateException("shoe is empty");
+        }
+        return Card.of(codes[cursor++]);
+    }
+
+    /**
+     * Checks whether the cut card has been reached.
+     *
+     * @return true if the shoe should be shuffled before the next round.
+     */
+    public boolean needsShuffle() {
+        return cursor >= cut;
+    }
+
+    /**
+     * Returns the number of cards left in the shoe.
+     *
+     * @return The number of cards left.
+     */
+    public int remaining() {
+        return codes.length - cursor;
+    }
+}
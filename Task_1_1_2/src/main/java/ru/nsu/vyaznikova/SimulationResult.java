@@ -0,0 +1,133 @@
+package ru.nsu.vyaznikova;
+
+/**
+ * The number of rounds won, lost and drawn by a strategy in a simulation.
+ */
+public class SimulationResult {
+
+    /**
+     * The number of rounds won by the player.
+     */
+    private long wins;
+
+    /**
+     * The number of rounds lost by the player.
+     */
+    private long losses;
+
+    /**
+     * The number of drawn rounds.
+     */
+    private long pushes;
+
+    /**
+     * Records the outcome of one round.
+     *
+     * @param outcome The outcome from the player's point of view.
+     */
+    void add(Outcome outcome) {
+        switch (outcome) {
+            case WIN:
+                wins++;
+                break;
+            case LOSS:
+                losses++;
+                break;
+            default:
+                pushes++;
+                break;
+        }
+    }
+
+    /**
+     * Adds the counts of another result to this one.
+     *
+     * @param other The result to add.
+     * @return This result.
+     */
+    SimulationResult merge(SimulationResult other) {
+        wins += other.wins;
+        losses += other.losses;
+        pushes += other.pushes;
+        return this;
+    }
+
+    /**
+     * Returns the number of rounds won by the player.
+     *
+     * @return The number of wins.
+     */
+    public long getWins() {
+        return wins;
+    }
+
+    /**
+     * Returns the number of rounds lost by the player.
+     *
+     * @return The number of losses.
+     */
+    public long getLosses() {
+        return losses;
+    }
+
+    /**
+     * Returns the number of drawn rounds.
+     *
+     * @return The number of pushes.
+     */
+    public long getPushes() {
+        return pushes;
+    }
+
+    /**
+     * Returns the number of simulated rounds.
+     *
+     * @return The number of rounds.
+     */
+    public long getRounds() {
+        return wins + losses + pushes;
+    }
+
+    /**
+     * Returns the share of rounds won by the player.
+     *
+     * @return The win rate from 0 to 1.
+     */
+    public double getWinRate() {
+        return rate(wins);
+    }
+
+    /**
+     * Returns the share of rounds lost by the player.
+     *
+     * @return The loss rate from 0 to 1.
+     */
+    public double getLossRate() {
+        return rate(losses);
+    }
+
+    /**
+     * Returns the share of drawn rounds.
+     *
+     * @return The push rate from 0 to 1.
+     */
+    public double getPushRate() {
+        return rate(pushes);
+    }
+
+    private double rate(long count) {
+        long rounds = getRounds();
+        return rounds == 0 ? 0 : (double) count / rounds;
+    }
+
+    /**
+     * Returns the rates in a readable form.
+     *
+     * @return A string with the win, loss and push rates.
+     */
+    @Override
+    public String toString() {
+        return String.format("выигрыши %.2f%%, проигрыши %.2f%%, ничьи %.2f%% (%d раундов)",
+                100 * getWinRate(), 100 * getLossRate(), 100 * getPushRate(), getRounds());
+    }
+}
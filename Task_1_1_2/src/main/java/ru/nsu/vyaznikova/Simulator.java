@@ -0,0 +1,254 @@
+package ru.nsu.vyaznikova;
+
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Plays many rounds of Blackjack without a console to estimate
+ * how well a strategy does.
+ *
+ * <p>The rounds are split into a fixed number of chunks that run in
+ * parallel. Every chunk has its own shoe, players, random generator
+ * and strategy object, so the chunks share nothing, and the result
+ * depends only on the seed, not on the number of cores.
+ */
+public final class Simulator {
+
+    /**
+     * The number of independent chunks of rounds.
+     */
+    static final int CHUNKS = 64;
+
+    private Simulator() {
+    }
+
+    /**
+     * Simulates rounds played with the given strategy on all cores.
+     * Every round is dealt from a freshly shuffled single deck, as in the game.
+     *
+     * @param strategy Creates a strategy object for every chunk.
+     * @param rounds   The number of rounds to play.
+     * @param seed     The seed of the random generator.
+     * @return The number of rounds won, lost and drawn.
+     */
+    public static SimulationResult simulate(Supplier<? extends Strategy> strategy,
+                                            long rounds, long seed) {
+        return simulate(strategy, rounds, seed, 1, 0);
+    }
+
+    /**
+     * Simulates rounds played with the given strategy on all cores,
+     * dealing from a shoe that is shuffled only when the cut card is reached.
+     *
+     * @param strategy    Creates a strategy object for every chunk.
+     * @param rounds      The number of rounds to play.
+     * @param seed        The seed of the random generator.
+     * @param decks       The number of decks in the shoe.
+     * @param penetration The share of the shoe dealt before shuffling, from 0 to 1.
+     * @return The number of rounds won, lost and drawn.
+     */
+    public static SimulationResult simulate(Supplier<? extends Strategy> strategy,
+                                            long rounds, long seed,
+                                            int decks, double penetration) {
+        SplittableRandom root = new SplittableRandom(seed);
+        Shoe[] shoes = new Shoe[CHUNKS];
+        for (int chunk = 0; chunk < CHUNKS; chunk++) {
+            shoes[chunk] = new Shoe(decks, penetration, root.split());
+        }
+        return IntStream.range(0, CHUNKS)
+                .parallel()
+                .mapToObj(chunk -> {
+                    long from = rounds * chunk / CHUNKS;
+                    long to = rounds * (chunk + 1) / CHUNKS;
+                    return simulate(strategy.get(), to - from, shoes[chunk]);
+                })
+                .reduce(SimulationResult::merge)
+                .orElseGet(SimulationResult::new);
+    }
+
+    /**
+     * Simulates rounds on the calling thread.
+     *
+     * @param strategy The strategy of the player.
+     * @param rounds   The number of rounds to play.
+     * @param shoe     The shoe to deal from.
+     * @return The number of rounds won, lost and drawn.
+     */
+    static SimulationResult simulate(Strategy strategy, long rounds, Shoe shoe) {
+        Player player = new HumanPlayer(shoe);
+        Dealer dealer = new Dealer(shoe);
+        SimulationResult result = new SimulationResult();
+        for (long round = 0; round < rounds; round++) {
+            if (shoe.needsShuffle()) {
+                shoe.shuffle();
+            }
+            player.clearHand();
+            dealer.clearHand();
+            result.add(play(player, dealer, strategy));
+        }
+        return result;
+    }
+
+    /**
+     * Simulates rounds on the calling thread and records them to a log.
+     *
+     * @param strategy The strategy of the player.
+     * @param rounds   The number of rounds to play.
+     * @param shoe     The shoe to deal from.
+     * @param log      The log every card, decision and outcome is recorded to.
+     * @return The number of rounds won, lost and drawn.
+     */
+    public static SimulationResult simulate(Strategy strategy, long rounds, Shoe shoe,
+                                            HandLog log) {
+        HandLog.Round events = new HandLog.Round();
+        CardSource deck = events.deck(shoe);
+        Strategy recorded = events.strategy(strategy);
+        Player player = new HumanPlayer(deck);
+        Dealer dealer = new Dealer(deck);
+        SimulationResult result = new SimulationResult();
+        for (long round = 0; round < rounds; round++) {
+            if (shoe.needsShuffle()) {
+                shoe.shuffle();
+            }
+            player.clearHand();
+            dealer.clearHand();
+            Outcome outcome = play(player, dealer, recorded);
+            events.end(outcome);
+            log.write(events);
+            result.add(outcome);
+        }
+        return result;
+    }
+
+    /**
+     * Plays one round by the same rules as {@link Main#doAll()}.
+     * Both players must have empty hands and share a shuffled deck.
+     *
+     * @param player   The player.
+     * @param dealer   The dealer.
+     * @param strategy The strategy of the player.
+     * @return The outcome of the round for the player.
+     */
+    static Outcome play(Player player, Dealer dealer, Strategy strategy) {
+        player.takeCard();
+        player.takeCard();
+        dealer.takeCard();
+        dealer.takeCard();
+
+        if (player.calculateScore() == 21) {
+            return Outcome.WIN;
+        }
+        if (dealer.calculateScore() == 21) {
+            return Outcome.LOSS;
+        }
+
+        Card upcard = dealer.getCards().get(0);
+        while (player.calculateScore() < 21 && strategy.hit(player, upcard)) {
+            player.takeCard();
+        }
+        int playerScore = player.calculateScore();
+        if (playerScore > 21) {
+            return Outcome.LOSS;
+        }
+
+        while (dealer.calculateScore() < 17) {
+            dealer.takeCard();
+        }
+        int dealerScore = dealer.calculateScore();
+        if (dealerScore > 21 || playerScore > dealerScore) {
+            return Outcome.WIN;
+        } else if (dealerScore > playerScore) {
+            return Outcome.LOSS;
+        } else {
+            return Outcome.PUSH;
+        }
+    }
+
+    /**
+     * Plays one round of several players by the same rules as a {@link Table}:
+     * every player gets two cards in turn, then the dealer gets two; a player
+     * with 21 wins at once, the others lose to a dealer with 21, and otherwise
+     * the players take their turns one after another before the dealer plays
+     * for all who have not gone over 21. With one player this is
+     * {@link #play(Player, Dealer, Strategy)}. All players must have empty
+     * hands and share a shuffled deck with the dealer.
+     *
+     * @param players  The players in the order of their turns.
+     * @param count    The number of players.
+     * @param dealer   The dealer.
+     * @param strategy The strategy of every player.
+     * @param outcomes Receives the outcome of the round for every player.
+     */
+    static void play(Player[] players, int count, Dealer dealer, Strategy strategy,
+                     Outcome[] outcomes) {
+        for (int i = 0; i < count; i++) {
+            players[i].takeCard();
+            players[i].takeCard();
+        }
+        dealer.takeCard();
+        dealer.takeCard();
+
+        boolean dealerBlackjack = dealer.calculateScore() == 21;
+        Card upcard = dealer.getCards().get(0);
+        boolean standing = false;
+        for (int i = 0; i < count; i++) {
+            Player player = players[i];
+            if (player.calculateScore() == 21) {
+                outcomes[i] = Outcome.WIN;
+                continue;
+            }
+            if (dealerBlackjack) {
+                outcomes[i] = Outcome.LOSS;
+                continue;
+            }
+            while (player.calculateScore() < 21 && strategy.hit(player, upcard)) {
+                player.takeCard();
+            }
+            if (player.calculateScore() > 21) {
+                outcomes[i] = Outcome.LOSS;
+            } else {
+                outcomes[i] = null;
+                standing = true;
+            }
+        }
+        if (!standing) {
+            return;
+        }
+
+        while (dealer.calculateScore() < 17) {
+            dealer.takeCard();
+        }
+        int dealerScore = dealer.calculateScore();
+        for (int i = 0; i < count; i++) {
+            if (outcomes[i] != null) {
+                continue;
+            }
+            int playerScore = players[i].calculateScore();
+            if (dealerScore > 21 || playerScore > dealerScore) {
+                outcomes[i] = Outcome.WIN;
+            } else if (dealerScore > playerScore) {
+                outcomes[i] = Outcome.LOSS;
+            } else {
+                outcomes[i] = Outcome.PUSH;
+            }
+        }
+    }
+
+    /**
+     * Compares the threshold strategies of the bot from 11 to 20.
+     *
+     * @param args The number of rounds per strategy, one million by default.
+     */
+    public static void main(String[] args) {
+        long rounds = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        for (int threshold = 11; threshold <= 20; threshold++) {
+            int value = threshold;
+            long start = System.nanoTime();
+            SimulationResult result = simulate(() -> new ThresholdStrategy(value), rounds, 1);
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            System.out.println(new ThresholdStrategy(threshold) + ": " + result
+                    + ", " + elapsed + " мс");
+        }
+    }
+}
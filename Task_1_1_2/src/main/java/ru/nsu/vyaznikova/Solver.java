@@ -0,0 +1,416 @@
+package ru.nsu.vyaznikova;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Computes the exact expected result of taking a card or stopping,
+ * by the rules of {@link Main#doAll()}: a won round counts as +1,
+ * a lost one as -1 and a draw as 0.
+ *
+ * <p>A state of the game is the hard total of the player (aces counted as 1),
+ * whether the player holds an ace, the dealer's open card and the cards
+ * left in the shoe. The shoe is described by the number of cards of each
+ * value, from two to ace, which is all that matters for the score. The state
+ * is packed into one long, and the values of the states that have been
+ * solved once are kept in an open-addressing table, so that repeated
+ * questions are answered at once.
+ *
+ * <p>The closed card of the dealer is among the cards passed as the shoe.
+ * Since the player is asked only if the dealer has no Blackjack, this card is
+ * known not to be a ten when the open card is an ace, and the other way
+ * round; the odds of the player's next cards take that into account.
+ *
+ * <p>A solver is not thread-safe; every thread should use its own one.
+ */
+public class Solver {
+
+    /**
+     * The number of different card values, from two to ace.
+     */
+    static final int VALUES = 10;
+
+    /**
+     * The largest number of decks that fits into a packed state.
+     */
+    public static final int MAX_DECKS = 7;
+
+    /**
+     * The index of the tens, jacks, queens and kings.
+     */
+    private static final int TEN = 8;
+
+    /**
+     * The index of the aces.
+     */
+    private static final int ACE = 9;
+
+    /**
+     * The position of the count of every value in a packed shoe.
+     * Tens take seven bits, other values five bits.
+     */
+    private static final int[] SHIFTS = {0, 5, 10, 15, 20, 25, 30, 35, 40, 47};
+
+    /**
+     * The number of bits taken by a packed shoe.
+     */
+    private static final int SHOE_BITS = 52;
+
+    /**
+     * The expected results of the player's best play, by player state.
+     */
+    private final Cache players = new Cache();
+
+    /**
+     * The expected results of standing, by dealer state and player score.
+     */
+    private final Cache dealers = new Cache();
+
+    /**
+     * Returns the number of cards of each value in a full shoe.
+     *
+     * @param decks The number of decks in the shoe.
+     * @return The counts of cards indexed by {@link #index(Rank)}.
+     */
+    public static int[] shoe(int decks) {
+        if (decks < 1 || decks > MAX_DECKS) {
+            throw new IllegalArgumentException("decks must be from 1 to " + MAX_DECKS
+                    + ": " + decks);
+        }
+        int[] counts = new int[VALUES];
+        for (Rank rank : Rank.values()) {
+            counts[index(rank)] += Suit.values().length * decks;
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the number of cards of each value left in a full shoe
+     * after the given cards have been dealt from it.
+     *
+     * @param decks The number of decks in the shoe.
+     * @param dealt The cards that have been dealt.
+     * @return The counts of cards indexed by {@link #index(Rank)}.
+     */
+    public static int[] shoe(int decks, List<Card> dealt) {
+        int[] counts = shoe(decks);
+        for (Card card : dealt) {
+            counts[index(card.getRank())]--;
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the index of the value of the rank in the counts of a shoe.
+     *
+     * @param rank The rank of a card.
+     * @return The index from 0 for a two to 9 for an ace.
+     */
+    public static int index(Rank rank) {
+        return rank.getValue() - 2;
+    }
+
+    /**
+     * Returns the expected result of stopping now.
+     *
+     * @param hand   The cards of the player.
+     * @param upcard The open card of the dealer.
+     * @param shoe   The counts of cards left in the shoe, with the closed card of the dealer.
+     * @return The expected result from -1 to 1.
+     */
+    public double stand(List<Card> hand, Card upcard, int[] shoe) {
+        int hard = hard(hand);
+        return stand(score(hard, hasAce(hand)), index(upcard.getRank()), pack(shoe), total(shoe));
+    }
+
+    /**
+     * Returns the expected result of taking one more card and playing
+     * on in the best way.
+     *
+     * @param hand   The cards of the player.
+     * @param upcard The open card of the dealer.
+     * @param shoe   The counts of cards left in the shoe, with the closed card of the dealer.
+     * @return The expected result from -1 to 1.
+     */
+    public double hit(List<Card> hand, Card upcard, int[] shoe) {
+        return hit(hard(hand), hasAce(hand), index(upcard.getRank()), pack(shoe), total(shoe));
+    }
+
+    /**
+     * Decides whether taking a card is better than stopping.
+     * A player with 21 or more never takes a card, as in the game.
+     *
+     * @param hand   The cards of the player.
+     * @param upcard The open card of the dealer.
+     * @param shoe   The counts of cards left in the shoe, with the closed card of the dealer.
+     * @return true if taking a card gives a higher expected result.
+     */
+    public boolean shouldHit(List<Card> hand, Card upcard, int[] shoe) {
+        int hard = hard(hand);
+        boolean soft = hasAce(hand);
+        if (score(hard, soft) >= 21) {
+            return false;
+        }
+        int up = index(upcard.getRank());
+        long packed = pack(shoe);
+        int total = total(shoe);
+        return hit(hard, soft, up, packed, total) > stand(score(hard, soft), up, packed, total);
+    }
+
+    /**
+     * Returns the number of solved states kept in the cache.
+     *
+     * @return The number of cached states.
+     */
+    public int cached() {
+        return players.size() + dealers.size();
+    }
+
+    /**
+     * Returns the expected result of the best play from a player state.
+     */
+    private double play(int hard, boolean soft, int up, long shoe, int total) {
+        int score = score(hard, soft);
+        if (score > 21) {
+            return -1;
+        }
+        if (score == 21) {
+            return stand(score, up, shoe, total);
+        }
+        long key = shoe | (long) hard << SHOE_BITS | (long) up << (SHOE_BITS + 5)
+                | (soft ? 1L << (SHOE_BITS + 9) : 0);
+        int slot = players.find(key);
+        if (players.has(slot)) {
+            return players.value(slot);
+        }
+        double value = Math.max(stand(score, up, shoe, total), hit(hard, soft, up, shoe, total));
+        players.put(key, value);
+        return value;
+    }
+
+    /**
+     * Averages the result of taking a card over the cards that may come.
+     * The closed card of the dealer is still in the shoe, so a value that it
+     * may have is a little less likely to come than its count says.
+     */
+    private double hit(int hard, boolean soft, int up, long shoe, int total) {
+        int allowed = total - count(shoe, excluded(up));
+        if (total < 2 || allowed == 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        double sum = 0;
+        for (int value = 0; value < VALUES; value++) {
+            int count = count(shoe, value);
+            if (count == 0) {
+                continue;
+            }
+            int weight = value == excluded(up) ? allowed : allowed - 1;
+            sum += (double) count * weight
+                    * play(hard + points(value), soft || value == ACE, up, remove(shoe, value),
+                    total - 1);
+        }
+        return sum / ((double) allowed * (total - 1));
+    }
+
+    /**
+     * Averages the result of stopping with the score over the closed card of the dealer.
+     */
+    private double stand(int score, int up, long shoe, int total) {
+        int excluded = excluded(up);
+        int allowed = total - count(shoe, excluded);
+        if (allowed == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (int value = 0; value < VALUES; value++) {
+            int count = count(shoe, value);
+            if (count == 0 || value == excluded) {
+                continue;
+            }
+            sum += count * dealer(points(up) + points(value), up == ACE || value == ACE,
+                    remove(shoe, value), total - 1, score);
+        }
+        return sum / allowed;
+    }
+
+    /**
+     * Returns the expected result for a player who stopped with the score,
+     * while the dealer takes cards until 17.
+     */
+    private double dealer(int hard, boolean soft, long shoe, int total, int score) {
+        int dealerScore = score(hard, soft);
+        if (dealerScore > 21) {
+            return 1;
+        }
+        if (dealerScore >= 17 || total == 0) {
+            return Integer.compare(score, dealerScore);
+        }
+        // Every score below 17 loses to the dealer alike.
+        long key = shoe | (long) hard << SHOE_BITS | (long) (Math.max(score, 16) - 16)
+                << (SHOE_BITS + 5) | (soft ? 1L << (SHOE_BITS + 8) : 0);
+        int slot = dealers.find(key);
+        if (dealers.has(slot)) {
+            return dealers.value(slot);
+        }
+        double sum = 0;
+        for (int value = 0; value < VALUES; value++) {
+            int count = count(shoe, value);
+            if (count > 0) {
+                sum += count * dealer(hard + points(value), soft || value == ACE,
+                        remove(shoe, value), total - 1, score);
+            }
+        }
+        double value = sum / total;
+        dealers.put(key, value);
+        return value;
+    }
+
+    /**
+     * Returns the value that the closed card cannot have when the open card is up,
+     * or -1 if it may have any.
+     */
+    private static int excluded(int up) {
+        return up == ACE ? TEN : up == TEN ? ACE : -1;
+    }
+
+    /**
+     * Returns the score as {@link Player#calculateScore()} counts it:
+     * one ace counts as 11 if that does not go over 21.
+     */
+    private static int score(int hard, boolean soft) {
+        return soft && hard + 10 <= 21 ? hard + 10 : hard;
+    }
+
+    /**
+     * Returns the points of a card value with an ace counted as 1.
+     */
+    private static int points(int value) {
+        return value == ACE ? 1 : value + 2;
+    }
+
+    private static int hard(List<Card> hand) {
+        int hard = 0;
+        for (Card card : hand) {
+            hard += points(index(card.getRank()));
+        }
+        return hard;
+    }
+
+    private static boolean hasAce(List<Card> hand) {
+        for (Card card : hand) {
+            if (card.getRank() == Rank.ACE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int total(int[] shoe) {
+        int total = 0;
+        for (int count : shoe) {
+            total += count;
+        }
+        return total;
+    }
+
+    private static long pack(int[] shoe) {
+        if (shoe.length != VALUES) {
+            throw new IllegalArgumentException("shoe must have " + VALUES + " counts");
+        }
+        long packed = 0;
+        for (int value = 0; value < VALUES; value++) {
+            int limit = (value == TEN ? 16 : 4) * MAX_DECKS;
+            if (shoe[value] < 0 || shoe[value] > limit) {
+                throw new IllegalArgumentException("count of value " + value
+                        + " must be from 0 to " + limit + ": " + shoe[value]);
+            }
+            packed |= (long) shoe[value] << SHIFTS[value];
+        }
+        return packed;
+    }
+
+    private static int count(long shoe, int value) {
+        if (value < 0) {
+            return 0;
+        }
+        int mask = value == TEN ? 0x7f : 0x1f;
+        return (int) (shoe >>> SHIFTS[value]) & mask;
+    }
+
+    private static long remove(long shoe, int value) {
+        return shoe - (1L << SHIFTS[value]);
+    }
+
+    /**
+     * A hash table from non-negative long keys to doubles with linear probing.
+     */
+    private static final class Cache {
+
+        /**
+         * Marks a free slot; packed states are never negative.
+         */
+        private static final long FREE = -1;
+
+        private long[] keys = new long[1 << 10];
+        private double[] values = new double[1 << 10];
+        private int size;
+
+        Cache() {
+            Arrays.fill(keys, FREE);
+        }
+
+        /**
+         * Returns the slot that holds the key, or the free slot where it belongs.
+         */
+        int find(long key) {
+            int mask = keys.length - 1;
+            long hash = key * 0x9E3779B97F4A7C15L;
+            int slot = (int) (hash ^ hash >>> 32) & mask;
+            while (keys[slot] != FREE && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        boolean has(int slot) {
+            return keys[slot] != FREE;
+        }
+
+        double value(int slot) {
+            return values[slot];
+        }
+
+        /**
+         * Adds a key that is not in the table yet. The slot is looked up again,
+         * since the recursion may have filled the table in between.
+         */
+        void put(long key, double value) {
+            if (2 * (size + 1) > keys.length) {
+                grow();
+            }
+            int slot = find(key);
+            keys[slot] = key;
+            values[slot] = value;
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            double[] oldValues = values;
+            keys = new long[2 * oldKeys.length];
+            values = new double[2 * oldKeys.length];
+            Arrays.fill(keys, FREE);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != FREE) {
+                    int slot = find(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package ru.nsu.vyaznikova;
+
+/**
+ * Decides whether a player takes another card.
+ * Used by the simulator in place of reading the choice from the console.
+ */
+@FunctionalInterface
+public interface Strategy {
+
+    /**
+     * Decides the next move of the player.
+     *
+     * @param player The player whose turn it is.
+     * @param upcard The open card of the dealer.
+     * @return true to take a card, false to stop.
+     */
+    boolean hit(Player player, Card upcard);
+}
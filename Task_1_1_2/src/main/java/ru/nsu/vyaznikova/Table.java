@@ -0,0 +1,482 @@
+package ru.nsu.vyaznikova;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A Blackjack table: one dealer and one deck for several players.
+ *
+ * <p>Every player sits at a {@link Seat} with its own reader and stream and
+ * plays the game of {@link Main#doAll}. A round is dealt from a freshly
+ * shuffled deck: two cards to every seat in turn, then two to the dealer.
+ * The players take their turns one after another, the dealer plays once for
+ * all who are still in the game, and every seat gets its own result and
+ * score. With a single seat the game is written exactly as the console game.
+ *
+ * <p>New players may join while the table is playing; they are seated from
+ * the next round. A player leaves by answering "2", and the table closes
+ * when the last player has left. A table seats at most {@link #MAX_SEATS}
+ * players, as at a casino, so one deck is always enough for a round.
+ *
+ * <p>The rounds may be recorded to a {@link HandLog}: the cards as they are
+ * dealt, the answers "1" and "0" of the players as decisions, answering "2"
+ * or being lost as a decision to stop, and the outcome for every player.
+ */
+public class Table {
+
+    /**
+     * The largest number of players at a table. Every hand uses cards worth
+     * at most 30 points, counting aces as 1, and a deck holds 340 points, so
+     * the deck cannot run out even with the dealer's hand.
+     */
+    public static final int MAX_SEATS = 7;
+
+    /**
+     * The number of seats at the table.
+     */
+    private final int seats;
+
+    /**
+     * The players of the current round, in the order of their turns.
+     */
+    private final List<Seat> players = new ArrayList<>();
+
+    /**
+     * The players who join at the next round.
+     */
+    private final List<Seat> joining = new ArrayList<>();
+
+    /**
+     * The number of seats that are taken or promised to joining players.
+     */
+    private int taken;
+
+    /**
+     * Whether the table has closed after the last player left.
+     */
+    private boolean closed;
+
+    /**
+     * The deck of the current round.
+     */
+    private Deck deck = new Deck();
+
+    /**
+     * The dealer, who takes the cards from the deck of the current round.
+     */
+    private final Dealer dealer = new Dealer(this::takeCard);
+
+    /**
+     * The log the rounds are recorded to, or null.
+     */
+    private final HandLog log;
+
+    /**
+     * The events of the current round.
+     */
+    private final HandLog.Round events = new HandLog.Round();
+
+    /**
+     * Constructs a new empty Table.
+     *
+     * @param seats The number of seats, from 1 to {@link #MAX_SEATS}.
+     */
+    public Table(int seats) {
+        this(seats, null);
+    }
+
+    /**
+     * Constructs a new empty Table that records its rounds.
+     *
+     * @param seats The number of seats, from 1 to {@link #MAX_SEATS}.
+     * @param log   The log the rounds are recorded to, or null.
+     */
+    public Table(int seats, HandLog log) {
+        if (seats < 1 || seats > MAX_SEATS) {
+            throw new IllegalArgumentException("a table has from 1 to " + MAX_SEATS
+                    + " seats: " + seats);
+        }
+        this.seats = seats;
+        this.log = log;
+    }
+
+    /**
+     * Seats a player from the next round.
+     *
+     * @param seat The seat of the player.
+     * @return false if the table is full or closed.
+     */
+    public synchronized boolean join(Seat seat) {
+        if (closed || taken == seats) {
+            return false;
+        }
+        taken++;
+        joining.add(seat);
+        return true;
+    }
+
+    /**
+     * Plays rounds until the last player has left the table.
+     */
+    public void play() {
+        while (seatJoining()) {
+            playRound();
+        }
+    }
+
+    /**
+     * Seats the joining players and closes the table if nobody is left.
+     *
+     * @return true if there is a player at the table.
+     */
+    private synchronized boolean seatJoining() {
+        for (Seat seat : joining) {
+            seat.player = new HumanPlayer(this::takeCard);
+            seat.number = freeNumber();
+            seat.out.println("Добро пожаловать в Блэкджек!");
+            if (seats > 1) {
+                seat.out.println("Ваше место за столом: " + seat.number);
+            }
+            players.add(seat);
+        }
+        joining.clear();
+        if (players.isEmpty()) {
+            closed = true;
+        }
+        return !closed;
+    }
+
+    /**
+     * Returns the smallest seat number that no seated player has.
+     *
+     * @return The number of a free seat, from 1.
+     */
+    private int freeNumber() {
+        boolean[] used = new boolean[seats + 1];
+        for (Seat seat : players) {
+            used[seat.number] = true;
+        }
+        int number = 1;
+        while (used[number]) {
+            number++;
+        }
+        return number;
+    }
+
+    /**
+     * Plays one round with all seated players.
+     */
+    private void playRound() {
+        for (Seat seat : players) {
+            seat.round++;
+            seat.finished = false;
+            seat.out.println("\nРаунд " + seat.round);
+            seat.out.println("Если захотите завершить игру, введите \"2\".");
+        }
+        events.seats(players.size());
+        deck = new Deck();
+        deck.shuffle();
+        dealer.clearHand();
+        for (Seat seat : players) {
+            seat.player.clearHand();
+            seat.player.takeCard();
+            seat.player.takeCard();
+        }
+        dealer.takeCard();
+        dealer.takeCard();
+
+        boolean dealerBlackjack = isBlackjack(dealer);
+        for (Seat seat : players) {
+            if (isBlackjack(seat.player)) {
+                seat.win("Вы выиграли раунд! У вас Blackjack!");
+            } else if (dealerBlackjack) {
+                seat.lose("Дилер выиграл раунд! У него Blackjack!");
+            } else {
+                seat.out.println("\nДилер раздал карты");
+                seat.out.println("Ваши карты: " + hand(seat.player));
+                seat.out.println("Карты дилера: ["
+                        + dealer.getCards().get(0) + ", <закрытая карта>]");
+            }
+        }
+
+        boolean standing = false;
+        for (Seat seat : players) {
+            if (seat.finished) {
+                continue;
+            }
+            turn(seat);
+            if (seat.player.calculateScore() > 21) {
+                seat.lose("Вы проиграли раунд! Превышен лимит очков.");
+            } else {
+                standing = true;
+            }
+            if (players.size() > 1) {
+                for (Seat other : players) {
+                    if (other != seat) {
+                        other.out.println("Игрок " + seat.number + ": " + hand(seat.player));
+                        other.out.flush();
+                    }
+                }
+            }
+        }
+
+        if (standing) {
+            playDealer();
+        }
+
+        List<Seat> leaving = new ArrayList<>();
+        for (Seat seat : players) {
+            events.end(seat.outcome);
+            seat.out.println("Счет: " + seat.playerScore + ":" + seat.dealerScore);
+            seat.out.flush();
+            if (seat.leaving) {
+                leaving.add(seat);
+            }
+        }
+        if (log != null) {
+            log.write(events);
+        } else {
+            events.clear();
+        }
+        if (!leaving.isEmpty()) {
+            players.removeAll(leaving);
+            synchronized (this) {
+                taken -= leaving.size();
+            }
+            for (Seat seat : leaving) {
+                seat.leave();
+            }
+        }
+    }
+
+    /**
+     * Asks a player for cards until the player stops or has 21 or more.
+     *
+     * @param seat The seat of the player.
+     */
+    private void turn(Seat seat) {
+        Player player = seat.player;
+        while (player.calculateScore() < 21) {
+            seat.out.println("\nВаш ход");
+            seat.out.println("-------");
+            seat.out.println("Введите \"1\", чтобы взять карту,"
+                    + "и \"0\", чтобы остановиться...");
+
+            int choice;
+            try {
+                seat.reader.setScore(player.calculateScore());
+                choice = seat.reader.next();
+            } catch (NoSuchElementException | IllegalStateException e) {
+                seat.fail(e);
+                seat.leaving = true;
+                events.decision(false);
+                break;
+            }
+
+            if (choice == 2) {
+                events.decision(false);
+                seat.out.println("\nИгра окончена! Счет "
+                        + seat.playerScore + ":" + seat.dealerScore + ".");
+                seat.leaving = true;
+                break;
+            } else if (choice == 1) {
+                events.decision(true);
+                player.takeCard();
+                seat.out.println("Вы открыли карту "
+                        + player.getCards().get(player.getCards().size() - 1));
+                seat.out.println("Ваши карты: " + hand(player));
+            } else if (choice == 0) {
+                events.decision(false);
+                break;
+            } else {
+                seat.out.println("Неверный ввод. Пожалуйста, введите 1 или 0.");
+            }
+        }
+    }
+
+    /**
+     * Plays the dealer's hand and settles the round of every player still in it.
+     */
+    private void playDealer() {
+        for (Seat seat : players) {
+            if (!seat.finished) {
+                seat.out.println("\nХод дилера");
+                seat.out.println("-------");
+                seat.out.println("Дилер открывает закрытую карту " + dealer.getCards().get(1));
+                seat.out.println("Ваши карты: " + hand(seat.player));
+                seat.out.println("Карты дилера: " + hand(dealer));
+            }
+        }
+
+        while (dealer.calculateScore() < 17) {
+            dealer.takeCard();
+            for (Seat seat : players) {
+                if (!seat.finished) {
+                    seat.out.println("Дилер открывает карту "
+                            + dealer.getCards().get(dealer.getCards().size() - 1));
+                    seat.out.println("Ваши карты: " + hand(seat.player));
+                    seat.out.println("Карты дилера: " + hand(dealer));
+                }
+            }
+        }
+
+        int dealerScore = dealer.calculateScore();
+        for (Seat seat : players) {
+            if (seat.finished) {
+                continue;
+            }
+            int playerScore = seat.player.calculateScore();
+            if (dealerScore > 21) {
+                seat.win("Вы выиграли раунд! Дилер превысил лимит очков.");
+            } else if (playerScore > dealerScore) {
+                seat.win("Вы выиграли раунд! У вас больше очков.");
+            } else if (dealerScore > playerScore) {
+                seat.lose("Вы проиграли раунд! У дилера больше очков.");
+            } else {
+                seat.push("Ничья! У вас одинаковое количество очков.");
+            }
+        }
+    }
+
+    /**
+     * Takes a card from the deck of the current round and records it.
+     *
+     * @return The card.
+     */
+    private Card takeCard() {
+        Card card = deck.takeCard();
+        events.card(card);
+        return card;
+    }
+
+    private static boolean isBlackjack(Player player) {
+        return player.calculateScore() == 21 && player.getCards().size() == 2;
+    }
+
+    private static String hand(Player player) {
+        return player.getCards() + " => " + player.calculateScore();
+    }
+
+    /**
+     * A player at a table, with the reader of the player's choices
+     * and the stream the game is written to.
+     */
+    public static class Seat {
+
+        /**
+         * The source of the player's choices.
+         */
+        private final BotReader reader;
+
+        /**
+         * The stream the game is written to.
+         */
+        private final PrintStream out;
+
+        /**
+         * The player's hand, created when the player is seated.
+         */
+        private Player player;
+
+        /**
+         * The number of the seat at the table, from 1.
+         */
+        private int number;
+
+        /**
+         * The number of rounds won by the player.
+         */
+        private int playerScore;
+
+        /**
+         * The number of rounds won by the dealer.
+         */
+        private int dealerScore;
+
+        /**
+         * The number of the current round of this player.
+         */
+        private int round;
+
+        /**
+         * Whether the player's result in the current round is known.
+         */
+        private boolean finished;
+
+        /**
+         * The player's result in the current round.
+         */
+        private Outcome outcome;
+
+        /**
+         * Whether the player leaves after the current round.
+         */
+        private boolean leaving;
+
+        /**
+         * Constructs a new Seat.
+         *
+         * @param reader The source of the player's choices.
+         * @param out    The stream the game is written to.
+         */
+        public Seat(BotReader reader, PrintStream out) {
+            this.reader = reader;
+            this.out = out;
+        }
+
+        /**
+         * Returns the final result of the player's game so far.
+         *
+         * @return "Вы победили!", "Дилер победил!" or "Ничья!".
+         */
+        public String getResult() {
+            if (playerScore > dealerScore) {
+                return "Вы победили!";
+            } else if (dealerScore > playerScore) {
+                return "Дилер победил!";
+            } else {
+                return "Ничья!";
+            }
+        }
+
+        /**
+         * Called by the table when the player has left, after the last round
+         * of the player has been written. Does nothing by default.
+         */
+        protected void leave() {
+        }
+
+        /**
+         * Called by the table when the player's choice cannot be read. The
+         * player then stops and leaves after the round. Throws the exception
+         * by default, which ends the game of the whole table.
+         *
+         * @param e The exception thrown by the reader.
+         */
+        protected void fail(RuntimeException e) {
+            throw e;
+        }
+
+        private void win(String message) {
+            finish(Outcome.WIN, message);
+            playerScore++;
+        }
+
+        private void lose(String message) {
+            finish(Outcome.LOSS, message);
+            dealerScore++;
+        }
+
+        private void push(String message) {
+            finish(Outcome.PUSH, message);
+        }
+
+        private void finish(Outcome result, String message) {
+            finished = true;
+            outcome = result;
+            out.println(message);
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package ru.nsu.vyaznikova;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A server that hosts many Blackjack tables at once over TCP.
+ *
+ * <p>Every connection is a player with its own {@link BotReader}, seated at
+ * a {@link Table} that still has a free seat; the players of a table share
+ * its dealer and deck and take their turns one after another. When all
+ * tables are full, a new one is opened, and a table closes when its last
+ * player leaves. The protocol is the console game itself, line by line: the
+ * server writes what the console game prints, and the client answers the
+ * questions with "1", "0" or "2", so the game can be played with any
+ * line-based terminal client. A player who does not answer within
+ * {@link #TURN_TIMEOUT} milliseconds is sent away, so that the others
+ * can go on playing.
+ *
+ * <p>A table spends nearly all its time waiting for the clients, so on a JVM
+ * with virtual threads every table runs on a virtual thread, and thousands of
+ * tables cost little. On older JVMs tables fall back to pooled platform
+ * threads.
+ */
+public class TableServer implements AutoCloseable {
+
+    /**
+     * The time a player has to answer, in milliseconds.
+     */
+    static final int TURN_TIMEOUT = 60_000;
+
+    /**
+     * The socket that accepts new players.
+     */
+    private final ServerSocket server;
+
+    /**
+     * Runs the tables.
+     */
+    private final ExecutorService tables = newTableExecutor();
+
+    /**
+     * The thread that accepts connections.
+     */
+    private final Thread acceptor;
+
+    /**
+     * The number of seats at every table.
+     */
+    private final int seats;
+
+    /**
+     * The log the rounds of all tables are recorded to, or null.
+     */
+    private final HandLog log;
+
+    /**
+     * The table new players are seated at while it has free seats.
+     * Used by the acceptor thread only.
+     */
+    private Table open;
+
+    /**
+     * The connections of the players, closed when the server stops.
+     */
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The number of tables that have been opened.
+     */
+    private final AtomicLong opened = new AtomicLong();
+
+    /**
+     * The number of tables being played.
+     */
+    private final AtomicInteger active = new AtomicInteger();
+
+    /**
+     * Constructs a new TableServer on the local host with tables of
+     * {@link Table#MAX_SEATS} seats and starts accepting players.
+     *
+     * @param port The port to listen on, or 0 for any free port.
+     * @throws IOException If the port cannot be opened.
+     */
+    public TableServer(int port) throws IOException {
+        this(port, Table.MAX_SEATS);
+    }
+
+    /**
+     * Constructs a new TableServer on the local host and starts accepting players.
+     *
+     * @param port  The port to listen on, or 0 for any free port.
+     * @param seats The number of seats at every table, from 1 to {@link Table#MAX_SEATS}.
+     * @throws IOException If the port cannot be opened.
+     */
+    public TableServer(int port, int seats) throws IOException {
+        this(port, seats, null);
+    }
+
+    /**
+     * Constructs a new TableServer on the local host that records the rounds
+     * of all tables to a log, and starts accepting players. The log is not
+     * closed with the server.
+     *
+     * @param port  The port to listen on, or 0 for any free port.
+     * @param seats The number of seats at every table, from 1 to {@link Table#MAX_SEATS}.
+     * @param log   The log the rounds are recorded to, or null.
+     * @throws IOException If the port cannot be opened.
+     */
+    public TableServer(int port, int seats, HandLog log) throws IOException {
+        if (seats < 1 || seats > Table.MAX_SEATS) {
+            throw new IllegalArgumentException("a table has from 1 to " + Table.MAX_SEATS
+                    + " seats: " + seats);
+        }
+        this.seats = seats;
+        this.log = log;
+        server = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+        acceptor = new Thread(this::accept, "table-acceptor");
+        acceptor.start();
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return The port.
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Returns the number of tables being played.
+     *
+     * @return The number of active tables.
+     */
+    public int getActiveTables() {
+        return active.get();
+    }
+
+    /**
+     * Returns the number of players at the tables.
+     *
+     * @return The number of connected players.
+     */
+    public int getPlayers() {
+        return sockets.size();
+    }
+
+    /**
+     * Returns the number of tables that have been opened since the start.
+     *
+     * @return The number of opened tables.
+     */
+    public long getOpenedTables() {
+        return opened.get();
+    }
+
+    /**
+     * Stops accepting players and closes the tables.
+     *
+     * @throws IOException If the socket cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        server.close();
+        tables.shutdownNow();
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        try {
+            acceptor.join();
+            tables.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void accept() {
+        while (!server.isClosed()) {
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (IOException e) {
+                return;
+            }
+            sockets.add(socket);
+            if (server.isClosed()) {
+                // close() may have closed the other connections already.
+                leave(socket);
+                return;
+            }
+            Table.Seat seat;
+            try {
+                seat = seat(socket);
+            } catch (IOException e) {
+                leave(socket);
+                continue;
+            }
+            if (open == null || !open.join(seat)) {
+                Table table = new Table(seats, log);
+                table.join(seat);
+                active.incrementAndGet();
+                try {
+                    tables.execute(() -> {
+                        try {
+                            table.play();
+                        } finally {
+                            active.decrementAndGet();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    // The server is closing.
+                    active.decrementAndGet();
+                    leave(socket);
+                    continue;
+                }
+                opened.incrementAndGet();
+                open = table;
+            }
+        }
+    }
+
+    /**
+     * Creates the seat of a player who plays over a connection. The player
+     * gets the final result when leaving the table; if the connection is
+     * lost, the player leaves after the round.
+     *
+     * @param socket The connection of the player.
+     * @return The seat.
+     * @throws IOException If the connection cannot be set up.
+     */
+    private Table.Seat seat(Socket socket) throws IOException {
+        socket.setTcpNoDelay(true);
+        socket.setSoTimeout(TURN_TIMEOUT);
+        Scanner input = new Scanner(socket.getInputStream(), StandardCharsets.UTF_8);
+        PrintStream out = new PrintStream(new BufferedOutputStream(socket.getOutputStream()),
+                false, StandardCharsets.UTF_8);
+        return new Table.Seat(new BotReader(input, out), out) {
+            @Override
+            protected void leave() {
+                out.println(getResult());
+                out.flush();
+                TableServer.this.leave(socket);
+            }
+
+            @Override
+            protected void fail(RuntimeException e) {
+                // The player has left in the middle of the game.
+            }
+        };
+    }
+
+    /**
+     * Closes the connection of a player who has left.
+     *
+     * @param socket The connection.
+     */
+    private void leave(Socket socket) {
+        sockets.remove(socket);
+        try {
+            socket.close();
+        } catch (IOException e) {
+            System.err.println("Соединение закрыто с ошибкой: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates an executor that starts a virtual thread for every table if the
+     * JVM has them, or reuses daemon platform threads otherwise.
+     *
+     * @return The executor for the tables.
+     */
+    static ExecutorService newTableExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "table-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Starts the server and keeps it running.
+     *
+     * @param args The port to listen on, 5555 by default, the number of seats
+     *             at a table, {@link Table#MAX_SEATS} by default, and the path
+     *             of a {@link HandLog} to record the rounds to, if any.
+     * @throws IOException If the port or the log cannot be opened.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 5555;
+        int seats = args.length > 1 ? Integer.parseInt(args[1]) : Table.MAX_SEATS;
+        HandLog log = args.length > 2 ? new HandLog(Path.of(args[2])) : null;
+        TableServer server = new TableServer(port, seats, log);
+        if (log != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.close();
+                    log.close();
+                } catch (IOException e) {
+                    System.err.println("Журнал раздач не записан: " + e.getMessage());
+                }
+            }));
+        }
+        System.out.println("Сервер ждёт игроков на порту " + server.getPort());
+    }
+}
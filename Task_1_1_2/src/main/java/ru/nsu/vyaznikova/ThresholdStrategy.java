@@ -0,0 +1,53 @@
+package ru.nsu.vyaznikova;
+
+/**
+ * The strategy of the bot: take cards while the score
+ * does not exceed the threshold.
+ */
+public class ThresholdStrategy implements Strategy {
+
+    /**
+     * The highest score at which the player still takes a card.
+     */
+    private final int threshold;
+
+    /**
+     * Constructs a new ThresholdStrategy with the specified threshold.
+     *
+     * @param threshold The highest score at which the player still takes a card.
+     */
+    public ThresholdStrategy(int threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Takes a card if the player's score does not exceed the threshold.
+     *
+     * @param player The player whose turn it is.
+     * @param upcard The open card of the dealer, not used by this strategy.
+     * @return true if the score is not above the threshold.
+     */
+    @Override
+    public boolean hit(Player player, Card upcard) {
+        return player.calculateScore() <= threshold;
+    }
+
+    /**
+     * Returns the threshold of the strategy.
+     *
+     * @return The threshold.
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Returns a string representation of the strategy.
+     *
+     * @return The threshold in a readable form.
+     */
+    @Override
+    public String toString() {
+        return "порог " + threshold;
+    }
+}
@@ -1,5 +1,8 @@
 package ru.nsu.vyaznikova;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Scanner;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -25,4 +28,21 @@ public class BotReaderTest {
         int result = BotReader.read();
         assertEquals(1, result);
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that readers of different tables keep their own state.
+     */
+    @Test
+    void testreadersareindependent() {
+        PrintStream out = new PrintStream(new ByteArrayOutputStream());
+        BotReader first = new BotReader(new Scanner("0"), out);
+        BotReader second = new BotReader(new Scanner("1"), out);
+        first.enableBot(15, 1);
+        first.setScore(10);
+        assertEquals(1, first.next());
+        assertEquals(2, first.next());
+        assertEquals(1, second.next());
+        assertEquals(1, second.getLast());
+        assertEquals(1, first.getLast());
+    }
+}
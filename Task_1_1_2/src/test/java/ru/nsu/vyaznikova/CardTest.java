@@ -1,6 +1,7 @@
 package ru.nsu.vyaznikova;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import org.junit.jupiter.api.Test;
 
@@ -36,4 +37,16 @@ public class CardTest {
         Card card = new Card(Suit.SPADES, Rank.TEN);
         assertEquals("Десятка Пики", card.toString());
     }
+
+    /**
+     * Tests the of() method, verifying that it returns
+     * the same instance for the same card.
+     */
+    @Test
+    void testOf() {
+        Card card = Card.of(Suit.CLUBS, Rank.QUEEN);
+        assertSame(card, Card.of(Suit.CLUBS, Rank.QUEEN));
+        assertEquals(Suit.CLUBS, card.getSuit());
+        assertEquals(Rank.QUEEN, card.getRank());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,172 @@
+package ru.nsu.vyaznikova;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Scanner;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for the HandLog and HandReplay classes, ensuring their methods work as expected.
+ */
+public class HandLogTest {
+
+    @TempDir
+    Path dir;
+
+    private SimulationResult record(Path path, long rounds, long seed) throws IOException {
+        try (HandLog log = new HandLog(path)) {
+            return Simulator.simulate(new ThresholdStrategy(16), rounds,
+                    new Shoe(6, 0.75, new SplittableRandom(seed)), log);
+        }
+    }
+
+    /**
+     * Tests that a replay gives the recorded results.
+     *
+     * @throws IOException If the log cannot be written or read.
+     */
+    @Test
+    void testReplayMatchesRecording() throws IOException {
+        Path path = dir.resolve("hands.log");
+        SimulationResult recorded = record(path, 100_000, 1);
+        HandReplay replay = HandReplay.replay(path);
+        assertEquals(0, replay.getMismatches());
+        assertEquals(-1, replay.getFirstMismatch());
+        assertEquals(recorded.getWins(), replay.getResult().getWins());
+        assertEquals(recorded.getLosses(), replay.getResult().getLosses());
+        assertEquals(recorded.getPushes(), replay.getResult().getPushes());
+        // Four cards and an outcome at least, and rarely more than ten events per round.
+        long size = Files.size(path);
+        assertTrue(size > 5 * 100_000 && size < 10 * 100_000);
+    }
+
+    /**
+     * Tests that a second recording is appended to the same log.
+     *
+     * @throws IOException If the log cannot be written or read.
+     */
+    @Test
+    void testAppend() throws IOException {
+        Path path = dir.resolve("hands.log");
+        record(path, 1000, 2);
+        record(path, 500, 3);
+        HandReplay replay = HandReplay.replay(path);
+        assertEquals(1500, replay.getResult().getRounds());
+        assertEquals(0, replay.getMismatches());
+    }
+
+    /**
+     * Tests that a changed outcome is found.
+     *
+     * @throws IOException If the log cannot be written or read.
+     */
+    @Test
+    void testFindsMismatch() throws IOException {
+        Path path = dir.resolve("hands.log");
+        record(path, 100, 4);
+        byte[] bytes = Files.readAllBytes(path);
+        int round = 0;
+        for (int i = Integer.BYTES; i < bytes.length; i++) {
+            int event = bytes[i] & 0xff;
+            if (event >= HandLog.END && round++ == 10) {
+                bytes[i] = (byte) (HandLog.END + (event - HandLog.END + 1) % 3);
+                break;
+            }
+        }
+        Files.write(path, bytes);
+        HandReplay replay = HandReplay.replay(path);
+        assertEquals(1, replay.getMismatches());
+        assertEquals(10, replay.getFirstMismatch());
+    }
+
+    /**
+     * Tests that a logged console game is replayed with the recorded score.
+     *
+     * @throws IOException If the log cannot be written or read.
+     */
+    @Test
+    void testReplaysConsoleGame() throws IOException {
+        Path path = dir.resolve("console.log");
+        ByteArrayOutputStream game = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(game, true, StandardCharsets.UTF_8);
+        BotReader reader = new BotReader(new Scanner(""), out);
+        reader.enableBot(15, 200);
+        try (HandLog log = new HandLog(path)) {
+            Main.doAll(reader, out, log);
+        }
+        String text = game.toString(StandardCharsets.UTF_8);
+        String score = text.substring(text.lastIndexOf("Счет: ") + "Счет: ".length()).trim();
+
+        HandReplay replay = HandReplay.replay(path);
+        assertEquals(0, replay.getMismatches());
+        assertEquals(text.split("\nРаунд ").length - 1, replay.getResult().getRounds());
+        assertEquals(score, replay.getResult().getWins() + ":" + replay.getResult().getLosses());
+    }
+
+    /**
+     * Tests that the rounds of several players at a table are replayed.
+     *
+     * @throws IOException If the log cannot be written or read.
+     */
+    @Test
+    void testReplaysTable() throws IOException {
+        Path path = dir.resolve("table.log");
+        PrintStream out = new PrintStream(new ByteArrayOutputStream());
+        Table.Seat[] seats = new Table.Seat[3];
+        try (HandLog log = new HandLog(path)) {
+            Table table = new Table(3, log);
+            for (int i = 0; i < 3; i++) {
+                BotReader reader = new BotReader(new Scanner(""), out);
+                reader.enableBot(13 + 2 * i, 50 + 50 * i);
+                seats[i] = new Table.Seat(reader, out);
+                table.join(seats[i]);
+            }
+            table.play();
+        }
+        HandReplay replay = HandReplay.replay(path);
+        assertEquals(0, replay.getMismatches());
+        assertTrue(replay.getResult().getRounds() > 3 * 10);
+    }
+
+    /**
+     * Tests that the rounds played at the tables of a server are replayed.
+     *
+     * @throws IOException If the log cannot be written or read.
+     */
+    @Test
+    void testReplaysServerGame() throws IOException {
+        Path path = dir.resolve("server.log");
+        String host = InetAddress.getLoopbackAddress().getHostAddress();
+        try (HandLog log = new HandLog(path)) {
+            try (TableServer server = new TableServer(0, 3, log)) {
+                LoadGenerator.run(host, server.getPort(), 10, 10, 16);
+            }
+        }
+        HandReplay replay = HandReplay.replay(path);
+        assertEquals(0, replay.getMismatches());
+        assertTrue(replay.getResult().getRounds() >= 10 * 10);
+    }
+
+    /**
+     * Tests that a file that is not a log is rejected.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    @Test
+    void testRejectsOtherFiles() throws IOException {
+        Path path = dir.resolve("other.txt");
+        Files.writeString(path, "hello");
+        assertThrows(IOException.class, () -> HandReplay.replay(path));
+    }
+}
@@ -0,0 +1,94 @@
+package ru.nsu.vyaznikova;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the Hand class, ensuring its methods work as expected.
+ */
+public class HandTest {
+
+    /**
+     * Tests that the score of a hand with aces is counted like in Player.
+     */
+    @Test
+    void testScore() {
+        Hand hand = new Hand();
+        hand.add(Card.of(Suit.HEARTS, Rank.ACE));
+        hand.add(Card.of(Suit.CLUBS, Rank.SIX));
+        assertEquals(17, hand.score());
+        assertTrue(hand.isSoft());
+        hand.add(Card.of(Suit.SPADES, Rank.ACE));
+        assertEquals(18, hand.score());
+        hand.add(Card.of(Suit.SPADES, Rank.KING));
+        assertEquals(18, hand.score());
+        assertFalse(hand.isSoft());
+        assertEquals(18, hand.getHard());
+        assertEquals(2, hand.count(Rank.ACE));
+        assertEquals(0, hand.count(Rank.TWO));
+    }
+
+    /**
+     * Tests that the hand scores random hands the same way as a list of cards.
+     */
+    @Test
+    void testScoreMatchesList() {
+        SplittableRandom random = new SplittableRandom(1);
+        Player list = new Player(new Deck()) {};
+        Player fast = new Player(new Deck()) {};
+        for (int round = 0; round < 10_000; round++) {
+            Deck deck = new Deck();
+            deck.shuffle(random);
+            list.cards = new ArrayList<>();
+            fast.clearHand();
+            int count = 1 + random.nextInt(8);
+            for (int i = 0; i < count; i++) {
+                Card card = deck.takeCard();
+                list.cards.add(card);
+                fast.cards.add(card);
+                assertEquals(list.calculateScore(), fast.calculateScore());
+            }
+            assertEquals(list.cards, fast.getCards());
+        }
+    }
+
+    /**
+     * Tests that the hand works as a list of cards.
+     */
+    @Test
+    void testList() {
+        Hand hand = new Hand();
+        List<Card> cards = Arrays.asList(Card.of(Suit.HEARTS, Rank.TWO),
+                Card.of(Suit.CLUBS, Rank.QUEEN));
+        hand.addAll(cards);
+        assertEquals(cards, hand);
+        assertEquals(cards.toString(), hand.toString());
+        assertEquals(Card.of(Suit.CLUBS, Rank.QUEEN), hand.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> hand.get(2));
+        hand.clear();
+        assertTrue(hand.isEmpty());
+        assertEquals(0, hand.score());
+    }
+
+    /**
+     * Tests that a hand refuses more cards of a rank than it can count.
+     */
+    @Test
+    void testTooManyOfRank() {
+        Hand hand = new Hand();
+        for (int i = 0; i < Hand.MAX_RANK_COUNT; i++) {
+            hand.add(Card.of(Suit.HEARTS, Rank.TWO));
+        }
+        assertEquals(Hand.MAX_RANK_COUNT, hand.count(Rank.TWO));
+        assertThrows(IllegalStateException.class,
+                () -> hand.add(Card.of(Suit.HEARTS, Rank.TWO)));
+    }
+}
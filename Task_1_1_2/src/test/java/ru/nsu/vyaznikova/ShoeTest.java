@@ -0,0 +1,91 @@
+package ru.nsu.vyaznikova;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the Shoe class, ensuring its methods work as expected.
+ */
+public class ShoeTest {
+
+    /**
+     * Tests that a shoe holds every card once per deck.
+     */
+    @Test
+    void testComposition() {
+        Shoe shoe = new Shoe(6, 0.75, new SplittableRandom(1));
+        Map<Card, Integer> counts = new HashMap<>();
+        while (shoe.remaining() > 0) {
+            counts.merge(shoe.takeCard(), 1, Integer::sum);
+        }
+        assertEquals(52, counts.size());
+        for (int count : counts.values()) {
+            assertEquals(6, count);
+        }
+        assertThrows(IllegalStateException.class, shoe::takeCard);
+    }
+
+    /**
+     * Tests that dealt cards are the shared instances.
+     */
+    @Test
+    void testDealsSharedCards() {
+        Shoe shoe = new Shoe(1, 0.5, new SplittableRandom(2));
+        Card card = shoe.takeCard();
+        assertSame(Card.of(card.getSuit(), card.getRank()), card);
+    }
+
+    /**
+     * Tests that the shoe asks for shuffling after the cut card
+     * and that shuffling collects all cards.
+     */
+    @Test
+    void testCutCard() {
+        Shoe shoe = new Shoe(2, 0.5, new SplittableRandom(3));
+        for (int i = 0; i < 51; i++) {
+            shoe.takeCard();
+        }
+        assertFalse(shoe.needsShuffle());
+        shoe.takeCard();
+        assertTrue(shoe.needsShuffle());
+        shoe.shuffle();
+        assertEquals(104, shoe.remaining());
+        assertFalse(shoe.needsShuffle());
+    }
+
+    /**
+     * Tests that the cut card always leaves enough cards for a round.
+     */
+    @Test
+    void testReserve() {
+        Shoe shoe = new Shoe(1, 1.0, new SplittableRandom(4));
+        for (int i = 0; i < 52 - Shoe.RESERVE; i++) {
+            shoe.takeCard();
+        }
+        assertTrue(shoe.needsShuffle());
+        assertEquals(Shoe.RESERVE, shoe.remaining());
+    }
+
+    /**
+     * Tests that players can take cards from a shoe.
+     */
+    @Test
+    void testPlayerTakesFromShoe() {
+        Shoe shoe = new Shoe(1, 0, new SplittableRandom(5));
+        Player player = new HumanPlayer(shoe);
+        player.takeCard();
+        player.takeCard();
+        assertEquals(2, player.getCards().size());
+        assertEquals(50, shoe.remaining());
+        assertThrows(IllegalArgumentException.class, () -> new Shoe(0, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new Shoe(1, 1.5));
+    }
+}
@@ -0,0 +1,65 @@
+package ru.nsu.vyaznikova;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the Simulator class, ensuring its methods work as expected.
+ */
+public class SimulatorTest {
+
+    /**
+     * Tests that every simulated round is counted exactly once.
+     */
+    @Test
+    void testCountsEveryRound() {
+        SimulationResult result = Simulator.simulate(() -> new ThresholdStrategy(16), 100_000, 7);
+        assertEquals(100_000, result.getRounds());
+        assertEquals(1.0, result.getWinRate() + result.getLossRate() + result.getPushRate(), 1e-9);
+    }
+
+    /**
+     * Tests that the same seed gives the same result.
+     */
+    @Test
+    void testIsReproducible() {
+        SimulationResult first = Simulator.simulate(() -> new ThresholdStrategy(15), 20_000, 42);
+        SimulationResult second = Simulator.simulate(() -> new ThresholdStrategy(15), 20_000, 42);
+        assertEquals(first.getWins(), second.getWins());
+        assertEquals(first.getLosses(), second.getLosses());
+        assertEquals(first.getPushes(), second.getPushes());
+    }
+
+    /**
+     * Tests that taking a card on 20 is clearly worse than stopping at 17.
+     */
+    @Test
+    void testRecklessStrategyLosesMore() {
+        SimulationResult careful = Simulator.simulate(() -> new ThresholdStrategy(16), 200_000, 1);
+        SimulationResult reckless = Simulator.simulate(() -> new ThresholdStrategy(20), 200_000, 1);
+        assertTrue(reckless.getLossRate() > careful.getLossRate() + 0.1);
+    }
+
+    /**
+     * Tests a round with a known deck, where the dealer busts.
+     */
+    @Test
+    void testPlayWithKnownDeck() {
+        List<Card> cards = new ArrayList<>(Arrays.asList(
+                new Card(Suit.HEARTS, Rank.TEN),
+                new Card(Suit.HEARTS, Rank.SEVEN),
+                new Card(Suit.CLUBS, Rank.TEN),
+                new Card(Suit.CLUBS, Rank.SIX),
+                new Card(Suit.SPADES, Rank.KING)
+        ));
+        Deck deck = new Deck(cards);
+        Outcome outcome = Simulator.play(new HumanPlayer(deck), new Dealer(deck),
+                new ThresholdStrategy(16));
+        assertEquals(Outcome.WIN, outcome);
+    }
+}
@@ -0,0 +1,126 @@
+package ru.nsu.vyaznikova;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the Solver class, ensuring its methods work as expected.
+ */
+public class SolverTest {
+
+    /**
+     * Builds the counts of a shoe from pairs of a rank and a count.
+     */
+    private static int[] shoe(Object... pairs) {
+        int[] counts = new int[Solver.VALUES];
+        for (int i = 0; i < pairs.length; i += 2) {
+            counts[Solver.index((Rank) pairs[i])] += (Integer) pairs[i + 1];
+        }
+        return counts;
+    }
+
+    private static List<Card> hand(Rank... ranks) {
+        Card[] cards = new Card[ranks.length];
+        for (int i = 0; i < ranks.length; i++) {
+            cards[i] = Card.of(Suit.HEARTS, ranks[i]);
+        }
+        return Arrays.asList(cards);
+    }
+
+    /**
+     * Tests a shoe of two cards, where every line of play can be counted by hand.
+     */
+    @Test
+    void testSmallShoe() {
+        Solver solver = new Solver();
+        List<Card> hand = hand(Rank.TEN, Rank.SIX);
+        Card upcard = Card.of(Suit.CLUBS, Rank.KING);
+        int[] shoe = shoe(Rank.TEN, 1, Rank.FIVE, 1);
+        // The dealer gets 20, or 15 and then busts.
+        assertEquals(0.0, solver.stand(hand, upcard, shoe), 1e-12);
+        // The player busts, or gets 21 while the dealer has 20.
+        assertEquals(0.0, solver.hit(hand, upcard, shoe), 1e-12);
+    }
+
+    /**
+     * Tests that the closed card is known not to make a Blackjack.
+     */
+    @Test
+    void testClosedCardIsNotBlackjack() {
+        Solver solver = new Solver();
+        List<Card> hand = hand(Rank.TEN, Rank.EIGHT);
+        Card upcard = Card.of(Suit.CLUBS, Rank.ACE);
+        int[] shoe = shoe(Rank.TEN, 1, Rank.TWO, 1);
+        // The closed card is the two, the dealer draws the ten and stays at 13.
+        assertEquals(1.0, solver.stand(hand, upcard, shoe), 1e-12);
+        // The player can only draw the ten, since the two is the closed card.
+        assertEquals(-1.0, solver.hit(hand, upcard, shoe), 1e-12);
+    }
+
+    /**
+     * Tests well-known decisions for a single deck.
+     */
+    @Test
+    void testSingleDeckDecisions() {
+        Solver solver = new Solver();
+        assertTrue(shouldHit(solver, Rank.SIX, Rank.FIVE, Rank.SIX));
+        assertTrue(shouldHit(solver, Rank.ACE, Rank.TEN, Rank.TWO));
+        assertTrue(shouldHit(solver, Rank.ACE, Rank.ACE, Rank.TWO));
+        assertFalse(shouldHit(solver, Rank.ACE, Rank.TEN, Rank.EIGHT));
+        assertFalse(shouldHit(solver, Rank.SIX, Rank.TEN, Rank.SIX));
+        assertTrue(solver.cached() > 0);
+    }
+
+    private static boolean shouldHit(Solver solver, Rank up, Rank first, Rank second) {
+        List<Card> hand = hand(first, second);
+        Card upcard = Card.of(Suit.CLUBS, up);
+        int[] shoe = Solver.shoe(1, Arrays.asList(hand.get(0), hand.get(1), upcard));
+        return solver.shouldHit(hand, upcard, shoe);
+    }
+
+    /**
+     * Tests that asking again gives the same value from the cache.
+     */
+    @Test
+    void testCachedValueIsSame() {
+        Solver solver = new Solver();
+        List<Card> hand = hand(Rank.TEN, Rank.SIX);
+        Card upcard = Card.of(Suit.CLUBS, Rank.TEN);
+        int[] shoe = Solver.shoe(1, Arrays.asList(hand.get(0), hand.get(1), upcard));
+        double first = solver.hit(hand, upcard, shoe);
+        int cached = solver.cached();
+        assertEquals(first, solver.hit(hand, upcard, shoe), 0.0);
+        assertEquals(cached, solver.cached());
+    }
+
+    /**
+     * Tests that the counts of a full shoe are checked.
+     */
+    @Test
+    void testShoe() {
+        int[] shoe = Solver.shoe(2);
+        assertEquals(32, shoe[Solver.index(Rank.KING)]);
+        assertEquals(8, shoe[Solver.index(Rank.ACE)]);
+        assertThrows(IllegalArgumentException.class, () -> Solver.shoe(Solver.MAX_DECKS + 1));
+    }
+
+    /**
+     * Tests that the optimal strategy does better than the best threshold.
+     */
+    @Test
+    void testOptimalStrategyBeatsThreshold() {
+        SimulationResult optimal = Simulator.simulate(new OptimalStrategy(), 100_000,
+                new Shoe(1, 0, new SplittableRandom(3)));
+        SimulationResult threshold = Simulator.simulate(new ThresholdStrategy(15), 100_000,
+                new Shoe(1, 0, new SplittableRandom(3)));
+        assertTrue(optimal.getWins() - optimal.getLosses()
+                > threshold.getWins() - threshold.getLosses());
+    }
+}
@@ -0,0 +1,96 @@
+package ru.nsu.vyaznikova;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the TableServer and LoadGenerator classes,
+ * ensuring their methods work as expected.
+ */
+public class TableServerTest {
+
+    private static final String HOST = InetAddress.getLoopbackAddress().getHostAddress();
+
+    /**
+     * Tests that many bots play their rounds at the same time.
+     *
+     * @throws IOException If a client fails to talk to the server.
+     */
+    @Test
+    void testManyTables() throws IOException {
+        try (TableServer server = new TableServer(0)) {
+            LoadGenerator.Report report = LoadGenerator.run(HOST, server.getPort(), 50, 20, 16);
+            assertTrue(report.getHands() >= 50 * 20);
+            assertTrue(report.getDecisions() > 0);
+            assertTrue(report.getP99Latency() > 0);
+            long tables = server.getOpenedTables();
+            assertTrue(tables >= (50 + Table.MAX_SEATS - 1) / Table.MAX_SEATS && tables <= 50);
+        }
+    }
+
+    /**
+     * Tests that players are seated at a table with free seats,
+     * and that lost connections leave their tables.
+     *
+     * @throws Exception If a client fails to talk to the server.
+     */
+    @Test
+    void testSharedTables() throws Exception {
+        try (TableServer server = new TableServer(0, 3)) {
+            Socket[] sockets = new Socket[4];
+            for (int i = 0; i < sockets.length; i++) {
+                sockets[i] = new Socket(HOST, server.getPort());
+            }
+            // Nobody answers, so the first table keeps its players.
+            await(() -> server.getPlayers() == 4 && server.getOpenedTables() >= 2);
+            assertEquals(2, server.getOpenedTables());
+            assertEquals(2, server.getActiveTables());
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+            await(() -> server.getPlayers() == 0 && server.getActiveTables() == 0);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Tests that a player can leave the table and gets the final result.
+     *
+     * @throws IOException If the client fails to talk to the server.
+     */
+    @Test
+    void testLeaveTable() throws IOException {
+        try (TableServer server = new TableServer(0);
+             Socket socket = new Socket(HOST, server.getPort())) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(
+                    socket.getInputStream(), StandardCharsets.UTF_8));
+            PrintStream out = new PrintStream(socket.getOutputStream(), true,
+                    StandardCharsets.UTF_8);
+            out.println(2);
+            String last = null;
+            String line;
+            while ((line = in.readLine()) != null) {
+                last = line;
+            }
+            assertTrue(Arrays.asList("Вы победили!", "Дилер победил!", "Ничья!").contains(last));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ru.nsu.vyaznikova;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the Table class, ensuring its methods work as expected.
+ */
+public class TableTest {
+
+    /**
+     * Tests that several bots play at one table until all of them have left.
+     */
+    @Test
+    void testSeveralPlayers() {
+        Table table = new Table(3);
+        ByteArrayOutputStream[] streams = new ByteArrayOutputStream[3];
+        Table.Seat[] seats = new Table.Seat[3];
+        int[] left = new int[1];
+        for (int i = 0; i < 3; i++) {
+            streams[i] = new ByteArrayOutputStream();
+            PrintStream out = new PrintStream(streams[i], true, StandardCharsets.UTF_8);
+            BotReader reader = new BotReader(new Scanner(""), out);
+            reader.enableBot(14 + i, 30);
+            seats[i] = new Table.Seat(reader, out) {
+                @Override
+                protected void leave() {
+                    left[0]++;
+                }
+            };
+            assertTrue(table.join(seats[i]));
+        }
+        assertFalse(table.join(new Table.Seat(null, null)));
+        table.play();
+        assertEquals(3, left[0]);
+        assertFalse(table.join(new Table.Seat(null, null)));
+
+        for (int i = 0; i < 3; i++) {
+            String game = streams[i].toString(StandardCharsets.UTF_8);
+            assertTrue(game.startsWith("Добро пожаловать в Блэкджек!"));
+            assertTrue(game.contains("Ваше место за столом: " + (i + 1)));
+            assertTrue(game.contains("Игра окончена!"));
+            for (int other = 0; other < 3; other++) {
+                assertEquals(other != i, game.contains("Игрок " + (other + 1) + ": "));
+            }
+            assertTrue(Arrays.asList("Вы победили!", "Дилер победил!", "Ничья!")
+                    .contains(seats[i].getResult()));
+        }
+    }
+
+    /**
+     * Tests that a player whose choice cannot be read leaves the table,
+     * and that by default the game ends with the exception.
+     */
+    @Test
+    void testLostPlayer() {
+        PrintStream out = new PrintStream(new ByteArrayOutputStream());
+        Table table = new Table(2);
+        boolean[] failed = new boolean[1];
+        table.join(new Table.Seat(new BotReader(new Scanner(""), out), out) {
+            @Override
+            protected void fail(RuntimeException e) {
+                failed[0] = true;
+            }
+        });
+        table.play();
+        assertTrue(failed[0]);
+        assertFalse(table.join(new Table.Seat(null, null)));
+
+        assertThrows(NoSuchElementException.class,
+                () -> Main.doAll(new BotReader(new Scanner("1\n1\n1\n0\n"), out), out));
+        assertThrows(IllegalArgumentException.class, () -> new Table(Table.MAX_SEATS + 1));
+    }
+}
@@ -0,0 +1,81 @@
+package ru.nsu.vyaznikova;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares evaluating a random tree by the interpreter and by the class
+ * generated by {@link ExpressionCompiler}. Run with {@code ./gradlew jmh}.
+ *
+ * <p>Every call evaluates the tree once with new values of the variables.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CompilerBenchmark {
+    private static final String[] VARIABLES = {"x", "y", "z", "alpha", "beta"};
+    private static final char[] OPERATORS = {'+', '-', '*'};
+
+    @Param({"3", "6", "9"})
+    private int depth;
+
+    private Expression bound;
+    private CompiledExpression compiled;
+    private double[] values;
+
+    @Setup
+    public void compile() {
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder();
+        append(text, random, depth);
+        Bindings bindings = new Bindings();
+        for (String name : VARIABLES) {
+            bindings.set(name, random.nextDouble());
+        }
+        bound = Expression.parse(text.toString()).bind(bindings);
+        compiled = ExpressionCompiler.compile(bound);
+        values = bindings.values();
+    }
+
+    private static void append(StringBuilder text, Random random, int depth) {
+        if (depth == 0) {
+            if (random.nextBoolean()) {
+                text.append(VARIABLES[random.nextInt(VARIABLES.length)]);
+            } else {
+                text.append(random.nextInt(1000)).append('.').append(random.nextInt(100));
+            }
+            return;
+        }
+        text.append('(');
+        append(text, random, depth - 1);
+        text.append(' ').append(OPERATORS[random.nextInt(OPERATORS.length)]).append(' ');
+        append(text, random, depth - 1);
+        text.append(')');
+    }
+
+    @Benchmark
+    public double interpreter() {
+        values[0] += 1e-9;
+        return bound.eval(values);
+    }
+
+    @Benchmark
+    public double compiled() {
+        values[0] += 1e-9;
+        return compiled.eval(values);
+    }
+}
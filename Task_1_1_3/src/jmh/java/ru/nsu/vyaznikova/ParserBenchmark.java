@@ -0,0 +1,89 @@
+package ru.nsu.vyaznikova;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link ExpressionParser} on one million random expressions
+ * per run. Run with {@code ./gradlew jmh}.
+ *
+ * <p>{@code stream} reads all of them line by line from an input stream,
+ * {@code strings} parses them one string at a time.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParserBenchmark {
+    private static final int EXPRESSIONS = 1_000_000;
+    private static final String[] VARIABLES = {"x", "y", "z", "alpha", "beta"};
+    private static final char[] OPERATORS = {'+', '-', '*', '/'};
+
+    private String[] lines;
+    private byte[] text;
+
+    @Setup
+    public void generate() {
+        Random random = new Random(42);
+        lines = new String[EXPRESSIONS];
+        StringBuilder all = new StringBuilder();
+        for (int i = 0; i < EXPRESSIONS; i++) {
+            StringBuilder line = new StringBuilder();
+            append(line, random, 3);
+            lines[i] = line.toString();
+            all.append(line).append('\n');
+        }
+        text = all.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static void append(StringBuilder line, Random random, int depth) {
+        if (depth == 0 || random.nextInt(4) == 0) {
+            if (random.nextBoolean()) {
+                line.append(VARIABLES[random.nextInt(VARIABLES.length)]);
+            } else {
+                line.append(random.nextInt(1000)).append('.').append(random.nextInt(100));
+            }
+            return;
+        }
+        line.append('(');
+        append(line, random, depth - 1);
+        line.append(' ').append(OPERATORS[random.nextInt(4)]).append(' ');
+        append(line, random, depth - 1);
+        line.append(')');
+    }
+
+    @Benchmark
+    public int stream() throws IOException {
+        ExpressionParser parser = new ExpressionParser(new ByteArrayInputStream(text));
+        int count = 0;
+        while (parser.next() != null) {
+            count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int strings() {
+        ExpressionParser parser = new ExpressionParser();
+        int hash = 0;
+        for (String line : lines) {
+            hash += System.identityHashCode(parser.parse(line));
+        }
+        return hash;
+    }
+}
@@ -1,5 +1,7 @@
 package ru.nsu.vyaznikova;
 
+import java.util.Map;
+
 /**
  * Represents addition of two expressions.
  */
@@ -14,6 +16,7 @@ public class Add extends Expression {
      * @param right The right expression.
      */
     Add(Expression left, Expression right) {
+        super(hash(1, left, right));
         this.left = left;
         this.right = right;
     }
@@ -32,14 +35,136 @@ public class Add extends Expression {
     }
 
     /**
-     * Evaluates the sum of the left and right expressions.
+     * Returns the derivative of the sum built in a factory.
      *
-     * @param expression The string with assigned values for variables.
+     * @param factory The factory that made the expression.
+     * @param difVar  The variable to differentiate with respect to.
+     * @return The derivative made of shared nodes.
+     */
+    @Override
+    Expression derivative(ExpressionFactory factory, String difVar) {
+        return factory.sum(factory.derivative(left, difVar), factory.derivative(right, difVar));
+    }
+
+    /**
+     * Returns the sum of the simplified operands.
+     *
+     * @param factory The factory that made the expression.
+     * @return The simplified expression made of shared nodes.
+     */
+    @Override
+    Expression simplify(ExpressionFactory factory) {
+        return factory.sum(factory.simplify(left), factory.simplify(right));
+    }
+
+    /**
+     * Binds both operands, each once however many operations share it.
+     *
+     * @param bindings The bindings to take the slots from.
+     * @param bound    The bound copies of the nodes bound so far.
+     * @return An Add expression of the bound operands, or this one
+     *     if they are bound already.
+     */
+    @Override
+    Expression bind(Bindings bindings, Map<Expression, Expression> bound) {
+        Expression boundLeft = bind(left, bindings, bound);
+        Expression boundRight = bind(right, bindings, bound);
+        return boundLeft == left && boundRight == right ? this : new Add(boundLeft, boundRight);
+    }
+
+    /**
+     * Writes the operands and the sum to a postfix program.
+     *
+     * @param compiler The compiler.
+     */
+    @Override
+    void postfix(PostfixProgram.Compiler compiler) {
+        compiler.operation(PostfixProgram.ADD, left, right);
+    }
+
+    /**
+     * Evaluates the sum of the bound left and right expressions.
+     *
+     * @param values The values of the variables by slot.
      * @return The sum of the evaluated left and right expressions.
      */
     @Override
-    public double eval(String expression) {
-        return left.eval(expression) + right.eval(expression);
+    public double eval(double[] values) {
+        return left.eval(values) + right.eval(values);
+    }
+
+    /**
+     * Writes the bytecode that computes the sum of the operands.
+     *
+     * @param code The method being generated.
+     */
+    @Override
+    void emit(ExpressionCompiler.Code code) {
+        code.emit(left);
+        code.emit(right);
+        code.operation(ExpressionCompiler.Code.DADD);
+    }
+
+    /**
+     * Evaluates the sums of the operands for the rows of a block.
+     *
+     * @param block The rows and the temporary arrays.
+     * @param depth The depth of the expression in the tree.
+     * @param out   The array for the values of the expression.
+     */
+    @Override
+    void evalBatch(BatchEvaluator.Block block, int depth, double[] out) {
+        block.eval(left, depth, out);
+        double[] rightValues = block.buffer(depth);
+        block.eval(right, depth + 1, rightValues);
+        for (int i = 0, length = block.length(); i < length; i++) {
+            out[i] += rightValues[i];
+        }
+    }
+
+    /**
+     * Evaluates the sum of the operands on dual numbers.
+     *
+     * @param pass The evaluation.
+     * @return The value and the derivative of the sum.
+     */
+    @Override
+    Dual evalDual(Dual.Pass pass) {
+        return pass.eval(left).add(pass.eval(right));
+    }
+
+    /**
+     * Writes the operands and the sum to a tape.
+     *
+     * @param tape The tape.
+     * @return The position of the sum on the tape.
+     */
+    @Override
+    int record(Tape tape) {
+        return tape.add(tape.record(left), tape.record(right));
+    }
+
+    /**
+     * Makes the shared copy of the sum in a factory.
+     *
+     * @param factory The factory.
+     * @return The shared node.
+     */
+    @Override
+    Expression copy(ExpressionFactory factory) {
+        return factory.add(factory.copy(left), factory.copy(right));
+    }
+
+    /**
+     * Evaluates the sum of the operands, each computed once per call.
+     *
+     * @param factory The factory that made the expression.
+     * @param values  The values of the variables by slot.
+     * @return The sum.
+     */
+    @Override
+    double evalShared(ExpressionFactory factory, double[] values) {
+        return factory.value(left, values) + factory.value(right, values);
     }
 
     /**
@@ -59,10 +184,48 @@ public class Add extends Expression {
 
         if (leftSimplified instanceof Number
                 && rightSimplified instanceof Number) {
-            return new Number((int) ((Number) leftSimplified).number
-                    + (int) ((Number) rightSimplified).number);
+            return new Number(((Number) leftSimplified).number
+                    + ((Number) rightSimplified).number);
         }
 
         return new Add(leftSimplified, rightSimplified);
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the polynomial of the sum of the operands.
+     *
+     * @param simplifier The simplifier.
+     * @return The polynomial.
+     */
+    @Override
+    Simplifier.Polynomial toPolynomial(Simplifier simplifier) {
+        return simplifier.polynomial(left).plus(simplifier.polynomial(right));
+    }
+
+    /**
+     * Compares the operands of two Add expressions.
+     *
+     * @param other The object to compare with.
+     * @return true if the other object is an Add of equal operands.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Add) || hashCode() != other.hashCode()) {
+            return false;
+        }
+        return equalTrees(this, (Expression) other);
+    }
+
+    @Override
+    Expression left() {
+        return left;
+    }
+
+    @Override
+    Expression right() {
+        return right;
+    }
+}
@@ -0,0 +1,194 @@
+package ru.nsu.vyaznikova;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates a bound expression for many rows of values at once.
+ *
+ * <p>The values are given by column: {@code columns[slot][row]} is the value
+ * of the variable in the slot for the row. The rows are taken in blocks of
+ * {@value #BLOCK} and every node of the tree is visited once per block; it
+ * computes all the rows of the block in one simple loop over arrays, which
+ * the JIT can unroll and vectorize. The temporary arrays are kept by the
+ * depth in the tree and reused for every block. A node shared by several
+ * operations, as in an {@link ExpressionFactory}, is computed once per block
+ * and its values are kept in an array of its own.
+ *
+ * <p>Inputs with more than {@value #PARALLEL_ROWS} rows are split between
+ * the threads of the common {@link ForkJoinPool}.
+ *
+ * <p>Division by zero gives NaN as in {@link Div#eval(double[])}, but the
+ * message is printed once per block in which it happens.
+ */
+public final class BatchEvaluator {
+
+    /**
+     * The number of rows computed by one pass over the tree.
+     */
+    static final int BLOCK = 1024;
+
+    /**
+     * The largest number of rows computed by one thread.
+     */
+    static final int PARALLEL_ROWS = 16 * BLOCK;
+
+    private BatchEvaluator() {
+    }
+
+    /**
+     * Evaluates a bound expression for every row.
+     *
+     * @param expression The bound expression.
+     * @param columns    The values of the variables by slot and by row.
+     * @param out        The array for the values of the expression by row;
+     *                   its length is the number of rows.
+     * @throws IllegalArgumentException If a column is shorter than {@code out}.
+     * @throws IllegalStateException If a variable is not bound.
+     */
+    public static void evaluate(Expression expression, double[][] columns, double[] out) {
+        for (int slot = 0; slot < columns.length; slot++) {
+            if (columns[slot] != null && columns[slot].length < out.length) {
+                throw new IllegalArgumentException("Column " + slot + " has "
+                        + columns[slot].length + " rows instead of " + out.length);
+            }
+        }
+        Rows rows = new Rows(expression, Expression.sharedNodes(expression),
+                columns, out, 0, out.length);
+        if (out.length > PARALLEL_ROWS) {
+            ForkJoinPool.commonPool().invoke(rows);
+        } else {
+            rows.compute();
+        }
+    }
+
+    /**
+     * A range of rows, split in halves until it is small enough for one thread.
+     */
+    private static final class Rows extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Expression expression;
+        private final Set<Expression> shared;
+        private final double[][] columns;
+        private final double[] out;
+        private final int from;
+        private final int to;
+
+        Rows(Expression expression, Set<Expression> shared, double[][] columns, double[] out,
+             int from, int to) {
+            this.expression = expression;
+            this.shared = shared;
+            this.columns = columns;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > PARALLEL_ROWS) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Rows(expression, shared, columns, out, from, middle),
+                        new Rows(expression, shared, columns, out, middle, to));
+                return;
+            }
+            Block block = new Block(columns, shared);
+            double[] values = new double[BLOCK];
+            for (int start = from; start < to; start += BLOCK) {
+                block.from = start;
+                block.length = Math.min(BLOCK, to - start);
+                block.computed.clear();
+                block.eval(expression, 0, values);
+                System.arraycopy(values, 0, out, start, block.length);
+            }
+        }
+    }
+
+    /**
+     * The rows being computed and the temporary arrays for them.
+     *
+     * <p>A node at some depth writes its values to the array it is given and
+     * may use the temporary arrays from its own depth on, but no others.
+     * The values of the shared nodes are kept until the next block.
+     */
+    static final class Block {
+        private final double[][] columns;
+        private final List<double[]> buffers = new ArrayList<>();
+        private final Set<Expression> shared;
+        private final Map<Expression, double[]> saved = new IdentityHashMap<>();
+        private final Set<Expression> computed =
+                Collections.newSetFromMap(new IdentityHashMap<>());
+        private int from;
+        private int length;
+
+        Block(double[][] columns, Set<Expression> shared) {
+            this.columns = columns;
+            this.shared = shared;
+        }
+
+        /**
+         * Evaluates a node for the rows of the block, or copies its values
+         * if it is shared and computed already.
+         *
+         * @param node  The node.
+         * @param depth The depth of the node in the tree.
+         * @param out   The array for the values of the node.
+         */
+        void eval(Expression node, int depth, double[] out) {
+            if (shared.isEmpty() || !shared.contains(node)) {
+                node.evalBatch(this, depth, out);
+                return;
+            }
+            double[] values = saved.get(node);
+            if (values == null) {
+                values = new double[BLOCK];
+                saved.put(node, values);
+            }
+            if (computed.add(node)) {
+                node.evalBatch(this, depth, out);
+                System.arraycopy(out, 0, values, 0, length);
+            } else {
+                System.arraycopy(values, 0, out, 0, length);
+            }
+        }
+
+        /**
+         * Returns the number of rows in the block.
+         *
+         * @return The number of rows.
+         */
+        int length() {
+            return length;
+        }
+
+        /**
+         * Copies the values of a variable for the rows of the block.
+         *
+         * @param slot The slot of the variable.
+         * @param out  The array to copy to.
+         */
+        void load(int slot, double[] out) {
+            System.arraycopy(columns[slot], from, out, 0, length);
+        }
+
+        /**
+         * Returns the temporary array of a depth.
+         *
+         * @param depth The depth in the tree.
+         * @return An array of {@value BatchEvaluator#BLOCK} values.
+         */
+        double[] buffer(int depth) {
+            while (buffers.size() <= depth) {
+                buffers.add(new double[BLOCK]);
+            }
+            return buffers.get(depth);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package ru.nsu.vyaznikova;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Values of variables, each kept in a numbered slot.
+ *
+ * <p>An expression is bound to the bindings once with
+ * {@link Expression#bind(Bindings)}; every variable of the bound expression
+ * knows its slot, and {@link Expression#eval(double[])} reads the values
+ * straight from {@link #values()}. The values may be changed between
+ * evaluations without binding again.
+ */
+public class Bindings {
+
+    /**
+     * The slots by variable name.
+     */
+    private final Map<String, Integer> slots = new HashMap<>();
+
+    /**
+     * The names of the variables by slot.
+     */
+    private String[] names = new String[8];
+
+    /**
+     * The values of the variables by slot.
+     */
+    private double[] values = new double[8];
+
+    /**
+     * The invalid values by variable name, kept by a lenient parse.
+     */
+    private final Map<String, String> invalid = new HashMap<>();
+
+    /**
+     * Parses a string with assignments such as {@code "x = 1; y = 2"}.
+     * If a variable is assigned twice, the first value is used.
+     *
+     * @param assignments The assignments separated by semicolons.
+     * @return The bindings with the assigned values.
+     * @throws IllegalArgumentException If an assignment or a value is invalid.
+     */
+    public static Bindings parse(String assignments) {
+        return parse(assignments, true);
+    }
+
+    /**
+     * Parses a string with assignments as {@link Expression#eval(String)} does:
+     * an assignment without "=" is skipped, and an invalid value is an error
+     * only for a variable of the expression, when the variable is bound.
+     *
+     * @param assignments The assignments separated by semicolons.
+     * @return The bindings with the valid assigned values.
+     */
+    static Bindings parseLenient(String assignments) {
+        return parse(assignments, false);
+    }
+
+    private static Bindings parse(String assignments, boolean strict) {
+        Bindings bindings = new Bindings();
+        for (String assignment : assignments.split(";")) {
+            if (assignment.isBlank()) {
+                continue;
+            }
+            int equals = assignment.indexOf('=');
+            if (equals < 0) {
+                if (strict) {
+                    throw new IllegalArgumentException("Invalid assignment: " + assignment.trim());
+                }
+                continue;
+            }
+            String name = assignment.substring(0, equals).trim();
+            String value = assignment.substring(equals + 1).trim();
+            if (bindings.indexOf(name) >= 0 || bindings.invalid.containsKey(name)) {
+                continue;
+            }
+            try {
+                bindings.set(name, Double.parseDouble(value));
+            } catch (NumberFormatException e) {
+                if (strict) {
+                    throw new IllegalArgumentException("Invalid variable value: " + value);
+                }
+                bindings.invalid.put(name, value);
+            }
+        }
+        return bindings;
+    }
+
+    /**
+     * Returns the slot of a variable, adding the variable with the value 0
+     * if it has none yet.
+     *
+     * @param name The name of the variable.
+     * @return The slot of the variable.
+     */
+    public int slot(String name) {
+        Integer slot = slots.get(name);
+        if (slot != null) {
+            return slot;
+        }
+        int size = slots.size();
+        if (size == names.length) {
+            names = Arrays.copyOf(names, 2 * size);
+            values = Arrays.copyOf(values, 2 * size);
+        }
+        names[size] = name;
+        slots.put(name, size);
+        return size;
+    }
+
+    /**
+     * Returns the slot of a variable.
+     *
+     * @param name The name of the variable.
+     * @return The slot of the variable, or -1 if it has none.
+     */
+    public int indexOf(String name) {
+        Integer slot = slots.get(name);
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * Sets the value of a variable, adding the variable if needed.
+     *
+     * @param name  The name of the variable.
+     * @param value The value of the variable.
+     */
+    public void set(String name, double value) {
+        int slot = slot(name);
+        values[slot] = value;
+    }
+
+    /**
+     * Returns the value of a variable.
+     *
+     * @param name The name of the variable.
+     * @return The value of the variable.
+     * @throws IllegalArgumentException If the variable has no slot.
+     */
+    public double get(String name) {
+        int slot = indexOf(name);
+        if (slot < 0) {
+            throw missing(name);
+        }
+        return values[slot];
+    }
+
+    /**
+     * Returns the exception for a variable that has no slot: its value was
+     * invalid, or it was not assigned at all.
+     *
+     * @param name The name of the variable.
+     * @return The exception to throw.
+     */
+    IllegalArgumentException missing(String name) {
+        String value = invalid.get(name);
+        if (value != null) {
+            return new IllegalArgumentException("Invalid variable value: " + value);
+        }
+        return new IllegalArgumentException("Variable not found in the expression: " + name);
+    }
+
+    /**
+     * Returns the name of the variable in a slot.
+     *
+     * @param slot The slot.
+     * @return The name of the variable.
+     */
+    public String name(int slot) {
+        return names[slot];
+    }
+
+    /**
+     * Returns the number of variables.
+     *
+     * @return The number of slots in use.
+     */
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * Returns the array of values by slot. The array is shared with the
+     * bindings, so writing to it changes the values; it may be longer than
+     * the number of variables and is replaced when a variable is added.
+     *
+     * @return The values by slot.
+     */
+    public double[] values() {
+        return values;
+    }
+}
@@ -0,0 +1,16 @@
+package ru.nsu.vyaznikova;
+
+/**
+ * An expression compiled by {@link ExpressionCompiler}.
+ */
+@FunctionalInterface
+public interface CompiledExpression {
+
+    /**
+     * Evaluates the expression.
+     *
+     * @param values The values of the variables by slot.
+     * @return The value of the expression.
+     */
+    double eval(double[] values);
+}
@@ -1,5 +1,7 @@
 package ru.nsu.vyaznikova;
 
+import java.util.Map;
+
 /**
  * Represents division of two expressions.
  */
@@ -14,6 +16,7 @@ class Div extends Expression {
      * @param right The right expression.
      */
     public Div(Expression left, Expression right) {
+        super(hash(4, left, right));
         this.left = left;
         this.right = right;
     }
@@ -33,25 +36,171 @@ class Div extends Expression {
     }
 
     /**
-     * Evaluates the quotient of the left and right expressions.
+     * Returns the derivative of the quotient built in a factory.
+     *
+     * @param factory The factory that made the expression.
+     * @param difVar  The variable to differentiate with respect to.
+     * @return The derivative made of shared nodes.
+     */
+    @Override
+    Expression derivative(ExpressionFactory factory, String difVar) {
+        Expression derLeft = factory.product(factory.derivative(left, difVar), right);
+        Expression derRight = factory.product(left, factory.derivative(right, difVar));
+        return factory.quotient(factory.difference(derLeft, derRight),
+                factory.product(right, right));
+    }
+
+    /**
+     * Returns the quotient of the simplified operands.
+     *
+     * @param factory The factory that made the expression.
+     * @return The simplified expression made of shared nodes.
+     */
+    @Override
+    Expression simplify(ExpressionFactory factory) {
+        return factory.quotient(factory.simplify(left), factory.simplify(right));
+    }
+
+    /**
+     * Binds both operands, each once however many operations share it.
+     *
+     * @param bindings The bindings to take the slots from.
+     * @param bound    The bound copies of the nodes bound so far.
+     * @return A Div expression of the bound operands, or this one
+     *     if they are bound already.
+     */
+    @Override
+    Expression bind(Bindings bindings, Map<Expression, Expression> bound) {
+        Expression boundLeft = bind(left, bindings, bound);
+        Expression boundRight = bind(right, bindings, bound);
+        return boundLeft == left && boundRight == right ? this : new Div(boundLeft, boundRight);
+    }
+
+    /**
+     * Writes the operands and the quotient to a postfix program.
+     *
+     * @param compiler The compiler.
+     */
+    @Override
+    void postfix(PostfixProgram.Compiler compiler) {
+        compiler.operation(PostfixProgram.DIV, left, right);
+    }
+
+    /**
+     * Evaluates the quotient of the bound left and right expressions.
      *
-     * @param expression The string with assigned values for variables.
-     * @return The quotient of the evaluated left and right expressions.
+     * @param values The values of the variables by slot.
+     * @return The quotient of the evaluated left and right expressions,
+     *     or NaN if the right one is zero.
      */
     @Override
-    public double eval(String expression) {
+    public double eval(double[] values) {
         try {
-            double rightValue = right.eval(expression);
+            double rightValue = right.eval(values);
             if (rightValue == 0) {
                 throw new ArithmeticException("Division by zero");
             }
-            return left.eval(expression) / rightValue;
+            return left.eval(values) / rightValue;
         } catch (ArithmeticException e) {
             System.err.println("Error: " + e.getMessage());
             return Double.NaN;
         }
     }
 
+    /**
+     * Writes the bytecode that computes the quotient of the operands.
+     *
+     * @param code The method being generated.
+     */
+    @Override
+    void emit(ExpressionCompiler.Code code) {
+        code.emit(left);
+        code.emit(right);
+        code.divide();
+    }
+
+    /**
+     * Evaluates the quotients of the operands for the rows of a block.
+     *
+     * @param block The rows and the temporary arrays.
+     * @param depth The depth of the expression in the tree.
+     * @param out   The array for the values of the expression,
+     *              NaN where the right one is zero.
+     */
+    @Override
+    void evalBatch(BatchEvaluator.Block block, int depth, double[] out) {
+        block.eval(left, depth, out);
+        double[] rightValues = block.buffer(depth);
+        block.eval(right, depth + 1, rightValues);
+        boolean divisionByZero = false;
+        for (int i = 0, length = block.length(); i < length; i++) {
+            if (rightValues[i] == 0) {
+                out[i] = Double.NaN;
+                divisionByZero = true;
+            } else {
+                out[i] /= rightValues[i];
+            }
+        }
+        if (divisionByZero) {
+            System.err.println("Error: Division by zero");
+        }
+    }
+
+    /**
+     * Evaluates the quotient of the operands on dual numbers.
+     *
+     * @param pass The evaluation.
+     * @return The value and the derivative of the quotient.
+     */
+    @Override
+    Dual evalDual(Dual.Pass pass) {
+        Dual rightValue = pass.eval(right);
+        if (rightValue.getValue() == 0) {
+            System.err.println("Error: Division by zero");
+            return new Dual(Double.NaN, Double.NaN);
+        }
+        return pass.eval(left).div(rightValue);
+    }
+
+    /**
+     * Writes the operands and the quotient to a tape.
+     *
+     * @param tape The tape.
+     * @return The position of the quotient on the tape.
+     */
+    @Override
+    int record(Tape tape) {
+        return tape.div(tape.record(left), tape.record(right));
+    }
+
+    /**
+     * Makes the shared copy of the quotient in a factory.
+     *
+     * @param factory The factory.
+     * @return The shared node.
+     */
+    @Override
+    Expression copy(ExpressionFactory factory) {
+        return factory.div(factory.copy(left), factory.copy(right));
+    }
+
+    /**
+     * Evaluates the quotient of the operands, each computed once per call.
+     *
+     * @param factory The factory that made the expression.
+     * @param values  The values of the variables by slot.
+     * @return The quotient, or NaN if the right operand is zero.
+     */
+    @Override
+    double evalShared(ExpressionFactory factory, double[] values) {
+        double rightValue = factory.value(right, values);
+        if (rightValue == 0) {
+            System.err.println("Error: Division by zero");
+            return Double.NaN;
+        }
+        return factory.value(left, values) / rightValue;
+    }
+
     /**
      * Returns a string representation of the division expression.
      *
@@ -75,4 +224,42 @@ class Div extends Expression {
         Expression rightSimplified = right.simplify();
         return new Div(leftSimplified, rightSimplified);
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the polynomial of the quotient of the operands.
+     *
+     * @param simplifier The simplifier.
+     * @return The polynomial.
+     */
+    @Override
+    Simplifier.Polynomial toPolynomial(Simplifier simplifier) {
+        return simplifier.quotient(simplifier.polynomial(left), simplifier.polynomial(right));
+    }
+
+    /**
+     * Compares the operands of two Div expressions.
+     *
+     * @param other The object to compare with.
+     * @return true if the other object is a Div of equal operands.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Div) || hashCode() != other.hashCode()) {
+            return false;
+        }
+        return equalTrees(this, (Expression) other);
+    }
+
+    @Override
+    Expression left() {
+        return left;
+    }
+
+    @Override
+    Expression right() {
+        return right;
+    }
+}
@@ -0,0 +1,169 @@
+package ru.nsu.vyaznikova;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A dual number: a value together with its derivative.
+ *
+ * <p>Evaluating a bound expression on dual numbers gives its value and its
+ * derivative in one pass over the tree (forward mode automatic
+ * differentiation). The derivatives of the variables are given by a vector
+ * of tangents, so the result is the derivative in that direction; the
+ * partial derivative by one variable takes 1 in its slot and 0 elsewhere.
+ * A node shared by several operations, as in an {@link ExpressionFactory},
+ * is evaluated once.
+ * For the derivatives by many variables at once see {@link Tape}.
+ */
+public final class Dual {
+    private final double value;
+    private final double derivative;
+
+    /**
+     * Constructs a dual number.
+     *
+     * @param value      The value.
+     * @param derivative The derivative.
+     */
+    public Dual(double value, double derivative) {
+        this.value = value;
+        this.derivative = derivative;
+    }
+
+    /**
+     * Evaluates a bound expression and its derivative in a direction.
+     *
+     * @param expression The bound expression.
+     * @param values     The values of the variables by slot.
+     * @param tangents   The derivatives of the variables by slot.
+     * @return The value and the derivative of the expression.
+     * @throws IllegalStateException If a variable is not bound.
+     */
+    public static Dual eval(Expression expression, double[] values, double[] tangents) {
+        return new Pass(values, tangents).eval(expression);
+    }
+
+    /**
+     * Evaluates the partial derivative of a bound expression by one variable.
+     *
+     * @param expression The bound expression.
+     * @param values     The values of the variables by slot.
+     * @param slot       The slot of the variable.
+     * @return The value of the partial derivative.
+     * @throws IllegalStateException If a variable is not bound.
+     */
+    public static double derivative(Expression expression, double[] values, int slot) {
+        double[] tangents = new double[values.length];
+        tangents[slot] = 1;
+        return new Pass(values, tangents).eval(expression).derivative;
+    }
+
+    /**
+     * Returns the value.
+     *
+     * @return The value.
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the derivative.
+     *
+     * @return The derivative.
+     */
+    public double getDerivative() {
+        return derivative;
+    }
+
+    /**
+     * Adds a dual number.
+     *
+     * @param other The dual number to add.
+     * @return The sum.
+     */
+    public Dual add(Dual other) {
+        return new Dual(value + other.value, derivative + other.derivative);
+    }
+
+    /**
+     * Subtracts a dual number.
+     *
+     * @param other The dual number to subtract.
+     * @return The difference.
+     */
+    public Dual sub(Dual other) {
+        return new Dual(value - other.value, derivative - other.derivative);
+    }
+
+    /**
+     * Multiplies by a dual number.
+     *
+     * @param other The dual number to multiply by.
+     * @return The product.
+     */
+    public Dual mul(Dual other) {
+        return new Dual(value * other.value,
+                derivative * other.value + value * other.derivative);
+    }
+
+    /**
+     * Divides by a dual number.
+     *
+     * @param other The dual number to divide by.
+     * @return The quotient.
+     */
+    public Dual div(Dual other) {
+        double quotient = value / other.value;
+        return new Dual(quotient, (derivative - quotient * other.derivative) / other.value);
+    }
+
+    /**
+     * An evaluation on dual numbers, which keeps the result of every node.
+     */
+    static final class Pass {
+        private final double[] values;
+        private final double[] tangents;
+        private final Map<Expression, Dual> results = new IdentityHashMap<>();
+
+        Pass(double[] values, double[] tangents) {
+            this.values = values;
+            this.tangents = tangents;
+        }
+
+        /**
+         * Evaluates a node unless it is evaluated already.
+         *
+         * @param node The node.
+         * @return The value and the derivative of the node.
+         */
+        Dual eval(Expression node) {
+            Dual result = results.get(node);
+            if (result == null) {
+                result = node.evalDual(this);
+                results.put(node, result);
+            }
+            return result;
+        }
+
+        /**
+         * Returns the value and the derivative of a variable.
+         *
+         * @param slot The slot of the variable.
+         * @return The value and the tangent from the slot.
+         */
+        Dual variable(int slot) {
+            return new Dual(values[slot], tangents[slot]);
+        }
+    }
+
+    /**
+     * Returns a string representation of the dual number.
+     *
+     * @return The value and the derivative in parentheses.
+     */
+    @Override
+    public String toString() {
+        return "(" + value + ", " + derivative + ")";
+    }
+}
@@ -3,7 +3,14 @@ package ru.nsu.vyaznikova;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.Set;
 
 /**
  * Abstract class representing a mathematical expression.
@@ -13,6 +20,25 @@ import java.util.Scanner;
  */
 public abstract class Expression {
 
+    /**
+     * The number of the node in the {@link ExpressionFactory} that made it, or -1.
+     */
+    int id = -1;
+
+    /**
+     * The hash code of the structure, computed when the node is made.
+     */
+    private final int hash;
+
+    /**
+     * Constructs an expression with the hash code of its structure.
+     *
+     * @param hash The hash code, made from the hash codes of the operands.
+     */
+    Expression(int hash) {
+        this.hash = hash;
+    }
+
     /**
      * Returns the derivative of the expression with respect to the given variable.
      *
@@ -23,11 +49,331 @@ public abstract class Expression {
 
     /**
      * Evaluates the value of the expression given the values of variables.
+     * The assignments are parsed once, and the expression is compiled to a
+     * {@link PostfixProgram} that reads every variable from its slot, so the
+     * tree is not copied, and a node shared by several operations, as in an
+     * {@link ExpressionFactory}, is computed once. Only the variables of the
+     * expression are checked: assignments to other names may be malformed.
      *
      * @param expression The string with assigned values for variables.
      * @return The value of the expression.
+     * @throws IllegalArgumentException If a variable has no value or an invalid one.
+     */
+    public double eval(String expression) {
+        Bindings bindings = Bindings.parseLenient(expression);
+        return new PostfixProgram(this, bindings).eval(bindings.values());
+    }
+
+    /**
+     * Returns the expression with every variable bound to its slot in the bindings.
+     * A node shared by several operations is bound once, so the bound
+     * expression shares its nodes in the same way.
+     *
+     * @param bindings The bindings to take the slots from.
+     * @return The bound expression.
+     * @throws IllegalArgumentException If a variable has no slot in the bindings.
+     */
+    public Expression bind(Bindings bindings) {
+        return bind(this, bindings, new IdentityHashMap<>());
+    }
+
+    /**
+     * Binds a node unless it is bound already.
+     *
+     * @param node     The node.
+     * @param bindings The bindings to take the slots from.
+     * @param bound    The bound copies of the nodes bound so far.
+     * @return The bound node.
+     */
+    static Expression bind(Expression node, Bindings bindings, Map<Expression, Expression> bound) {
+        Expression result = bound.get(node);
+        if (result == null) {
+            result = node.bind(bindings, bound);
+            bound.put(node, result);
+        }
+        return result;
+    }
+
+    /**
+     * Binds the expression, binding the operands with
+     * {@link #bind(Expression, Bindings, Map)}.
+     *
+     * @param bindings The bindings to take the slots from.
+     * @param bound    The bound copies of the nodes bound so far.
+     * @return The bound expression.
+     * @throws IllegalArgumentException If a variable has no slot in the bindings.
+     */
+    abstract Expression bind(Bindings bindings, Map<Expression, Expression> bound);
+
+    /**
+     * Evaluates a bound expression.
+     *
+     * @param values The values of the variables by slot.
+     * @return The value of the expression.
+     * @throws IllegalStateException If a variable is not bound.
+     */
+    public abstract double eval(double[] values);
+
+    /**
+     * Writes the bytecode that computes a bound expression, writing the
+     * operands with {@link ExpressionCompiler.Code#emit(Expression)}.
+     *
+     * @param code The method being generated.
+     * @throws IllegalStateException If a variable is not bound.
+     */
+    abstract void emit(ExpressionCompiler.Code code);
+
+    /**
+     * Writes the expression to a postfix program; the operands are
+     * not written at once but handed back to the compiler.
+     *
+     * @param compiler The compiler.
+     * @throws IllegalStateException If a variable is not bound
+     *     and the compiler has no bindings.
+     */
+    abstract void postfix(PostfixProgram.Compiler compiler);
+
+    /**
+     * Evaluates a bound expression for many rows of values at once.
+     *
+     * @param columns The values of the variables by slot and by row.
+     * @param out     The array for the values of the expression by row;
+     *                its length is the number of rows.
+     * @throws IllegalArgumentException If a column is shorter than {@code out}.
+     * @throws IllegalStateException If a variable is not bound.
+     * @see BatchEvaluator
+     */
+    public void evalBatch(double[][] columns, double[] out) {
+        BatchEvaluator.evaluate(this, columns, out);
+    }
+
+    /**
+     * Evaluates a bound expression for the rows of a block, evaluating
+     * the operands with {@link BatchEvaluator.Block#eval}.
+     *
+     * @param block The rows and the temporary arrays.
+     * @param depth The depth of the expression in the tree.
+     * @param out   The array for the values of the expression.
+     * @throws IllegalStateException If a variable is not bound.
+     */
+    abstract void evalBatch(BatchEvaluator.Block block, int depth, double[] out);
+
+    /**
+     * Evaluates a bound expression on dual numbers, evaluating the operands
+     * with {@link Dual.Pass#eval(Expression)}.
+     *
+     * @param pass The evaluation.
+     * @return The value and the derivative of the expression.
+     * @throws IllegalStateException If a variable is not bound.
+     * @see Dual
+     */
+    abstract Dual evalDual(Dual.Pass pass);
+
+    /**
+     * Writes a bound expression to a tape, writing the operands
+     * with {@link Tape#record(Expression)}.
+     *
+     * @param tape The tape.
+     * @return The position of the expression on the tape.
+     * @throws IllegalStateException If a variable is not bound.
+     */
+    abstract int record(Tape tape);
+
+    /**
+     * Makes the copy of the expression in a factory.
+     *
+     * @param factory The factory; the operands are copied with
+     *                {@link ExpressionFactory#copy(Expression)}.
+     * @return The shared node.
+     */
+    abstract Expression copy(ExpressionFactory factory);
+
+    /**
+     * Evaluates a bound expression of a factory, taking the values of the
+     * operands from {@link ExpressionFactory#value(Expression, double[])}.
+     *
+     * @param factory The factory that made the expression.
+     * @param values  The values of the variables by slot.
+     * @return The value of the expression.
+     * @throws IllegalStateException If a variable is not bound.
+     */
+    abstract double evalShared(ExpressionFactory factory, double[] values);
+
+    /**
+     * Returns the derivative built in a factory, taking the derivatives of
+     * the operands from {@link ExpressionFactory#derivative(Expression, String)}.
+     *
+     * @param factory The factory that made the expression.
+     * @param difVar  The variable to differentiate with respect to.
+     * @return The derivative made of shared nodes.
+     */
+    abstract Expression derivative(ExpressionFactory factory, String difVar);
+
+    /**
+     * Returns the expression of a factory simplified by its local rules,
+     * taking the simplified operands from {@link ExpressionFactory#simplify}.
+     *
+     * @param factory The factory that made the expression.
+     * @return The simplified expression made of shared nodes.
+     */
+    abstract Expression simplify(ExpressionFactory factory);
+
+    /**
+     * Compares the structure of the expressions: the kinds of the nodes,
+     * the numbers, and the names and slots of the variables.
+     *
+     * @param other The object to compare with.
+     * @return true if the expressions are equal.
+     */
+    @Override
+    public abstract boolean equals(Object other);
+
+    /**
+     * Returns a hash code of the structure of the expression. The hash code
+     * of an operation is computed when it is made from the hash codes of its
+     * operands, so it takes constant time at any depth.
+     *
+     * @return The hash code.
+     */
+    @Override
+    public final int hashCode() {
+        return hash;
+    }
+
+    /**
+     * Mixes the hash codes of the operands of an operation. Multiplying by
+     * a prime alone is not enough: for {@code e * e} it only shifts the bits
+     * of the hash code of {@code e}, so in a graph of such nodes all the deep
+     * ones would have the same hash code.
+     *
+     * @param kind  The kind of the operation.
+     * @param left  The left operand.
+     * @param right The right operand.
+     * @return The hash code of the operation.
+     */
+    static int hash(int kind, Expression left, Expression right) {
+        int h = kind * 0x9e3779b9 + left.hashCode();
+        h = Integer.rotateLeft(h * 0x85ebca6b, 13) + right.hashCode();
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the left operand of an operation.
+     *
+     * @return The left operand, or null for a number or a variable.
+     */
+    Expression left() {
+        return null;
+    }
+
+    /**
+     * Returns the right operand of an operation.
+     *
+     * @return The right operand, or null for a number or a variable.
+     */
+    Expression right() {
+        return null;
+    }
+
+    /**
+     * Compares the structure of two trees with a stack of pairs instead of
+     * recursion, so that deep chains do not overflow the thread stack.
+     * Subtrees that are the same object or have different hash codes are
+     * not walked, and a pair of shared nodes is compared once, so graphs
+     * with many paths are compared in linear time.
+     *
+     * @param first  The first tree.
+     * @param second The second tree.
+     * @return true if the trees are equal.
      */
-    abstract double eval(String expression);
+    static boolean equalTrees(Expression first, Expression second) {
+        Deque<Expression> pairs = new ArrayDeque<>();
+        Map<Expression, Expression> compared = null;
+        pairs.push(first);
+        pairs.push(second);
+        while (!pairs.isEmpty()) {
+            Expression b = pairs.pop();
+            Expression a = pairs.pop();
+            if (a == b) {
+                continue;
+            }
+            if (a.getClass() != b.getClass() || a.hashCode() != b.hashCode()) {
+                return false;
+            }
+            if (a.left() == null) {
+                if (!a.equals(b)) {
+                    return false;
+                }
+                continue;
+            }
+            if (a != first) {
+                if (compared == null) {
+                    compared = new IdentityHashMap<>();
+                }
+                if (compared.put(a, b) == b) {
+                    continue;
+                }
+            }
+            pairs.push(a.right());
+            pairs.push(b.right());
+            pairs.push(a.left());
+            pairs.push(b.left());
+        }
+        return true;
+    }
+
+    /**
+     * Returns the operations that are operands of more than one operation,
+     * or twice of one, in a graph of shared nodes. The graph is walked with
+     * a stack and every node is visited once, so it takes linear time in
+     * the number of distinct nodes however many paths there are.
+     *
+     * @param root The root of the graph.
+     * @return The shared operations, compared by identity.
+     */
+    static Set<Expression> sharedNodes(Expression root) {
+        Set<Expression> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Expression> shared = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Expression> work = new ArrayDeque<>();
+        work.push(root);
+        while (!work.isEmpty()) {
+            Expression node = work.pop();
+            if (node.left() == null) {
+                continue;
+            }
+            if (!seen.add(node)) {
+                shared.add(node);
+                continue;
+            }
+            work.push(node.right());
+            work.push(node.left());
+        }
+        return shared;
+    }
+
+    /**
+     * Returns the derivative of an order, simplified after every step.
+     *
+     * @param difVar The variable to differentiate with respect to.
+     * @param order  The order of the derivative; 0 gives the simplified expression.
+     * @return The derivative, in which equal subexpressions are shared.
+     * @throws IllegalArgumentException If the order is negative.
+     */
+    public Expression derivative(String difVar, int order) {
+        return new ExpressionFactory().derivative(this, difVar, order);
+    }
+
+    /**
+     * Returns the derivatives with respect to every variable,
+     * which share their subexpressions.
+     *
+     * @param variables The variables to differentiate with respect to.
+     * @return The derivatives in the order of the variables.
+     */
+    public List<Expression> gradient(List<String> variables) {
+        return new ExpressionFactory().gradient(this, variables);
+    }
 
     /**
      * Returns a string representation of the expression.
@@ -54,6 +400,26 @@ public abstract class Expression {
      */
     public abstract Expression simplify();
 
+    /**
+     * Rewrites the expression to its canonical polynomial form, with the
+     * numbers folded, equal terms collected and sums and products flattened.
+     *
+     * @return The simplified expression.
+     * @see Simplifier
+     */
+    public Expression normalize() {
+        return Simplifier.simplify(this);
+    }
+
+    /**
+     * Returns the polynomial of the expression, taking the polynomials of
+     * the operands from {@link Simplifier#polynomial(Expression)}.
+     *
+     * @param simplifier The simplifier.
+     * @return The polynomial.
+     */
+    abstract Simplifier.Polynomial toPolynomial(Simplifier simplifier);
+
     /**
      * Reads a string with an expression from the input stream.
      *
@@ -67,6 +433,17 @@ public abstract class Expression {
         return str;
     }
 
+    /**
+     * Parses a string with an expression, such as {@code (3+(2*x))}.
+     *
+     * @param text The string to parse.
+     * @return The expression tree.
+     * @throws IllegalArgumentException If the string is not a valid expression.
+     */
+    public static Expression parse(String text) {
+        return ExpressionParser.parseExpression(text);
+    }
+
     public static void main(String[] args) {
     }
 }
\ No newline at end of file
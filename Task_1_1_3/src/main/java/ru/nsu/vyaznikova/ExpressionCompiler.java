@@ -0,0 +1,433 @@
+package ru.nsu.vyaznikova;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiles bound expressions to JVM bytecode.
+ *
+ * <p>Every tree becomes a class with a single straight-line method that
+ * loads the constants and the values of the variables from the
+ * {@code double[]} and combines them with {@code dadd}, {@code dsub},
+ * {@code dmul} and a call for division, so the JIT compiles it as one
+ * method without any virtual calls. A node shared by several operations,
+ * as in an {@link ExpressionFactory}, is computed once and kept in a local
+ * variable. The class is loaded as a hidden class
+ * with {@link MethodHandles.Lookup#defineHiddenClass}, so it is unloaded
+ * as soon as it is no longer used.
+ *
+ * <p>The bytes of the generated class describe the tree completely, so they
+ * are the key of a cache: compiling a tree with the same structure, the same
+ * constants and the same slots again returns the class compiled before.
+ * The cache holds the last {@value #CACHE_SIZE} classes.
+ *
+ * <p>Trees with fewer than {@value #MIN_NODES} nodes are not worth a class,
+ * and trees whose method would be too large for the JVM cannot have one;
+ * both are evaluated by the interpreter instead.
+ *
+ * <p>Division by zero gives NaN and prints the same message as
+ * {@link Div#eval(double[])}, but the compiled code evaluates the dividend
+ * even if the divisor is zero.
+ */
+public final class ExpressionCompiler {
+
+    /**
+     * The smallest number of nodes that is compiled.
+     */
+    static final int MIN_NODES = 8;
+
+    /**
+     * The number of compiled classes kept in the cache.
+     */
+    static final int CACHE_SIZE = 256;
+
+    /**
+     * The largest method the JVM accepts, in bytes.
+     */
+    private static final int MAX_CODE = 65535;
+
+    /**
+     * The compiled classes by their bytes, the least recently used first.
+     */
+    private static final Map<Key, CompiledExpression> CACHE =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, CompiledExpression> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            };
+
+    private ExpressionCompiler() {
+    }
+
+    /**
+     * Compiles an expression after binding it.
+     *
+     * @param expression The expression.
+     * @param bindings   The bindings to take the slots from.
+     * @return The compiled expression.
+     * @throws IllegalArgumentException If a variable has no slot in the bindings.
+     */
+    public static CompiledExpression compile(Expression expression, Bindings bindings) {
+        return compile(expression.bind(bindings));
+    }
+
+    /**
+     * Compiles a bound expression.
+     *
+     * @param expression The bound expression.
+     * @return The compiled expression, or the interpreter
+     *     if the tree is too small or too large.
+     * @throws IllegalStateException If a variable is not bound.
+     */
+    public static CompiledExpression compile(Expression expression) {
+        Code code = new Code(Expression.sharedNodes(expression));
+        code.emit(expression);
+        if (code.nodes < MIN_NODES || code.tooLarge()) {
+            return expression::eval;
+        }
+        Key key = new Key(code.toClassFile());
+        synchronized (CACHE) {
+            CompiledExpression compiled = CACHE.get(key);
+            if (compiled == null) {
+                compiled = define(key.bytes);
+                CACHE.put(key, compiled);
+            }
+            return compiled;
+        }
+    }
+
+    /**
+     * Returns the number of compiled classes in the cache.
+     *
+     * @return The size of the cache.
+     */
+    static int cached() {
+        synchronized (CACHE) {
+            return CACHE.size();
+        }
+    }
+
+    /**
+     * Divides as {@link Div#eval(double[])} does; called by the compiled code.
+     *
+     * @param left  The dividend.
+     * @param right The divisor.
+     * @return The quotient, or NaN if the divisor is zero.
+     */
+    static double divide(double left, double right) {
+        if (right == 0) {
+            System.err.println("Error: Division by zero");
+            return Double.NaN;
+        }
+        return left / right;
+    }
+
+    private static CompiledExpression define(byte[] bytes) {
+        try {
+            Class<?> type = MethodHandles.lookup().defineHiddenClass(bytes, true).lookupClass();
+            return (CompiledExpression) type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("cannot load the compiled expression", e);
+        }
+    }
+
+    /**
+     * The bytes of a class, compared by their contents.
+     */
+    private static final class Key {
+        private final byte[] bytes;
+        private final int hash;
+
+        Key(byte[] bytes) {
+            this.bytes = bytes;
+            this.hash = Arrays.hashCode(bytes);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && Arrays.equals(bytes, ((Key) other).bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * The method being generated: its bytecode, its double constants
+     * and the depth of the operand stack.
+     *
+     * <p>The first {@value #FIRST_CONSTANT} entries of the constant pool are
+     * the same for every class; the double constants follow them.
+     */
+    static final class Code {
+        private static final int DCONST_0 = 0x0e;
+        private static final int DCONST_1 = 0x0f;
+        private static final int BIPUSH = 0x10;
+        private static final int SIPUSH = 0x11;
+        private static final int LDC2_W = 0x14;
+        private static final int ALOAD_1 = 0x2b;
+        private static final int DALOAD = 0x31;
+        private static final int ICONST_0 = 0x03;
+        private static final int INVOKESTATIC = 0xb8;
+        private static final int DRETURN = 0xaf;
+        private static final int DLOAD = 0x18;
+        private static final int DSTORE = 0x39;
+        private static final int DUP2 = 0x5c;
+        private static final int WIDE = 0xc4;
+
+        static final int DADD = 0x63;
+        static final int DSUB = 0x67;
+        static final int DMUL = 0x6b;
+
+        /**
+         * The constant pool index of {@link #divide}.
+         */
+        private static final int DIVIDE = 19;
+
+        /**
+         * The first constant pool index of the double constants.
+         */
+        private static final int FIRST_CONSTANT = 20;
+
+        private final ByteArrayOutputStream bytecode = new ByteArrayOutputStream();
+        private final Map<Long, Integer> constants = new HashMap<>();
+        private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+        private int nextConstant = FIRST_CONSTANT;
+        private int depth;
+        private int maxDepth;
+        private boolean largeSlot;
+        private final Set<Expression> shared;
+        private final Map<Expression, Integer> locals = new IdentityHashMap<>();
+        private int maxLocals = 2;
+        int nodes;
+
+        /**
+         * Constructs an empty method.
+         *
+         * @param shared The nodes that are kept in local variables.
+         */
+        Code(Set<Expression> shared) {
+            this.shared = shared;
+        }
+
+        /**
+         * Writes a node, or loads its value if it is shared and written already.
+         *
+         * @param node The node.
+         */
+        void emit(Expression node) {
+            Integer local = locals.get(node);
+            if (local != null) {
+                local(DLOAD, local);
+                push();
+                return;
+            }
+            node.emit(this);
+            if (shared.contains(node)) {
+                local = maxLocals;
+                maxLocals += 2;
+                locals.put(node, local);
+                bytecode.write(DUP2);
+                push();
+                local(DSTORE, local);
+                depth -= 2;
+            }
+        }
+
+        /**
+         * Pushes a constant.
+         *
+         * @param value The constant.
+         */
+        void constant(double value) {
+            nodes++;
+            long bits = Double.doubleToRawLongBits(value);
+            if (bits == 0) {
+                bytecode.write(DCONST_0);
+            } else if (value == 1) {
+                bytecode.write(DCONST_1);
+            } else {
+                Integer index = constants.get(bits);
+                if (index == null) {
+                    index = nextConstant;
+                    constants.put(bits, index);
+                    nextConstant += 2;
+                    pool.write(6);
+                    writeLong(pool, bits);
+                }
+                bytecode.write(LDC2_W);
+                writeShort(bytecode, index);
+            }
+            push();
+        }
+
+        /**
+         * Pushes the value of a variable.
+         *
+         * @param slot The slot of the variable.
+         */
+        void variable(int slot) {
+            nodes++;
+            bytecode.write(ALOAD_1);
+            if (slot <= 5) {
+                bytecode.write(ICONST_0 + slot);
+            } else if (slot <= Byte.MAX_VALUE) {
+                bytecode.write(BIPUSH);
+                bytecode.write(slot);
+            } else if (slot <= Short.MAX_VALUE) {
+                bytecode.write(SIPUSH);
+                writeShort(bytecode, slot);
+            } else {
+                largeSlot = true;
+            }
+            bytecode.write(DALOAD);
+            push();
+        }
+
+        /**
+         * Combines the two values on the top of the stack.
+         *
+         * @param opcode {@link #DADD}, {@link #DSUB} or {@link #DMUL}.
+         */
+        void operation(int opcode) {
+            nodes++;
+            bytecode.write(opcode);
+            depth -= 2;
+        }
+
+        /**
+         * Divides the two values on the top of the stack.
+         */
+        void divide() {
+            nodes++;
+            bytecode.write(INVOKESTATIC);
+            writeShort(bytecode, DIVIDE);
+            depth -= 2;
+        }
+
+        private void local(int opcode, int index) {
+            if (index > 0xff) {
+                bytecode.write(WIDE);
+                bytecode.write(opcode);
+                writeShort(bytecode, index);
+            } else {
+                bytecode.write(opcode);
+                bytecode.write(index);
+            }
+        }
+
+        private void push() {
+            depth += 2;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+
+        boolean tooLarge() {
+            return largeSlot || bytecode.size() >= MAX_CODE || nextConstant > MAX_CODE
+                    || maxLocals > MAX_CODE;
+        }
+
+        /**
+         * Writes the class with the generated method.
+         *
+         * @return The bytes of the class file.
+         */
+        byte[] toClassFile() {
+            bytecode.write(DRETURN);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+                    256 + bytecode.size() + pool.size());
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeInt(0xcafebabe);
+                out.writeShort(0);
+                out.writeShort(61);
+                out.writeShort(nextConstant);
+                utf8(out, "ru/nsu/vyaznikova/CompiledTree");
+                reference(out, 7, 1);
+                utf8(out, "java/lang/Object");
+                reference(out, 7, 3);
+                utf8(out, "ru/nsu/vyaznikova/CompiledExpression");
+                reference(out, 7, 5);
+                utf8(out, "<init>");
+                utf8(out, "()V");
+                reference(out, 12, 7, 8);
+                reference(out, 10, 4, 9);
+                utf8(out, "eval");
+                utf8(out, "([D)D");
+                utf8(out, "Code");
+                utf8(out, "ru/nsu/vyaznikova/ExpressionCompiler");
+                reference(out, 7, 14);
+                utf8(out, "divide");
+                utf8(out, "(DD)D");
+                reference(out, 12, 16, 17);
+                reference(out, 10, 15, 18);
+                pool.writeTo(out);
+                // public final super, this, super, one interface, no fields
+                out.writeShort(0x0031);
+                out.writeShort(2);
+                out.writeShort(4);
+                out.writeShort(1);
+                out.writeShort(6);
+                out.writeShort(0);
+                out.writeShort(2);
+                // public <init>() { super(); }
+                method(out, 7, 8, 1, 1, new byte[] {0x2a, (byte) 0xb7, 0, 10, (byte) 0xb1});
+                method(out, 11, 12, maxDepth, maxLocals, bytecode.toByteArray());
+                out.writeShort(0);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return bytes.toByteArray();
+        }
+
+        private static void method(DataOutputStream out, int name, int descriptor,
+                                   int maxStack, int maxLocals, byte[] code) throws IOException {
+            out.writeShort(0x0001);
+            out.writeShort(name);
+            out.writeShort(descriptor);
+            out.writeShort(1);
+            out.writeShort(13);
+            out.writeInt(12 + code.length);
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(code.length);
+            out.write(code);
+            out.writeShort(0);
+            out.writeShort(0);
+        }
+
+        private static void utf8(DataOutputStream out, String value) throws IOException {
+            out.writeByte(1);
+            out.writeUTF(value);
+        }
+
+        private static void reference(DataOutputStream out, int tag, int... indexes)
+                throws IOException {
+            out.writeByte(tag);
+            for (int index : indexes) {
+                out.writeShort(index);
+            }
+        }
+
+        private static void writeShort(ByteArrayOutputStream out, int value) {
+            out.write(value >>> 8);
+            out.write(value);
+        }
+
+        private static void writeLong(ByteArrayOutputStream out, long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out.write((int) (value >>> shift));
+            }
+        }
+    }
+}
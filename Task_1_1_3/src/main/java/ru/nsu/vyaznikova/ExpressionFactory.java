@@ -0,0 +1,458 @@
+package ru.nsu.vyaznikova;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Makes expressions in which equal subexpressions are one shared node.
+ *
+ * <p>Every node made by the factory is kept in a table by its structure, and
+ * asking for an equal node again returns the one made before, so the nodes
+ * of the factory form a graph without duplicates. Expressions made elsewhere
+ * are copied into the factory with {@link #intern(Expression)}; the copy
+ * keeps the nodes that were shared and shares the ones that were equal.
+ *
+ * <p>{@link #eval(Expression, double[])} computes every node of such a graph
+ * once per call, however many times it is used. For this the factory numbers
+ * its nodes and keeps the values of the last call by the number.
+ *
+ * <p>The factory also remembers the derivative of every node by the variable
+ * and the simplified form of every node, so derivatives of the same graph by
+ * many variables or of many orders reuse what was found before. Derivatives
+ * and simplified forms are built with a few local rules: numbers are folded
+ * and adding 0, subtracting 0 or an equal node, multiplying by 0 or 1 and
+ * dividing by 1 are dropped.
+ *
+ * <p>A factory is not thread-safe, and it keeps all its nodes
+ * as long as it is used.
+ */
+public class ExpressionFactory {
+
+    /**
+     * The nodes of the factory by their structure.
+     */
+    private final Map<Expression, Expression> nodes = new HashMap<>();
+
+    /**
+     * The copies of the nodes of the expression being copied.
+     */
+    private Map<Expression, Expression> copies;
+
+    /**
+     * The bindings for the variables of the expression being copied, or null.
+     */
+    private Bindings bindings;
+
+    /**
+     * The derivatives of the nodes by the variable.
+     */
+    private final Map<String, Memo> derivatives = new HashMap<>();
+
+    /**
+     * The simplified forms of the nodes.
+     */
+    private final Memo simplified = new Memo();
+
+    /**
+     * The values of the nodes by their number.
+     */
+    private double[] values = new double[64];
+
+    /**
+     * The numbers of the calls in which the values were computed.
+     */
+    private int[] stamps = new int[64];
+
+    /**
+     * The number of the current call of {@link #eval(Expression, double[])}.
+     */
+    private int stamp;
+
+    /**
+     * Returns the number node with the value.
+     *
+     * @param value The value.
+     * @return The shared node.
+     */
+    public Expression number(double value) {
+        return canonical(new Number(value));
+    }
+
+    /**
+     * Returns the variable node with the name.
+     *
+     * @param name The name of the variable.
+     * @return The shared node.
+     */
+    public Expression variable(String name) {
+        return canonical(new Variable(name));
+    }
+
+    /**
+     * Returns the sum node of the operands.
+     *
+     * @param left  The left operand.
+     * @param right The right operand.
+     * @return The shared node.
+     */
+    public Expression add(Expression left, Expression right) {
+        return canonical(new Add(own(left), own(right)));
+    }
+
+    /**
+     * Returns the difference node of the operands.
+     *
+     * @param left  The left operand.
+     * @param right The right operand.
+     * @return The shared node.
+     */
+    public Expression sub(Expression left, Expression right) {
+        return canonical(new Sub(own(left), own(right)));
+    }
+
+    /**
+     * Returns the product node of the operands.
+     *
+     * @param left  The left operand.
+     * @param right The right operand.
+     * @return The shared node.
+     */
+    public Expression mul(Expression left, Expression right) {
+        return canonical(new Mul(own(left), own(right)));
+    }
+
+    /**
+     * Returns the quotient node of the operands.
+     *
+     * @param left  The left operand.
+     * @param right The right operand.
+     * @return The shared node.
+     */
+    public Expression div(Expression left, Expression right) {
+        return canonical(new Div(own(left), own(right)));
+    }
+
+    /**
+     * Copies an expression into the factory.
+     *
+     * @param expression The expression.
+     * @return The equal expression made of shared nodes.
+     */
+    public Expression intern(Expression expression) {
+        return copy(expression, null);
+    }
+
+    /**
+     * Copies an expression into the factory and binds its variables.
+     *
+     * @param expression The expression.
+     * @param bindings   The bindings to take the slots from.
+     * @return The bound expression made of shared nodes.
+     * @throws IllegalArgumentException If a variable has no slot in the bindings.
+     */
+    public Expression bind(Expression expression, Bindings bindings) {
+        return copy(expression, bindings);
+    }
+
+    /**
+     * Returns the derivative of an expression, built in the factory
+     * and simplified by the local rules.
+     *
+     * @param expression The expression.
+     * @param difVar     The variable to differentiate with respect to.
+     * @return The derivative made of shared nodes.
+     */
+    public Expression derivative(Expression expression, String difVar) {
+        Memo memo = derivatives.computeIfAbsent(difVar, name -> new Memo());
+        Expression node = own(expression);
+        Expression derivative = memo.get(node);
+        if (derivative == null) {
+            derivative = node.derivative(this, difVar);
+            memo.put(node, derivative);
+        }
+        return derivative;
+    }
+
+    /**
+     * Returns the derivative of an order, simplifying after every step.
+     * Every step is also rewritten to the canonical form of
+     * {@link Simplifier}, which collects equal terms, so the derivatives
+     * of a product do not grow exponentially with the order.
+     *
+     * @param expression The expression.
+     * @param difVar     The variable to differentiate with respect to.
+     * @param order      The order of the derivative; 0 gives the expression.
+     * @return The derivative made of shared nodes.
+     * @throws IllegalArgumentException If the order is negative.
+     */
+    public Expression derivative(Expression expression, String difVar, int order) {
+        if (order < 0) {
+            throw new IllegalArgumentException("Invalid order of the derivative: " + order);
+        }
+        Expression result = simplify(expression);
+        for (int i = 0; i < order; i++) {
+            result = simplify(Simplifier.simplify(derivative(result, difVar)));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the derivatives by every variable. The expression is copied
+     * and simplified once, and the derivatives share their nodes.
+     *
+     * @param expression The expression.
+     * @param variables  The variables to differentiate with respect to.
+     * @return The derivatives in the order of the variables.
+     */
+    public List<Expression> gradient(Expression expression, List<String> variables) {
+        Expression node = simplify(expression);
+        List<Expression> gradient = new ArrayList<>(variables.size());
+        for (String variable : variables) {
+            gradient.add(derivative(node, variable));
+        }
+        return gradient;
+    }
+
+    /**
+     * Returns the expression simplified by the local rules.
+     *
+     * @param expression The expression.
+     * @return The simplified expression made of shared nodes.
+     */
+    public Expression simplify(Expression expression) {
+        Expression node = own(expression);
+        Expression result = simplified.get(node);
+        if (result == null) {
+            result = node.simplify(this);
+            simplified.put(node, result);
+            simplified.put(result, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the sum of two nodes, simplified by the local rules.
+     *
+     * @param left  The left operand.
+     * @param right The right operand.
+     * @return The shared node.
+     */
+    Expression sum(Expression left, Expression right) {
+        if (left instanceof Number && right instanceof Number) {
+            return number(value(left) + value(right));
+        } else if (isNumber(left, 0)) {
+            return right;
+        } else if (isNumber(right, 0)) {
+            return left;
+        }
+        return add(left, right);
+    }
+
+    /**
+     * Returns the difference of two nodes, simplified by the local rules.
+     *
+     * @param left  The left operand.
+     * @param right The right operand.
+     * @return The shared node.
+     */
+    Expression difference(Expression left, Expression right) {
+        if (left instanceof Number && right instanceof Number) {
+            return number(value(left) - value(right));
+        } else if (left == right) {
+            return number(0);
+        } else if (isNumber(right, 0)) {
+            return left;
+        }
+        return sub(left, right);
+    }
+
+    /**
+     * Returns the product of two nodes, simplified by the local rules.
+     *
+     * @param left  The left operand.
+     * @param right The right operand.
+     * @return The shared node.
+     */
+    Expression product(Expression left, Expression right) {
+        if (left instanceof Number && right instanceof Number) {
+            return number(value(left) * value(right));
+        } else if (isNumber(left, 0) || isNumber(right, 0)) {
+            return number(0);
+        } else if (isNumber(left, 1)) {
+            return right;
+        } else if (isNumber(right, 1)) {
+            return left;
+        }
+        return mul(left, right);
+    }
+
+    /**
+     * Returns the quotient of two nodes, simplified by the local rules.
+     * A division by the number 0 is kept.
+     *
+     * @param left  The left operand.
+     * @param right The right operand.
+     * @return The shared node.
+     */
+    Expression quotient(Expression left, Expression right) {
+        if (left instanceof Number && right instanceof Number && value(right) != 0) {
+            return number(value(left) / value(right));
+        } else if (isNumber(right, 1)) {
+            return left;
+        }
+        return div(left, right);
+    }
+
+    /**
+     * Returns the number of nodes made by the factory.
+     *
+     * @return The number of nodes.
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Evaluates an expression of the factory, computing every node once.
+     *
+     * @param expression The bound expression made by the factory.
+     * @param values     The values of the variables by slot.
+     * @return The value of the expression.
+     * @throws IllegalArgumentException If the expression was not made by the factory.
+     * @throws IllegalStateException If a variable is not bound.
+     */
+    public double eval(Expression expression, double[] values) {
+        if (nodes.get(expression) != expression) {
+            throw new IllegalArgumentException("The expression was not made by the factory");
+        }
+        if (this.values.length < nodes.size()) {
+            int length = Math.max(nodes.size(), 2 * this.values.length);
+            this.values = Arrays.copyOf(this.values, length);
+            stamps = Arrays.copyOf(stamps, length);
+        }
+        if (++stamp == 0) {
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+        return value(expression, values);
+    }
+
+    /**
+     * Evaluates an expression given the values of variables,
+     * computing every node once.
+     *
+     * @param expression  The expression.
+     * @param assignments The string with assigned values for variables.
+     * @return The value of the expression.
+     * @throws IllegalArgumentException If a variable has no value.
+     */
+    public double eval(Expression expression, String assignments) {
+        Bindings parsed = Bindings.parseLenient(assignments);
+        return eval(bind(expression, parsed), parsed.values());
+    }
+
+    /**
+     * Returns the value of a node in the current call, computing it once.
+     *
+     * @param node   The node made by the factory.
+     * @param values The values of the variables by slot.
+     * @return The value of the node.
+     */
+    double value(Expression node, double[] values) {
+        int id = node.id;
+        if (stamps[id] != stamp) {
+            this.values[id] = node.evalShared(this, values);
+            stamps[id] = stamp;
+        }
+        return this.values[id];
+    }
+
+    /**
+     * Returns the copy of a node of the expression being copied.
+     *
+     * @param node The node.
+     * @return The shared node.
+     */
+    Expression copy(Expression node) {
+        Expression copy = copies.get(node);
+        if (copy == null) {
+            copy = node.copy(this);
+            copies.put(node, copy);
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the variable node for a variable of the expression being copied.
+     *
+     * @param name The name of the variable.
+     * @param slot The slot of the variable.
+     * @return The shared node, bound if the expression is being bound.
+     * @throws IllegalArgumentException If the variable has no slot in the bindings.
+     */
+    Expression variable(String name, int slot) {
+        if (bindings != null) {
+            slot = bindings.indexOf(name);
+            if (slot < 0) {
+                throw bindings.missing(name);
+            }
+        }
+        return canonical(new Variable(name, slot));
+    }
+
+    private Expression copy(Expression expression, Bindings bindings) {
+        Map<Expression, Expression> savedCopies = copies;
+        Bindings savedBindings = this.bindings;
+        copies = new IdentityHashMap<>();
+        this.bindings = bindings;
+        try {
+            return copy(expression);
+        } finally {
+            copies = savedCopies;
+            this.bindings = savedBindings;
+        }
+    }
+
+    private static boolean isNumber(Expression node, double value) {
+        return node instanceof Number && ((Number) node).number == value;
+    }
+
+    private static double value(Expression number) {
+        return ((Number) number).number;
+    }
+
+    private Expression own(Expression node) {
+        return nodes.get(node) == node ? node : intern(node);
+    }
+
+    private Expression canonical(Expression node) {
+        Expression shared = nodes.putIfAbsent(node, node);
+        if (shared != null) {
+            return shared;
+        }
+        node.id = nodes.size() - 1;
+        return node;
+    }
+
+    /**
+     * Nodes of the factory by the number of a node.
+     */
+    private static final class Memo {
+        private Expression[] nodes = new Expression[64];
+
+        Expression get(Expression node) {
+            return node.id < nodes.length ? nodes[node.id] : null;
+        }
+
+        void put(Expression node, Expression value) {
+            if (node.id >= nodes.length) {
+                nodes = Arrays.copyOf(nodes, Math.max(node.id + 1, 2 * nodes.length));
+            }
+            nodes[node.id] = value;
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package ru.nsu.vyaznikova;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Parses text such as {@code (3+(2*x))} into an expression tree.
+ *
+ * <p>The grammar is the usual one: {@code +} and {@code -} bind weaker than
+ * {@code *} and {@code /}, all of them are left-associative, and a leading
+ * {@code -} negates what follows it. A negated literal becomes a negative
+ * {@link Number}, any other negation becomes {@code (0 - e)}. Numbers may
+ * have a fractional part and an exponent, variables are made of Latin
+ * letters, digits and underscores and start with a letter or an underscore.
+ * Spaces and tabs are skipped.
+ *
+ * <p>The text is read as bytes in a single pass without regular expressions
+ * or substrings. Numbers are converted on the fly; only those with too many
+ * digits for an exact conversion fall back to {@link Double#parseDouble}.
+ * Every variable name is turned into a string once per parser, and all
+ * occurrences of it share one {@link Variable}.
+ *
+ * <p>A parser made with an input stream reads one expression per line, so
+ * millions of expressions can be streamed through it. A parser is not
+ * thread-safe.
+ */
+public class ExpressionParser {
+
+    /**
+     * Powers of ten that are exact doubles.
+     */
+    private static final double[] POWERS = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * The largest mantissa that is an exact double.
+     */
+    private static final long MAX_EXACT = 1L << 53;
+
+    /**
+     * The stream the lines are read from, or null.
+     */
+    private final InputStream input;
+
+    /**
+     * The bytes being parsed.
+     */
+    private byte[] buffer;
+
+    /**
+     * The position of the next byte to parse.
+     */
+    private int pos;
+
+    /**
+     * The end of the expression being parsed.
+     */
+    private int end;
+
+    /**
+     * The position where the expression being parsed starts.
+     */
+    private int start;
+
+    /**
+     * The end of the bytes read from the stream.
+     */
+    private int limit;
+
+    /**
+     * The variables met so far, in an open-addressing table by name.
+     */
+    private Variable[] variables = new Variable[16];
+
+    /**
+     * The names of the variables, in the same slots as the variables.
+     */
+    private byte[][] names = new byte[16][];
+
+    /**
+     * The number of variables met so far.
+     */
+    private int count;
+
+    /**
+     * Constructs a parser for single strings.
+     */
+    public ExpressionParser() {
+        this.input = null;
+    }
+
+    /**
+     * Constructs a parser that reads one expression per line from the stream.
+     *
+     * @param input The stream to read from.
+     */
+    public ExpressionParser(InputStream input) {
+        this.input = input;
+        this.buffer = new byte[1 << 16];
+    }
+
+    /**
+     * Parses an expression.
+     *
+     * @param text The text of the expression.
+     * @return The expression tree.
+     * @throws IllegalArgumentException If the text is not a valid expression.
+     */
+    public static Expression parseExpression(String text) {
+        return new ExpressionParser().parse(text);
+    }
+
+    /**
+     * Parses an expression with this parser, sharing its variables.
+     *
+     * @param text The text of the expression.
+     * @return The expression tree.
+     * @throws IllegalArgumentException If the text is not a valid expression.
+     */
+    public Expression parse(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+        return parse(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Parses an expression from a range of bytes.
+     *
+     * @param bytes The bytes of the text.
+     * @param from  The first byte of the expression, inclusive.
+     * @param to    The last byte of the expression, exclusive.
+     * @return The expression tree.
+     * @throws IllegalArgumentException If the text is not a valid expression.
+     */
+    public Expression parse(byte[] bytes, int from, int to) {
+        byte[] savedBuffer = buffer;
+        int savedPos = pos;
+        buffer = bytes;
+        start = from;
+        pos = from;
+        end = to;
+        try {
+            Expression expression = sum();
+            skipSpaces();
+            if (pos < end) {
+                throw error("unexpected '" + (char) buffer[pos] + "'");
+            }
+            return expression;
+        } finally {
+            buffer = savedBuffer;
+            pos = savedPos;
+        }
+    }
+
+    /**
+     * Reads and parses the next non-empty line of the stream.
+     *
+     * @return The expression, or null at the end of the stream.
+     * @throws IOException If the stream cannot be read.
+     * @throws IllegalArgumentException If the line is not a valid expression.
+     */
+    public Expression next() throws IOException {
+        if (input == null) {
+            throw new IllegalStateException("the parser has no stream");
+        }
+        while (true) {
+            int newline = -1;
+            for (int i = pos; i < limit; i++) {
+                if (buffer[i] == '\n') {
+                    newline = i;
+                    break;
+                }
+            }
+            if (newline < 0 && fill()) {
+                continue;
+            }
+            int from = pos;
+            int to = newline < 0 ? limit : newline;
+            int next = newline < 0 ? limit : newline + 1;
+            if (to > from && buffer[to - 1] == '\r') {
+                to--;
+            }
+            pos = next;
+            if (!blank(from, to)) {
+                return parse(buffer, from, to);
+            }
+            if (newline < 0) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Moves the unparsed bytes to the front of the buffer and reads more.
+     *
+     * @return false if the stream has ended.
+     */
+    private boolean fill() throws IOException {
+        int rest = limit - pos;
+        if (pos == 0 && limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+        } else {
+            System.arraycopy(buffer, pos, buffer, 0, rest);
+        }
+        pos = 0;
+        limit = rest;
+        int read = input.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    private boolean blank(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] != ' ' && buffer[i] != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Expression sum() {
+        Expression left = product();
+        while (true) {
+            skipSpaces();
+            if (pos == end) {
+                return left;
+            }
+            byte c = buffer[pos];
+            if (c == '+') {
+                pos++;
+                left = new Add(left, product());
+            } else if (c == '-') {
+                pos++;
+                left = new Sub(left, product());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Expression product() {
+        Expression left = unary();
+        while (true) {
+            skipSpaces();
+            if (pos == end) {
+                return left;
+            }
+            byte c = buffer[pos];
+            if (c == '*') {
+                pos++;
+                left = new Mul(left, unary());
+            } else if (c == '/') {
+                pos++;
+                left = new Div(left, unary());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Expression unary() {
+        skipSpaces();
+        if (pos < end && buffer[pos] == '-') {
+            pos++;
+            Expression operand = unary();
+            if (operand instanceof Number) {
+                return new Number(-((Number) operand).number);
+            }
+            return new Sub(new Number(0), operand);
+        }
+        return primary();
+    }
+
+    private Expression primary() {
+        if (pos == end) {
+            throw error("unexpected end");
+        }
+        byte c = buffer[pos];
+        if (c == '(') {
+            pos++;
+            Expression inner = sum();
+            skipSpaces();
+            if (pos == end || buffer[pos] != ')') {
+                throw error("')' expected");
+            }
+            pos++;
+            return inner;
+        }
+        if (isDigit(c) || c == '.') {
+            return new Number(number());
+        }
+        if (isLetter(c)) {
+            return variable();
+        }
+        throw error("unexpected '" + (char) c + "'");
+    }
+
+    /**
+     * Reads a number. Up to 18 significant digits are collected in a long;
+     * if they and the power of ten are exact doubles, one division or
+     * multiplication gives the correctly rounded value.
+     */
+    private double number() {
+        int from = pos;
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean exact = true;
+        boolean any = false;
+        while (pos < end && isDigit(buffer[pos])) {
+            if (digits < 18) {
+                mantissa = 10 * mantissa + (buffer[pos] - '0');
+                if (mantissa != 0) {
+                    digits++;
+                }
+            } else {
+                exact = false;
+            }
+            any = true;
+            pos++;
+        }
+        if (pos < end && buffer[pos] == '.') {
+            pos++;
+            while (pos < end && isDigit(buffer[pos])) {
+                if (digits < 18) {
+                    mantissa = 10 * mantissa + (buffer[pos] - '0');
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                    scale--;
+                } else {
+                    exact = false;
+                }
+                any = true;
+                pos++;
+            }
+        }
+        if (!any) {
+            throw error("digit expected");
+        }
+        if (pos < end && (buffer[pos] == 'e' || buffer[pos] == 'E')) {
+            pos++;
+            boolean negative = false;
+            if (pos < end && (buffer[pos] == '+' || buffer[pos] == '-')) {
+                negative = buffer[pos] == '-';
+                pos++;
+            }
+            if (pos == end || !isDigit(buffer[pos])) {
+                throw error("exponent expected");
+            }
+            int exponent = 0;
+            while (pos < end && isDigit(buffer[pos])) {
+                exponent = Math.min(10 * exponent + (buffer[pos] - '0'), 100_000);
+                pos++;
+            }
+            scale += negative ? -exponent : exponent;
+        }
+        if (exact && mantissa < MAX_EXACT && Math.abs(scale) < POWERS.length) {
+            return scale < 0 ? mantissa / POWERS[-scale] : mantissa * POWERS[scale];
+        }
+        return Double.parseDouble(new String(buffer, from, pos - from,
+                StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * Reads a variable name and returns the shared variable for it.
+     */
+    private Variable variable() {
+        int from = pos;
+        int hash = 0;
+        while (pos < end && (isLetter(buffer[pos]) || isDigit(buffer[pos]))) {
+            hash = 31 * hash + buffer[pos];
+            pos++;
+        }
+        int mask = variables.length - 1;
+        int slot = (hash ^ hash >>> 16) & mask;
+        while (variables[slot] != null) {
+            if (Arrays.equals(names[slot], 0, names[slot].length, buffer, from, pos)) {
+                return variables[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        byte[] name = Arrays.copyOfRange(buffer, from, pos);
+        Variable variable = new Variable(new String(name, StandardCharsets.ISO_8859_1));
+        variables[slot] = variable;
+        names[slot] = name;
+        if (2 * ++count > variables.length) {
+            grow();
+        }
+        return variable;
+    }
+
+    private void grow() {
+        Variable[] oldVariables = variables;
+        byte[][] oldNames = names;
+        variables = new Variable[2 * oldVariables.length];
+        names = new byte[2 * oldVariables.length][];
+        int mask = variables.length - 1;
+        for (int i = 0; i < oldVariables.length; i++) {
+            if (oldVariables[i] != null) {
+                int hash = 0;
+                for (byte b : oldNames[i]) {
+                    hash = 31 * hash + b;
+                }
+                int slot = (hash ^ hash >>> 16) & mask;
+                while (variables[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                variables[slot] = oldVariables[i];
+                names[slot] = oldNames[i];
+            }
+        }
+    }
+
+    private void skipSpaces() {
+        while (pos < end && (buffer[pos] == ' ' || buffer[pos] == '\t')) {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + (pos - start));
+    }
+
+    private static boolean isDigit(byte c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter(byte c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '_';
+    }
+}
@@ -1,5 +1,7 @@
 package ru.nsu.vyaznikova;
 
+import java.util.Map;
+
 /**
  * Represents multiplication of two expressions.
  */
@@ -14,6 +16,7 @@ public class Mul extends Expression {
      * @param right The right expression.
      */
     Mul(Expression left, Expression right) {
+        super(hash(3, left, right));
         this.left = left;
         this.right = right;
     }
@@ -35,14 +38,138 @@ public class Mul extends Expression {
     }
 
     /**
-     * Evaluates the product of the left and right expressions.
+     * Returns the derivative of the product built in a factory.
      *
-     * @param expression The string with assigned values for variables.
+     * @param factory The factory that made the expression.
+     * @param difVar  The variable to differentiate with respect to.
+     * @return The derivative made of shared nodes.
+     */
+    @Override
+    Expression derivative(ExpressionFactory factory, String difVar) {
+        Expression derLeft = factory.product(factory.derivative(left, difVar), right);
+        Expression derRight = factory.product(left, factory.derivative(right, difVar));
+        return factory.sum(derLeft, derRight);
+    }
+
+    /**
+     * Returns the product of the simplified operands.
+     *
+     * @param factory The factory that made the expression.
+     * @return The simplified expression made of shared nodes.
+     */
+    @Override
+    Expression simplify(ExpressionFactory factory) {
+        return factory.product(factory.simplify(left), factory.simplify(right));
+    }
+
+    /**
+     * Binds both operands, each once however many operations share it.
+     *
+     * @param bindings The bindings to take the slots from.
+     * @param bound    The bound copies of the nodes bound so far.
+     * @return A Mul expression of the bound operands, or this one
+     *     if they are bound already.
+     */
+    @Override
+    Expression bind(Bindings bindings, Map<Expression, Expression> bound) {
+        Expression boundLeft = bind(left, bindings, bound);
+        Expression boundRight = bind(right, bindings, bound);
+        return boundLeft == left && boundRight == right ? this : new Mul(boundLeft, boundRight);
+    }
+
+    /**
+     * Writes the operands and the product to a postfix program.
+     *
+     * @param compiler The compiler.
+     */
+    @Override
+    void postfix(PostfixProgram.Compiler compiler) {
+        compiler.operation(PostfixProgram.MUL, left, right);
+    }
+
+    /**
+     * Evaluates the product of the bound left and right expressions.
+     *
+     * @param values The values of the variables by slot.
      * @return The product of the evaluated left and right expressions.
      */
     @Override
-    public double eval(String expression) {
-        return left.eval(expression) * right.eval(expression);
+    public double eval(double[] values) {
+        return left.eval(values) * right.eval(values);
+    }
+
+    /**
+     * Writes the bytecode that computes the product of the operands.
+     *
+     * @param code The method being generated.
+     */
+    @Override
+    void emit(ExpressionCompiler.Code code) {
+        code.emit(left);
+        code.emit(right);
+        code.operation(ExpressionCompiler.Code.DMUL);
+    }
+
+    /**
+     * Evaluates the products of the operands for the rows of a block.
+     *
+     * @param block The rows and the temporary arrays.
+     * @param depth The depth of the expression in the tree.
+     * @param out   The array for the values of the expression.
+     */
+    @Override
+    void evalBatch(BatchEvaluator.Block block, int depth, double[] out) {
+        block.eval(left, depth, out);
+        double[] rightValues = block.buffer(depth);
+        block.eval(right, depth + 1, rightValues);
+        for (int i = 0, length = block.length(); i < length; i++) {
+            out[i] *= rightValues[i];
+        }
+    }
+
+    /**
+     * Evaluates the product of the operands on dual numbers.
+     *
+     * @param pass The evaluation.
+     * @return The value and the derivative of the product.
+     */
+    @Override
+    Dual evalDual(Dual.Pass pass) {
+        return pass.eval(left).mul(pass.eval(right));
+    }
+
+    /**
+     * Writes the operands and the product to a tape.
+     *
+     * @param tape The tape.
+     * @return The position of the product on the tape.
+     */
+    @Override
+    int record(Tape tape) {
+        return tape.mul(tape.record(left), tape.record(right));
+    }
+
+    /**
+     * Makes the shared copy of the product in a factory.
+     *
+     * @param factory The factory.
+     * @return The shared node.
+     */
+    @Override
+    Expression copy(ExpressionFactory factory) {
+        return factory.mul(factory.copy(left), factory.copy(right));
+    }
+
+    /**
+     * Evaluates the product of the operands, each computed once per call.
+     *
+     * @param factory The factory that made the expression.
+     * @param values  The values of the variables by slot.
+     * @return The product.
+     */
+    @Override
+    double evalShared(ExpressionFactory factory, double[] values) {
+        return factory.value(left, values) * factory.value(right, values);
     }
 
     /**
@@ -63,8 +190,8 @@ public class Mul extends Expression {
 
         if (leftSimplified instanceof Number
                 && rightSimplified instanceof Number) {
-            return new Number((int) ((Number) leftSimplified).number
-                    * (int) ((Number) rightSimplified).number);
+            return new Number(((Number) leftSimplified).number
+                    * ((Number) rightSimplified).number);
         } else if (leftSimplified instanceof Number
                 && ((Number) leftSimplified).number == 0) {
             return new Number(0);
@@ -81,4 +208,42 @@ public class Mul extends Expression {
 
         return new Mul(leftSimplified, rightSimplified);
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the polynomial of the product of the operands.
+     *
+     * @param simplifier The simplifier.
+     * @return The polynomial.
+     */
+    @Override
+    Simplifier.Polynomial toPolynomial(Simplifier simplifier) {
+        return simplifier.product(simplifier.polynomial(left), simplifier.polynomial(right));
+    }
+
+    /**
+     * Compares the operands of two Mul expressions.
+     *
+     * @param other The object to compare with.
+     * @return true if the other object is a Mul of equal operands.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Mul) || hashCode() != other.hashCode()) {
+            return false;
+        }
+        return equalTrees(this, (Expression) other);
+    }
+
+    @Override
+    Expression left() {
+        return left;
+    }
+
+    @Override
+    Expression right() {
+        return right;
+    }
+}
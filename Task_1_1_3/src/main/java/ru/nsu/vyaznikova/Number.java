@@ -1,17 +1,21 @@
 package ru.nsu.vyaznikova;
 
+import java.util.Arrays;
+import java.util.Map;
+
 /**
  * Represents a number as a mathematical expression.
  */
 public class Number extends Expression {
-    final int number;
+    final double number;
 
     /**
-     * Constructs a Number object with the given integer value.
+     * Constructs a Number object with the given value.
      *
-     * @param num The integer value of the number.
+     * @param num The value of the number.
      */
-    Number(int num) {
+    Number(double num) {
+        super(Double.hashCode(num));
         this.number = num;
     }
 
@@ -28,25 +32,140 @@ public class Number extends Expression {
         return result;
     }
 
+    /**
+     * Returns the derivative of the number built in a factory, which is always 0.
+     *
+     * @param factory The factory that made the expression.
+     * @param difVar  The variable to differentiate with respect to (not used).
+     * @return The shared node for 0.
+     */
+    @Override
+    Expression derivative(ExpressionFactory factory, String difVar) {
+        return factory.number(0);
+    }
+
+    /**
+     * Returns the number itself, since it cannot be simplified.
+     *
+     * @param factory The factory that made the expression (not used).
+     * @return This number.
+     */
+    @Override
+    Expression simplify(ExpressionFactory factory) {
+        return this;
+    }
+
+    /**
+     * Returns the number itself, since it has no variables.
+     *
+     * @param bindings The bindings (not used).
+     * @param bound    The bound copies of the nodes (not used).
+     * @return This number.
+     */
+    @Override
+    Expression bind(Bindings bindings, Map<Expression, Expression> bound) {
+        return this;
+    }
+
+    /**
+     * Evaluates the number, which returns its own value.
+     *
+     * @param values The values of the variables (not used).
+     * @return The value of the number.
+     */
+    @Override
+    public double eval(double[] values) {
+        return number;
+    }
+
+    /**
+     * Writes the bytecode that pushes the number.
+     *
+     * @param code The method being generated.
+     */
+    @Override
+    void emit(ExpressionCompiler.Code code) {
+        code.constant(number);
+    }
+
+    /**
+     * Writes the number to a postfix program.
+     *
+     * @param compiler The compiler.
+     */
+    @Override
+    void postfix(PostfixProgram.Compiler compiler) {
+        compiler.constant(number);
+    }
+
+    /**
+     * Fills the values for the rows of a block with the number.
+     *
+     * @param block The rows and the temporary arrays.
+     * @param depth The depth of the expression in the tree.
+     * @param out   The array for the values of the expression.
+     */
+    @Override
+    void evalBatch(BatchEvaluator.Block block, int depth, double[] out) {
+        Arrays.fill(out, 0, block.length(), number);
+    }
+
+    /**
+     * Evaluates the number on dual numbers; its derivative is 0.
+     *
+     * @param pass The evaluation (not used).
+     * @return The number with the derivative 0.
+     */
+    @Override
+    Dual evalDual(Dual.Pass pass) {
+        return new Dual(number, 0);
+    }
+
+    /**
+     * Writes the number to a tape.
+     *
+     * @param tape The tape.
+     * @return The position of the number on the tape.
+     */
+    @Override
+    int record(Tape tape) {
+        return tape.constant(number);
+    }
+
+    /**
+     * Makes the shared copy of the number in a factory.
+     *
+     * @param factory The factory.
+     * @return The shared node.
+     */
+    @Override
+    Expression copy(ExpressionFactory factory) {
+        return factory.number(number);
+    }
+
     /**
      * Evaluates the number, which returns its own value.
      *
-     * @param expression The string with assigned values
-     *                   for variables (not used).
-     * @return The integer value of the number as a double.
+     * @param factory The factory that made the expression (not used).
+     * @param values  The values of the variables (not used).
+     * @return The value of the number.
      */
     @Override
-    public double eval(String expression) {
-        return (double) number;
+    double evalShared(ExpressionFactory factory, double[] values) {
+        return number;
     }
 
     /**
      * Returns a string representation of the number.
+     * Whole numbers are written without a fractional part.
      *
      * @return The string representation of the number.
      */
     @Override
     public String printAnswer() {
+        if (number == Math.rint(number) && Math.abs(number) < 1e15) {
+            return String.valueOf((long) number);
+        }
         return String.valueOf(number);
     }
 
@@ -54,4 +173,29 @@ public class Number extends Expression {
     public Expression simplify() {
         return this;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the polynomial of the number, a constant.
+     *
+     * @param simplifier The simplifier.
+     * @return The polynomial.
+     */
+    @Override
+    Simplifier.Polynomial toPolynomial(Simplifier simplifier) {
+        return simplifier.constant(number);
+    }
+
+    /**
+     * Compares the values of two numbers; NaN is equal to itself
+     * and 0 is not equal to -0.
+     *
+     * @param other The object to compare with.
+     * @return true if the other object is a number with the same value.
+     */
+    @Override
+    public boolean equals(Object other) {
+        return this == other || other instanceof Number
+                && Double.doubleToLongBits(number)
+                == Double.doubleToLongBits(((Number) other).number);
+    }
+}
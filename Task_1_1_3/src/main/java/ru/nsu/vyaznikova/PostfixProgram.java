@@ -0,0 +1,329 @@
+package ru.nsu.vyaznikova;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An expression compiled to a program for a stack machine.
+ *
+ * <p>The program is the expression in postfix order: one byte per node for
+ * the operation, and for every number and variable an operand in a separate
+ * array, the position in the pool of constants or the slot. Equal numbers
+ * share one constant. A node shared by several operations, as in an
+ * {@link ExpressionFactory}, is computed once: its value is stored to a
+ * register and loaded from it where it is used again, so a graph with
+ * exponentially many paths gives a program as long as its number of nodes.
+ * Both compiling and evaluating go through the nodes
+ * with explicit stacks rather than recursion, so they work for trees of any
+ * depth, such as chains of hundreds of thousands of additions, on which the
+ * recursive {@link Expression#eval(double[])} overflows the thread stack.
+ * Such a tree cannot be bound with {@link Expression#bind(Bindings)} either,
+ * so the compiler can take the slots of the variables from the bindings.
+ * The stack of values and the registers are allocated with the program and
+ * reused by every call, so a program is not thread-safe.
+ *
+ * <p>Division by zero gives NaN and prints the same message as
+ * {@link Div#eval(double[])}.
+ */
+public final class PostfixProgram {
+    static final byte CONSTANT = 0;
+    static final byte VARIABLE = 1;
+    static final byte ADD = 2;
+    static final byte SUB = 3;
+    static final byte MUL = 4;
+    static final byte DIV = 5;
+    static final byte STORE = 6;
+    static final byte LOAD = 7;
+
+    /**
+     * The operations in postfix order.
+     */
+    private final byte[] code;
+
+    /**
+     * The operands of the numbers and the variables, in the same order.
+     */
+    private final int[] operands;
+
+    /**
+     * The pool of constants.
+     */
+    private final double[] constants;
+
+    /**
+     * The stack of values.
+     */
+    private final double[] stack;
+
+    /**
+     * The values of the shared nodes.
+     */
+    private final double[] registers;
+
+    /**
+     * Compiles a bound expression.
+     *
+     * @param expression The bound expression.
+     * @throws IllegalStateException If a variable is not bound.
+     */
+    public PostfixProgram(Expression expression) {
+        this(expression, null);
+    }
+
+    /**
+     * Compiles an expression, reading every variable from its slot in the
+     * bindings. The expression need not be bound.
+     *
+     * @param expression The expression.
+     * @param bindings   The bindings to take the slots from, or null
+     *                   if the expression is bound.
+     * @throws IllegalArgumentException If a variable has no slot in the bindings.
+     * @throws IllegalStateException    If the bindings are null and a variable is not bound.
+     */
+    public PostfixProgram(Expression expression, Bindings bindings) {
+        Compiler compiler = new Compiler(bindings);
+        compiler.compile(expression);
+        code = Arrays.copyOf(compiler.code, compiler.length);
+        operands = Arrays.copyOf(compiler.operands, compiler.operandCount);
+        constants = Arrays.copyOf(compiler.constants, compiler.constantCount);
+        stack = new double[compiler.maxDepth];
+        registers = new double[compiler.registers.size()];
+    }
+
+    /**
+     * Returns the number of operations.
+     *
+     * @return The number of nodes of the expression, with the stores and
+     *     loads of the shared nodes.
+     */
+    public int size() {
+        return code.length;
+    }
+
+    /**
+     * Returns the number of distinct constants.
+     *
+     * @return The size of the pool of constants.
+     */
+    public int constantCount() {
+        return constants.length;
+    }
+
+    /**
+     * Returns the largest number of values on the stack.
+     *
+     * @return The size of the stack.
+     */
+    public int stackSize() {
+        return stack.length;
+    }
+
+    /**
+     * Evaluates the program.
+     *
+     * @param values The values of the variables by slot.
+     * @return The value of the expression.
+     */
+    public double eval(double[] values) {
+        byte[] code = this.code;
+        int[] operands = this.operands;
+        double[] stack = this.stack;
+        double[] registers = this.registers;
+        int top = -1;
+        int operand = 0;
+        for (byte operation : code) {
+            switch (operation) {
+                case CONSTANT:
+                    stack[++top] = constants[operands[operand++]];
+                    break;
+                case VARIABLE:
+                    stack[++top] = values[operands[operand++]];
+                    break;
+                case STORE:
+                    registers[operands[operand++]] = stack[top];
+                    break;
+                case LOAD:
+                    stack[++top] = registers[operands[operand++]];
+                    break;
+                case ADD:
+                    top--;
+                    stack[top] += stack[top + 1];
+                    break;
+                case SUB:
+                    top--;
+                    stack[top] -= stack[top + 1];
+                    break;
+                case MUL:
+                    top--;
+                    stack[top] *= stack[top + 1];
+                    break;
+                case DIV:
+                    top--;
+                    if (stack[top + 1] == 0) {
+                        System.err.println("Error: Division by zero");
+                        stack[top] = Double.NaN;
+                    } else {
+                        stack[top] /= stack[top + 1];
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown operation: " + operation);
+            }
+        }
+        return stack[0];
+    }
+
+    /**
+     * Writes a program, going through the nodes with a stack of work. An
+     * operation waits on the stack of work, with its node, until its operands
+     * are written.
+     */
+    static final class Compiler {
+        private final Bindings bindings;
+        private Set<Expression> shared;
+        private final Map<Expression, Integer> registers = new IdentityHashMap<>();
+        private Expression current;
+        private Expression[] work = new Expression[16];
+        private byte[] pending = new byte[16];
+        private int workSize;
+
+        private byte[] code = new byte[64];
+        private int length;
+        private int[] operands = new int[16];
+        private int operandCount;
+        private double[] constants = new double[16];
+        private int constantCount;
+        private final Map<Long, Integer> pool = new HashMap<>();
+        private int depth;
+        private int maxDepth;
+
+        /**
+         * Constructs a compiler.
+         *
+         * @param bindings The bindings to take the slots from, or null.
+         */
+        Compiler(Bindings bindings) {
+            this.bindings = bindings;
+        }
+
+        /**
+         * Writes an expression, taking the nodes from the stack of work
+         * until it is empty.
+         *
+         * @param expression The bound expression.
+         */
+        void compile(Expression expression) {
+            shared = Expression.sharedNodes(expression);
+            push(expression, (byte) 0);
+            while (workSize > 0) {
+                workSize--;
+                Expression node = work[workSize];
+                byte operation = pending[workSize];
+                work[workSize] = null;
+                if (operation != 0) {
+                    write(operation);
+                    depth--;
+                    if (shared.contains(node)) {
+                        int register = registers.size();
+                        registers.put(node, register);
+                        write(STORE);
+                        operand(register);
+                    }
+                } else {
+                    Integer register = registers.get(node);
+                    if (register != null) {
+                        load(LOAD, register);
+                    } else {
+                        current = node;
+                        node.postfix(this);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Writes the operands and then the operation.
+         *
+         * @param operation The operation.
+         * @param left      The left operand.
+         * @param right     The right operand.
+         */
+        void operation(byte operation, Expression left, Expression right) {
+            push(current, operation);
+            push(right, (byte) 0);
+            push(left, (byte) 0);
+        }
+
+        /**
+         * Writes a number.
+         *
+         * @param value The number.
+         */
+        void constant(double value) {
+            Integer index = pool.get(Double.doubleToLongBits(value));
+            if (index == null) {
+                if (constantCount == constants.length) {
+                    constants = Arrays.copyOf(constants, 2 * constantCount);
+                }
+                index = constantCount;
+                constants[constantCount++] = value;
+                pool.put(Double.doubleToLongBits(value), index);
+            }
+            load(CONSTANT, index);
+        }
+
+        /**
+         * Writes a variable, from its slot in the bindings if there are any.
+         *
+         * @param name The name of the variable.
+         * @param slot The slot the variable is bound to, or -1.
+         * @throws IllegalArgumentException If the variable has no slot in the bindings.
+         * @throws IllegalStateException    If there are no bindings and the variable
+         *                                  is not bound.
+         */
+        void variable(String name, int slot) {
+            if (bindings != null) {
+                slot = bindings.indexOf(name);
+                if (slot < 0) {
+                    throw bindings.missing(name);
+                }
+            } else if (slot < 0) {
+                throw new IllegalStateException("Variable is not bound: " + name);
+            }
+            load(VARIABLE, slot);
+        }
+
+        private void load(byte operation, int operand) {
+            write(operation);
+            operand(operand);
+            maxDepth = Math.max(maxDepth, ++depth);
+        }
+
+        private void operand(int operand) {
+            if (operandCount == operands.length) {
+                operands = Arrays.copyOf(operands, 2 * operandCount);
+            }
+            operands[operandCount++] = operand;
+        }
+
+        private void write(byte operation) {
+            if (length == code.length) {
+                code = Arrays.copyOf(code, 2 * length);
+            }
+            code[length++] = operation;
+        }
+
+        private void push(Expression node, byte operation) {
+            if (workSize == work.length) {
+                work = Arrays.copyOf(work, 2 * workSize);
+                pending = Arrays.copyOf(pending, 2 * workSize);
+            }
+            work[workSize] = node;
+            pending[workSize] = operation;
+            workSize++;
+        }
+    }
+}
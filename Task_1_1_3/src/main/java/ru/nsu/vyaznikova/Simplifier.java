@@ -0,0 +1,429 @@
+package ru.nsu.vyaznikova;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Rewrites expressions to a canonical polynomial form.
+ *
+ * <p>Every expression is turned into a sum of terms, each a coefficient
+ * times a product of atoms with powers. The atoms are the variables and the
+ * subexpressions that are not polynomials, such as a division by something
+ * other than a number; their operands are brought to the same form first.
+ * The rules are those of polynomials:
+ * <ul>
+ *     <li>sums and differences are flattened and equal terms are collected,
+ *     adding up their coefficients in {@code double};</li>
+ *     <li>products are flattened and multiplied out if their terms collect
+ *     into no more terms than the factors have together, and equal atoms
+ *     are collected into powers;</li>
+ *     <li>dividing by a number other than 0 divides the coefficients;</li>
+ *     <li>terms with the coefficient 0 are dropped.</li>
+ * </ul>
+ * The terms are written in a fixed order, the highest degree first, and the
+ * rewriting is repeated until the expression no longer changes, so equal
+ * polynomials get the same expression whatever they were written as. The
+ * atoms are ordered by cheap keys: the other atoms come before the
+ * variables, the variables are ordered by name and the other atoms by their
+ * structural hash codes, so ordering them never walks the subexpressions.
+ *
+ * <p>A product that is not multiplied out, because it would grow, is kept as
+ * an atom, and such an atom is not copied into the terms of another sum
+ * either. So a polynomial of one variable always gets its expanded form,
+ * while a long product such as {@code (a + b) * (c + d) * (e + f)} keeps
+ * its factors.
+ * The values of a simplified expression may differ from the original ones
+ * in the last bits, since the operations are done in another order.
+ */
+public final class Simplifier {
+
+    /**
+     * The largest number of products of terms computed to multiply out a product.
+     */
+    static final int MAX_TERMS = 4096;
+
+    /**
+     * The largest number of times the rewriting is repeated.
+     */
+    static final int MAX_PASSES = 8;
+
+    /**
+     * The polynomials of the nodes already rewritten in this pass.
+     */
+    private final Map<Expression, Polynomial> polynomials = new IdentityHashMap<>();
+
+    /**
+     * The atoms made of products that were not multiplied out.
+     */
+    private final Set<Expression> products = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private Simplifier() {
+    }
+
+    /**
+     * Rewrites an expression to its canonical form.
+     *
+     * @param expression The expression.
+     * @return The simplified expression.
+     */
+    public static Expression simplify(Expression expression) {
+        Expression current = expression;
+        for (int pass = 0; pass < MAX_PASSES; pass++) {
+            Expression next = new Simplifier().polynomial(current).toExpression();
+            if (next.equals(current)) {
+                return next;
+            }
+            current = next;
+        }
+        return current;
+    }
+
+    /**
+     * Returns the polynomial of a node, rewriting every shared node once.
+     * The operands are rewritten before the operations with an explicit
+     * stack, so deep expressions do not overflow the call stack.
+     *
+     * @param node The node.
+     * @return The polynomial.
+     */
+    Polynomial polynomial(Expression node) {
+        Polynomial polynomial = polynomials.get(node);
+        if (polynomial != null) {
+            return polynomial;
+        }
+        Deque<Expression> work = new ArrayDeque<>();
+        work.push(node);
+        while (!work.isEmpty()) {
+            Expression next = work.peek();
+            if (polynomials.containsKey(next)) {
+                work.pop();
+            } else if (next.left() != null && !polynomials.containsKey(next.left())) {
+                work.push(next.left());
+            } else if (next.right() != null && !polynomials.containsKey(next.right())) {
+                work.push(next.right());
+            } else {
+                polynomials.put(work.pop(), next.toPolynomial(this));
+            }
+        }
+        return polynomials.get(node);
+    }
+
+    /**
+     * Returns the polynomial of a number.
+     *
+     * @param value The number.
+     * @return The polynomial.
+     */
+    Polynomial constant(double value) {
+        Polynomial polynomial = new Polynomial();
+        polynomial.add(Monomial.ONE, value);
+        return polynomial;
+    }
+
+    /**
+     * Returns the polynomial of an atom.
+     *
+     * @param atom The atom, already in canonical form.
+     * @return The polynomial.
+     */
+    Polynomial atom(Expression atom) {
+        Polynomial polynomial = new Polynomial();
+        polynomial.add(new Monomial(new Expression[] {atom}, new int[] {1}), 1);
+        polynomial.expression = atom;
+        return polynomial;
+    }
+
+    /**
+     * Returns the product of two polynomials multiplied out,
+     * or an atom if that would give more terms.
+     *
+     * @param left  The left polynomial.
+     * @param right The right polynomial.
+     * @return The polynomial of the product.
+     */
+    Polynomial product(Polynomial left, Polynomial right) {
+        if ((long) left.terms.size() * right.terms.size() > MAX_TERMS
+                || left.terms.size() > 1 && hasProduct(right)
+                || right.terms.size() > 1 && hasProduct(left)) {
+            return keepProduct(left, right);
+        }
+        Polynomial product = new Polynomial();
+        for (Map.Entry<Monomial, Double> l : left.terms.entrySet()) {
+            for (Map.Entry<Monomial, Double> r : right.terms.entrySet()) {
+                product.add(l.getKey().times(r.getKey()), l.getValue() * r.getValue());
+            }
+        }
+        if (product.terms.size() > left.terms.size() + right.terms.size()) {
+            return keepProduct(left, right);
+        }
+        return product;
+    }
+
+    private Polynomial keepProduct(Polynomial left, Polynomial right) {
+        Expression product = new Mul(left.toExpression(), right.toExpression());
+        products.add(product);
+        return atom(product);
+    }
+
+    private boolean hasProduct(Polynomial polynomial) {
+        for (Monomial monomial : polynomial.terms.keySet()) {
+            for (Expression atom : monomial.atoms) {
+                if (products.contains(atom)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the quotient of two polynomials: the coefficients divided
+     * if the divisor is a number other than 0, an atom otherwise.
+     *
+     * @param left  The dividend.
+     * @param right The divisor.
+     * @return The polynomial of the quotient.
+     */
+    Polynomial quotient(Polynomial left, Polynomial right) {
+        if (right.isConstant() && right.constant() != 0) {
+            double divisor = right.constant();
+            Polynomial quotient = new Polynomial();
+            left.terms.forEach((monomial, coefficient) ->
+                    quotient.add(monomial, coefficient / divisor));
+            return quotient;
+        }
+        return atom(new Div(left.toExpression(), right.toExpression()));
+    }
+
+    /**
+     * A sum of monomials with coefficients. It is changed only while it is built.
+     */
+    static final class Polynomial {
+        private final TreeMap<Monomial, Double> terms = new TreeMap<>();
+
+        /**
+         * The expression of the polynomial, written once when it is first needed.
+         */
+        private Expression expression;
+
+        /**
+         * Returns the sum of the polynomials.
+         *
+         * @param other The polynomial to add.
+         * @return The sum.
+         */
+        Polynomial plus(Polynomial other) {
+            return combine(other, 1);
+        }
+
+        /**
+         * Returns the difference of the polynomials.
+         *
+         * @param other The polynomial to subtract.
+         * @return The difference.
+         */
+        Polynomial minus(Polynomial other) {
+            return combine(other, -1);
+        }
+
+        private Polynomial combine(Polynomial other, double sign) {
+            Polynomial result = new Polynomial();
+            result.terms.putAll(terms);
+            other.terms.forEach((monomial, coefficient) ->
+                    result.add(monomial, sign * coefficient));
+            return result;
+        }
+
+        private void add(Monomial monomial, double coefficient) {
+            double sum = terms.getOrDefault(monomial, 0.0) + coefficient;
+            if (sum == 0) {
+                terms.remove(monomial);
+            } else {
+                terms.put(monomial, sum);
+            }
+        }
+
+        private boolean isConstant() {
+            return terms.isEmpty() || terms.size() == 1 && terms.containsKey(Monomial.ONE);
+        }
+
+        private double constant() {
+            return terms.getOrDefault(Monomial.ONE, 0.0);
+        }
+
+        /**
+         * Writes the polynomial as an expression: the terms from the highest
+         * degree, each as the coefficient times the atoms, joined with
+         * {@code +} or with {@code -} if the coefficient is negative.
+         * The expression is written once, so a polynomial used by several
+         * operations gives them the same expression.
+         *
+         * @return The expression.
+         */
+        Expression toExpression() {
+            if (expression == null) {
+                expression = write();
+            }
+            return expression;
+        }
+
+        private Expression write() {
+            Expression sum = null;
+            for (Map.Entry<Monomial, Double> term : terms.entrySet()) {
+                double coefficient = term.getValue();
+                if (sum == null) {
+                    sum = term.getKey().toExpression(coefficient);
+                } else if (coefficient < 0) {
+                    sum = new Sub(sum, term.getKey().toExpression(-coefficient));
+                } else {
+                    sum = new Add(sum, term.getKey().toExpression(coefficient));
+                }
+            }
+            return sum == null ? new Number(0) : sum;
+        }
+    }
+
+    /**
+     * A product of atoms with powers, the atoms in the order of
+     * {@link #compareAtoms(Expression, Expression)}.
+     */
+    static final class Monomial implements Comparable<Monomial> {
+
+        /**
+         * The monomial without atoms.
+         */
+        static final Monomial ONE = new Monomial(new Expression[0], new int[0]);
+
+        private final Expression[] atoms;
+        private final int[] powers;
+        private final int degree;
+
+        Monomial(Expression[] atoms, int[] powers) {
+            this.atoms = atoms;
+            this.powers = powers;
+            this.degree = Arrays.stream(powers).sum();
+        }
+
+        /**
+         * Returns the product of the monomials.
+         *
+         * @param other The monomial to multiply by.
+         * @return The product.
+         */
+        Monomial times(Monomial other) {
+            Expression[] productAtoms = new Expression[atoms.length + other.atoms.length];
+            int[] productPowers = new int[productAtoms.length];
+            int i = 0;
+            int j = 0;
+            int size = 0;
+            while (i < atoms.length || j < other.atoms.length) {
+                int order = i == atoms.length ? 1
+                        : j == other.atoms.length ? -1 : compareAtoms(atoms[i], other.atoms[j]);
+                if (order <= 0) {
+                    productAtoms[size] = atoms[i];
+                    productPowers[size] = powers[i++];
+                    if (order == 0) {
+                        productPowers[size] += other.powers[j++];
+                    }
+                } else {
+                    productAtoms[size] = other.atoms[j];
+                    productPowers[size] = other.powers[j++];
+                }
+                size++;
+            }
+            return new Monomial(Arrays.copyOf(productAtoms, size),
+                    Arrays.copyOf(productPowers, size));
+        }
+
+        /**
+         * Writes the monomial times a coefficient as an expression.
+         *
+         * @param coefficient The coefficient.
+         * @return The coefficient, if it is not 1, times every atom
+         *     as many times as its power.
+         */
+        Expression toExpression(double coefficient) {
+            Expression product = coefficient == 1 && atoms.length > 0
+                    ? null : new Number(coefficient);
+            for (int i = 0; i < atoms.length; i++) {
+                for (int power = 0; power < powers[i]; power++) {
+                    product = product == null ? atoms[i] : new Mul(product, atoms[i]);
+                }
+            }
+            return product;
+        }
+
+        /**
+         * Orders the monomials from the highest degree,
+         * and then by their atoms and powers.
+         *
+         * @param other The monomial to compare with.
+         * @return A negative number if this monomial goes first.
+         */
+        @Override
+        public int compareTo(Monomial other) {
+            if (degree != other.degree) {
+                return Integer.compare(other.degree, degree);
+            }
+            int length = Math.min(atoms.length, other.atoms.length);
+            for (int i = 0; i < length; i++) {
+                int order = compareAtoms(atoms[i], other.atoms[i]);
+                if (order != 0) {
+                    return order;
+                }
+                if (powers[i] != other.powers[i]) {
+                    return Integer.compare(other.powers[i], powers[i]);
+                }
+            }
+            return Integer.compare(atoms.length, other.atoms.length);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Monomial && compareTo((Monomial) other) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(atoms) * 31 + Arrays.hashCode(powers);
+        }
+
+        /**
+         * Orders two atoms: the other atoms before the variables, the
+         * variables by name and the other atoms by their hash codes, which
+         * are kept in the nodes. Only atoms with the same hash code are
+         * compared by their structure, and if they still differ, which is
+         * rare, by their strings.
+         *
+         * @param left  The left atom.
+         * @param right The right atom.
+         * @return A negative number if the left atom goes first, 0 if they are equal.
+         */
+        static int compareAtoms(Expression left, Expression right) {
+            if (left == right) {
+                return 0;
+            }
+            boolean leftVariable = left instanceof Variable;
+            if (leftVariable != right instanceof Variable) {
+                return leftVariable ? 1 : -1;
+            }
+            if (leftVariable) {
+                int order = left.printAnswer().compareTo(right.printAnswer());
+                if (order != 0) {
+                    return order;
+                }
+            }
+            int order = Integer.compare(left.hashCode(), right.hashCode());
+            if (order != 0 || left.equals(right)) {
+                return order;
+            }
+            return left.printAnswer().compareTo(right.printAnswer());
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package ru.nsu.vyaznikova;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A bound expression recorded for reverse mode automatic differentiation.
+ *
+ * <p>The nodes are written to the tape once, in an order in which the
+ * operands come before the operation, as an operation code and the
+ * positions of the operands in primitive arrays; a node shared by several
+ * operations, such as the nodes of an {@link ExpressionFactory}, is written
+ * once. {@link #gradient(double[], double[])} then computes the values of
+ * all entries in one forward sweep and the derivatives of the result by all
+ * of them in one backward sweep, so the full gradient costs about two
+ * evaluations however many variables there are.
+ *
+ * <p>The arrays for the values and the derivatives are allocated with the
+ * tape and reused by every call, so a tape is not thread-safe.
+ */
+public final class Tape {
+    private static final byte CONSTANT = 0;
+    private static final byte VARIABLE = 1;
+    private static final byte ADD = 2;
+    private static final byte SUB = 3;
+    private static final byte MUL = 4;
+    private static final byte DIV = 5;
+
+    /**
+     * The operations of the entries.
+     */
+    private byte[] operations = new byte[64];
+
+    /**
+     * The left operands, or the slots of the variables.
+     */
+    private int[] left = new int[64];
+
+    /**
+     * The right operands.
+     */
+    private int[] right = new int[64];
+
+    /**
+     * The values of the constants.
+     */
+    private double[] constants = new double[64];
+
+    /**
+     * The number of entries.
+     */
+    private int size;
+
+    /**
+     * The number of slots the variables take.
+     */
+    private int slots;
+
+    /**
+     * The positions of the nodes written so far.
+     */
+    private Map<Expression, Integer> positions = new IdentityHashMap<>();
+
+    /**
+     * The values of the entries.
+     */
+    private final double[] values;
+
+    /**
+     * The derivatives of the result by the entries.
+     */
+    private final double[] adjoints;
+
+    /**
+     * Records a bound expression.
+     *
+     * @param expression The bound expression.
+     * @throws IllegalStateException If a variable is not bound.
+     */
+    public Tape(Expression expression) {
+        record(expression);
+        positions = null;
+        operations = Arrays.copyOf(operations, size);
+        left = Arrays.copyOf(left, size);
+        right = Arrays.copyOf(right, size);
+        constants = Arrays.copyOf(constants, size);
+        values = new double[size];
+        adjoints = new double[size];
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return The number of distinct nodes of the expression.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Evaluates the expression.
+     *
+     * @param values The values of the variables by slot.
+     * @return The value of the expression.
+     */
+    public double eval(double[] values) {
+        forward(values);
+        return this.values[size - 1];
+    }
+
+    /**
+     * Evaluates the expression and its derivatives by all variables.
+     *
+     * @param values   The values of the variables by slot.
+     * @param gradient The array for the derivatives by slot; slots of
+     *                 variables that do not occur get 0.
+     * @return The value of the expression.
+     * @throws IllegalArgumentException If the gradient has fewer slots than the variables.
+     */
+    public double gradient(double[] values, double[] gradient) {
+        if (gradient.length < slots) {
+            throw new IllegalArgumentException("The gradient needs " + slots + " slots");
+        }
+        forward(values);
+        double[] v = this.values;
+        double[] adjoint = adjoints;
+        Arrays.fill(adjoint, 0);
+        Arrays.fill(gradient, 0);
+        adjoint[size - 1] = 1;
+        for (int i = size - 1; i >= 0; i--) {
+            double a = adjoint[i];
+            int l = left[i];
+            int r = right[i];
+            switch (operations[i]) {
+                case VARIABLE:
+                    gradient[l] += a;
+                    break;
+                case ADD:
+                    adjoint[l] += a;
+                    adjoint[r] += a;
+                    break;
+                case SUB:
+                    adjoint[l] += a;
+                    adjoint[r] -= a;
+                    break;
+                case MUL:
+                    adjoint[l] += a * v[r];
+                    adjoint[r] += a * v[l];
+                    break;
+                case DIV:
+                    adjoint[l] += a / v[r];
+                    adjoint[r] -= a * v[i] / v[r];
+                    break;
+                default:
+                    break;
+            }
+        }
+        return v[size - 1];
+    }
+
+    private void forward(double[] variables) {
+        double[] v = values;
+        for (int i = 0; i < size; i++) {
+            int l = left[i];
+            int r = right[i];
+            switch (operations[i]) {
+                case CONSTANT:
+                    v[i] = constants[i];
+                    break;
+                case VARIABLE:
+                    v[i] = variables[l];
+                    break;
+                case ADD:
+                    v[i] = v[l] + v[r];
+                    break;
+                case SUB:
+                    v[i] = v[l] - v[r];
+                    break;
+                case MUL:
+                    v[i] = v[l] * v[r];
+                    break;
+                default:
+                    if (v[r] == 0) {
+                        System.err.println("Error: Division by zero");
+                        v[i] = Double.NaN;
+                    } else {
+                        v[i] = v[l] / v[r];
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Writes a node and its operands unless it is written already.
+     *
+     * @param node The node.
+     * @return The position of the node.
+     */
+    int record(Expression node) {
+        Integer position = positions.get(node);
+        if (position == null) {
+            position = node.record(this);
+            positions.put(node, position);
+        }
+        return position;
+    }
+
+    /**
+     * Writes a constant.
+     *
+     * @param value The value.
+     * @return The position of the entry.
+     */
+    int constant(double value) {
+        int position = add(CONSTANT, 0, 0);
+        constants[position] = value;
+        return position;
+    }
+
+    /**
+     * Writes a variable.
+     *
+     * @param slot The slot of the variable.
+     * @return The position of the entry.
+     */
+    int variable(int slot) {
+        slots = Math.max(slots, slot + 1);
+        return add(VARIABLE, slot, 0);
+    }
+
+    /**
+     * Writes a sum.
+     *
+     * @param left  The position of the left operand.
+     * @param right The position of the right operand.
+     * @return The position of the entry.
+     */
+    int add(int left, int right) {
+        return add(ADD, left, right);
+    }
+
+    /**
+     * Writes a difference.
+     *
+     * @param left  The position of the left operand.
+     * @param right The position of the right operand.
+     * @return The position of the entry.
+     */
+    int sub(int left, int right) {
+        return add(SUB, left, right);
+    }
+
+    /**
+     * Writes a product.
+     *
+     * @param left  The position of the left operand.
+     * @param right The position of the right operand.
+     * @return The position of the entry.
+     */
+    int mul(int left, int right) {
+        return add(MUL, left, right);
+    }
+
+    /**
+     * Writes a quotient.
+     *
+     * @param left  The position of the left operand.
+     * @param right The position of the right operand.
+     * @return The position of the entry.
+     */
+    int div(int left, int right) {
+        return add(DIV, left, right);
+    }
+
+    private int add(byte operation, int leftOperand, int rightOperand) {
+        if (size == operations.length) {
+            int length = 2 * size;
+            operations = Arrays.copyOf(operations, length);
+            left = Arrays.copyOf(left, length);
+            right = Arrays.copyOf(right, length);
+            constants = Arrays.copyOf(constants, length);
+        }
+        operations[size] = operation;
+        left[size] = leftOperand;
+        right[size] = rightOperand;
+        return size++;
+    }
+}
@@ -1,18 +1,37 @@
 package ru.nsu.vyaznikova;
 
+import java.util.Map;
+
 /**
  * Represents a variable as a mathematical expression.
  */
 public class Variable extends Expression {
     private final String variable;
 
+    /**
+     * The slot the value is read from, or -1 if the variable is not bound.
+     */
+    private final int slot;
+
     /**
      * Constructs a Variable object with the given variable name.
      *
      * @param var The name of the variable.
      */
     public Variable(String var) {
+        this(var, -1);
+    }
+
+    /**
+     * Constructs a Variable object bound to a slot.
+     *
+     * @param var  The name of the variable.
+     * @param slot The slot of the value.
+     */
+    Variable(String var, int slot) {
+        super(31 * var.hashCode() + slot);
         this.variable = var;
+        this.slot = slot;
     }
 
     /**
@@ -36,30 +55,156 @@ public class Variable extends Expression {
     }
 
     /**
-     * Evaluates the value of the variable given the values of variables.
+     * Returns the derivative of the variable built in a factory.
      *
-     * @param expression The string with assigned values for variables.
-     * @return The value of the variable if found in the expression.
+     * @param factory The factory that made the expression.
+     * @param difVar  The variable to differentiate with respect to.
+     * @return The shared node for 1 if the variable is the same as difVar, 0 otherwise.
+     */
+    @Override
+    Expression derivative(ExpressionFactory factory, String difVar) {
+        return factory.number(difVar.equals(variable) ? 1 : 0);
+    }
+
+    /**
+     * Returns the variable itself, since it cannot be simplified.
+     *
+     * @param factory The factory that made the expression (not used).
+     * @return This variable.
+     */
+    @Override
+    Expression simplify(ExpressionFactory factory) {
+        return this;
+    }
+
+    /**
+     * Binds the variable to its slot.
+     *
+     * @param bindings The bindings to take the slot from.
+     * @param bound    The bound copies of the nodes (not used).
+     * @return A Variable object that reads its value from the slot.
      * @throws IllegalArgumentException if the variable
-     *     is not found in the expression.
-     */
-    @Override
-    public double eval(String expression) {
-        String[] assignments = expression.split("; ");
-
-        for (String assignment : assignments) {
-            String[] variableAndValue = assignment.split(" = ");
-            if (variableAndValue[0].equals(variable)) {
-                try {
-                    return Double.parseDouble(variableAndValue[1]);
-                } catch (NumberFormatException e) {
-                    throw new IllegalArgumentException("Invalid variable value: "
-                            + variableAndValue[1]);
-                }
-            }
+     *     has no slot in the bindings.
+     */
+    @Override
+    Expression bind(Bindings bindings, Map<Expression, Expression> bound) {
+        int index = bindings.indexOf(variable);
+        if (index < 0) {
+            throw bindings.missing(variable);
+        }
+        return index == slot ? this : new Variable(variable, index);
+    }
+
+    /**
+     * Evaluates the value of the variable, which is read from its slot.
+     *
+     * @param values The values of the variables by slot.
+     * @return The value of the variable.
+     * @throws IllegalStateException if the variable is not bound.
+     */
+    @Override
+    public double eval(double[] values) {
+        if (slot < 0) {
+            throw new IllegalStateException("Variable is not bound: " + variable);
+        }
+        return values[slot];
+    }
+
+    /**
+     * Writes the bytecode that loads the value from the slot.
+     *
+     * @param code The method being generated.
+     * @throws IllegalStateException if the variable is not bound.
+     */
+    @Override
+    void emit(ExpressionCompiler.Code code) {
+        if (slot < 0) {
+            throw new IllegalStateException("Variable is not bound: " + variable);
+        }
+        code.variable(slot);
+    }
+
+    /**
+     * Writes the variable to a postfix program; the compiler finds the slot.
+     *
+     * @param compiler The compiler.
+     * @throws IllegalStateException if the variable is not bound
+     *     and the compiler has no bindings.
+     */
+    @Override
+    void postfix(PostfixProgram.Compiler compiler) {
+        compiler.variable(variable, slot);
+    }
+
+    /**
+     * Copies the values from the column of the slot for the rows of a block.
+     *
+     * @param block The rows and the temporary arrays.
+     * @param depth The depth of the expression in the tree.
+     * @param out   The array for the values of the expression.
+     * @throws IllegalStateException if the variable is not bound.
+     */
+    @Override
+    void evalBatch(BatchEvaluator.Block block, int depth, double[] out) {
+        if (slot < 0) {
+            throw new IllegalStateException("Variable is not bound: " + variable);
         }
+        block.load(slot, out);
+    }
 
-        throw new IllegalArgumentException("Variable not found in the expression: " + variable);
+    /**
+     * Evaluates the variable on dual numbers.
+     *
+     * @param pass The evaluation.
+     * @return The value and the derivative from the slot.
+     * @throws IllegalStateException if the variable is not bound.
+     */
+    @Override
+    Dual evalDual(Dual.Pass pass) {
+        if (slot < 0) {
+            throw new IllegalStateException("Variable is not bound: " + variable);
+        }
+        return pass.variable(slot);
+    }
+
+    /**
+     * Writes the variable to a tape.
+     *
+     * @param tape The tape.
+     * @return The position of the variable on the tape.
+     * @throws IllegalStateException if the variable is not bound.
+     */
+    @Override
+    int record(Tape tape) {
+        if (slot < 0) {
+            throw new IllegalStateException("Variable is not bound: " + variable);
+        }
+        return tape.variable(slot);
+    }
+
+    /**
+     * Makes the shared copy of the variable in a factory,
+     * bound if the factory is binding.
+     *
+     * @param factory The factory.
+     * @return The shared node.
+     */
+    @Override
+    Expression copy(ExpressionFactory factory) {
+        return factory.variable(variable, slot);
+    }
+
+    /**
+     * Evaluates the value of the variable, which is read from its slot.
+     *
+     * @param factory The factory that made the expression (not used).
+     * @param values  The values of the variables by slot.
+     * @return The value of the variable.
+     * @throws IllegalStateException if the variable is not bound.
+     */
+    @Override
+    double evalShared(ExpressionFactory factory, double[] values) {
+        return eval(values);
     }
 
     /**
@@ -76,4 +221,33 @@ public class Variable extends Expression {
     public Expression simplify() {
         return this;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the polynomial of the variable, an atom.
+     *
+     * @param simplifier The simplifier.
+     * @return The polynomial.
+     */
+    @Override
+    Simplifier.Polynomial toPolynomial(Simplifier simplifier) {
+        return simplifier.atom(this);
+    }
+
+    /**
+     * Compares the names and the slots of two variables.
+     *
+     * @param other The object to compare with.
+     * @return true if the other object is the same variable in the same slot.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Variable)) {
+            return false;
+        }
+        Variable that = (Variable) other;
+        return slot == that.slot && variable.equals(that.variable);
+    }
+}
@@ -0,0 +1,83 @@
+package ru.nsu.vyaznikova;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class BatchEvaluatorTest {
+
+    /**
+     * Tests that every row gets the same value as from eval.
+     */
+    @Test
+    void evalBatchRows() {
+        Bindings bindings = Bindings.parse("x = 0; y = 0");
+        Expression e = Expression.parse("(x - 1) * (y + 2.5) / (x * x + 1) - 3 * y")
+                .bind(bindings);
+        int rows = 3 * BatchEvaluator.BLOCK + 17;
+        double[][] columns = random(2, rows, new Random(1));
+        double[] out = new double[rows];
+        e.evalBatch(columns, out);
+        double[] values = new double[2];
+        for (int row = 0; row < rows; row++) {
+            values[0] = columns[0][row];
+            values[1] = columns[1][row];
+            assertEquals(e.eval(values), out[row]);
+        }
+    }
+
+    /**
+     * Tests that rows split between threads are all computed.
+     */
+    @Test
+    void evalBatchParallel() {
+        Expression e = Expression.parse("x * 2 + y").bind(Bindings.parse("x = 0; y = 0"));
+        int rows = 5 * BatchEvaluator.PARALLEL_ROWS + 3;
+        double[][] columns = new double[2][rows];
+        for (int row = 0; row < rows; row++) {
+            columns[0][row] = row;
+            columns[1][row] = -row;
+        }
+        double[] out = new double[rows];
+        e.evalBatch(columns, out);
+        for (int row = 0; row < rows; row++) {
+            assertEquals(row, out[row]);
+        }
+    }
+
+    /**
+     * Tests constants and division by zero in a batch.
+     */
+    @Test
+    void evalBatchDivisionByZero() {
+        Expression e = Expression.parse("5 / x").bind(Bindings.parse("x = 0"));
+        double[] out = new double[3];
+        e.evalBatch(new double[][] {{1, 0, 2}}, out);
+        assertEquals(5.0, out[0]);
+        assertTrue(Double.isNaN(out[1]));
+        assertEquals(2.5, out[2]);
+    }
+
+    /**
+     * Tests that short columns are rejected.
+     */
+    @Test
+    void evalBatchShortColumn() {
+        Expression e = Expression.parse("x + 1").bind(Bindings.parse("x = 0"));
+        assertThrows(IllegalArgumentException.class,
+                () -> e.evalBatch(new double[][] {{1, 2}}, new double[3]));
+    }
+
+    private static double[][] random(int count, int rows, Random random) {
+        double[][] columns = new double[count][rows];
+        for (double[] column : columns) {
+            for (int row = 0; row < rows; row++) {
+                column[row] = random.nextDouble() * 20 - 10;
+            }
+        }
+        return columns;
+    }
+}
@@ -0,0 +1,102 @@
+package ru.nsu.vyaznikova;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class BindingsTest {
+
+    /**
+     * Tests parsing assignments into slots.
+     */
+    @Test
+    void parseAssignments() {
+        Bindings bindings = Bindings.parse("x = 10; y = 2.5;z=-1");
+        assertEquals(3, bindings.size());
+        assertEquals(0, bindings.indexOf("x"));
+        assertEquals("y", bindings.name(1));
+        assertEquals(2.5, bindings.get("y"));
+        assertEquals(-1.0, bindings.values()[bindings.indexOf("z")]);
+        assertEquals(-1, bindings.indexOf("w"));
+        assertEquals(1.0, Bindings.parse("x = 1; x = 2").get("x"));
+    }
+
+    /**
+     * Tests that values are kept when adding variables makes the slots grow.
+     */
+    @Test
+    void manyVariables() {
+        Bindings bindings = new Bindings();
+        for (int i = 0; i < 20; i++) {
+            bindings.set("x" + i, i + 0.5);
+        }
+        assertEquals(20, bindings.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i + 0.5, bindings.get("x" + i));
+            assertEquals(i + 0.5, bindings.values()[i]);
+        }
+        Bindings parsed = Bindings.parse("a = 1; b = 2; c = 3; d = 4; e = 5; f = 6; g = 7; "
+                + "h = 8; i = 9; j = 10");
+        assertEquals(9.0, parsed.get("i"));
+        assertEquals(10.0, parsed.get("j"));
+        assertEquals(9.0, Expression.parse("a + i + j - h - c").eval(
+                "a = 1; b = 2; c = 3; d = 4; e = 5; f = 6; g = 7; h = 8; i = 9; j = 10"));
+    }
+
+    /**
+     * Tests that invalid assignments are rejected.
+     */
+    @Test
+    void parseInvalid() {
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> Bindings.parse("x = abc"));
+        assertEquals("Invalid variable value: abc", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> Bindings.parse("x 1"));
+    }
+
+    /**
+     * Tests evaluating a bound expression for different values
+     * without binding it again.
+     */
+    @Test
+    void evalBound() {
+        Bindings bindings = new Bindings();
+        bindings.set("x", 0);
+        bindings.set("y", 0);
+        Expression e = Expression.parse("x * x + y / 2").bind(bindings);
+        double[] values = bindings.values();
+        values[0] = 3;
+        values[1] = 4;
+        assertEquals(11.0, e.eval(values));
+        values[0] = -1;
+        assertEquals(3.0, e.eval(values));
+    }
+
+    /**
+     * Tests that a deep tree with many variable leaves is evaluated
+     * with a single parse of the assignments.
+     */
+    @Test
+    void evalManyLeaves() {
+        assertEquals(15_000.0, balanced(0, 10_000).eval("x = 1; y = 2"), 1e-9);
+    }
+
+    private static Expression balanced(int from, int to) {
+        if (to - from == 1) {
+            return new Variable(from % 2 == 0 ? "x" : "y");
+        }
+        int middle = (from + to) >>> 1;
+        return new Add(balanced(from, middle), balanced(middle, to));
+    }
+
+    /**
+     * Tests that an unbound variable cannot be evaluated by slot.
+     */
+    @Test
+    void evalUnbound() {
+        assertThrows(IllegalStateException.class, () -> new Variable("x").eval(new double[1]));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Variable("x").bind(new Bindings()));
+    }
+}
@@ -1,7 +1,11 @@
 package ru.nsu.vyaznikova;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
 import org.junit.jupiter.api.Test;
 
 class DerivateTest {
@@ -47,4 +51,77 @@ class DerivateTest {
         assertEquals("(((1 * 5) - (x * 0)) / (5 * 5))",
                 result.printAnswer());
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests derivatives of higher orders of a polynomial.
+     */
+    @Test
+    void testDerivativeOrder() {
+        StringBuilder text = new StringBuilder("(x + 1)");
+        for (int i = 2; i <= 10; i++) {
+            text.append(" * (x + ").append(i).append(')');
+        }
+        Expression e = Expression.parse(text.toString());
+        ExpressionFactory factory = new ExpressionFactory();
+        assertEquals("3628800", factory.derivative(e, "x", 10).printAnswer());
+        assertTrue(factory.size() < 1000);
+        assertEquals("0", e.derivative("x", 11).printAnswer());
+        assertEquals("(x * x)", Expression.parse("x * x * 1 + 0").derivative("x", 0)
+                .printAnswer());
+        assertEquals(12.0, Expression.parse("x * x * x + y").derivative("x", 2).eval("x = 2"));
+        assertThrows(IllegalArgumentException.class, () -> e.derivative("x", -1));
+    }
+
+    /**
+     * Tests that a derivative of a high order that is not a constant
+     * has its terms collected and keeps its value.
+     */
+    @Test
+    void testDerivativeOrderCollected() {
+        StringBuilder text = new StringBuilder("(x + 1)");
+        for (int i = 2; i <= 12; i++) {
+            text.append(" * (x + ").append(i).append(')');
+        }
+        Expression e = Expression.parse(text.toString());
+        Expression derivative = e.derivative("x", 8);
+        assertTrue(derivative.printAnswer().length() < 1000);
+
+        ExpressionFactory factory = new ExpressionFactory();
+        Expression expected = e;
+        for (int i = 0; i < 8; i++) {
+            expected = factory.derivative(expected, "x");
+        }
+        for (double x = -3; x <= 1; x += 0.5) {
+            String assignments = "x = " + x;
+            double value = factory.eval(expected, assignments);
+            assertEquals(value, derivative.eval(assignments), 1e-9 * Math.abs(value));
+        }
+    }
+
+    /**
+     * Tests that derivatives are remembered by the factory.
+     */
+    @Test
+    void testDerivativeMemo() {
+        ExpressionFactory factory = new ExpressionFactory();
+        Expression e = Expression.parse("x * y / (x - y)");
+        Expression first = factory.derivative(e, "x");
+        int size = factory.size();
+        assertSame(first, factory.derivative(e, "x"));
+        assertEquals(size, factory.size());
+        assertEquals(e.derivative("x").eval("x = 3; y = 2"), first.eval("x = 3; y = 2"));
+    }
+
+    /**
+     * Tests the gradient of an expression.
+     */
+    @Test
+    void testGradient() {
+        Expression e = Expression.parse("x * y + y * z - 3 * z");
+        List<Expression> gradient = e.gradient(List.of("x", "y", "z", "w"));
+        assertEquals("y", gradient.get(0).printAnswer());
+        assertEquals("(x + z)", gradient.get(1).printAnswer());
+        assertEquals("(y - 3)", gradient.get(2).printAnswer());
+        assertEquals("0", gradient.get(3).printAnswer());
+    }
+}
@@ -0,0 +1,56 @@
+package ru.nsu.vyaznikova;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class DualTest {
+
+    /**
+     * Tests the arithmetic of dual numbers.
+     */
+    @Test
+    void arithmetic() {
+        Dual x = new Dual(3, 1);
+        Dual c = new Dual(2, 0);
+        assertEquals(5.0, x.add(c).getValue());
+        assertEquals(1.0, x.sub(c).getDerivative());
+        assertEquals(2.0, x.mul(c).getDerivative());
+        assertEquals(6.0, x.mul(x).getDerivative());
+        assertEquals(-1.0 / 9, c.sub(c).add(new Dual(1, 0)).div(x).getDerivative(), 1e-15);
+        assertEquals("(3.0, 1.0)", x.toString());
+    }
+
+    /**
+     * Tests partial derivatives against the symbolic ones.
+     */
+    @Test
+    void derivativeMatchesSymbolic() {
+        Bindings bindings = Bindings.parse("x = 1.5; y = -2");
+        Expression e = Expression.parse("x * x * y / (x - y) + 3 * y - x / 4");
+        Expression bound = e.bind(bindings);
+        double[] values = bindings.values();
+        assertEquals(e.eval("x = 1.5; y = -2"), Dual.eval(bound, values, new double[2]).getValue());
+        assertEquals(e.derivative("x").eval("x = 1.5; y = -2"),
+                Dual.derivative(bound, values, 0), 1e-12);
+        assertEquals(e.derivative("y").eval("x = 1.5; y = -2"),
+                Dual.derivative(bound, values, 1), 1e-12);
+    }
+
+    /**
+     * Tests a derivative in a direction and division by zero.
+     */
+    @Test
+    void directionAndDivisionByZero() {
+        Expression e = Expression.parse("x * y").bind(Bindings.parse("x = 0; y = 0"));
+        Dual result = Dual.eval(e, new double[] {2, 5}, new double[] {1, 1});
+        assertEquals(10.0, result.getValue());
+        assertEquals(7.0, result.getDerivative());
+        Expression div = Expression.parse("1 / x").bind(Bindings.parse("x = 0"));
+        assertTrue(Double.isNaN(Dual.derivative(div, new double[] {0}, 0)));
+        assertThrows(IllegalStateException.class,
+                () -> Dual.eval(new Variable("x"), new double[1], new double[1]));
+    }
+}
@@ -0,0 +1,125 @@
+package ru.nsu.vyaznikova;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class ExpressionCompilerTest {
+    private static final String[] VARIABLES = {"x", "y", "z"};
+
+    /**
+     * Tests that compiled random trees give the same values as the interpreter.
+     */
+    @Test
+    void compileRandomTrees() {
+        Random random = new Random(7);
+        Bindings bindings = new Bindings();
+        for (String name : VARIABLES) {
+            bindings.set(name, 0);
+        }
+        double[] values = bindings.values();
+        for (int i = 0; i < 200; i++) {
+            Expression bound = random(random, 6).bind(bindings);
+            CompiledExpression compiled = ExpressionCompiler.compile(bound);
+            for (int j = 0; j < 5; j++) {
+                for (int slot = 0; slot < VARIABLES.length; slot++) {
+                    values[slot] = random.nextInt(21) - 10 + random.nextDouble();
+                }
+                assertEquals(bound.eval(values), compiled.eval(values));
+            }
+        }
+    }
+
+    /**
+     * Tests that a large tree is loaded as a hidden class.
+     */
+    @Test
+    void compileHiddenClass() {
+        Expression e = Expression.parse("x * x * 3.5 + y / 2 - (x - 1) * (y + 0.25) + 1e10");
+        CompiledExpression compiled = ExpressionCompiler.compile(e, Bindings.parse("x = 2; y = 4"));
+        assertTrue(isCompiled(compiled));
+        assertEquals(e.eval("x = 2; y = 4"), compiled.eval(new double[] {2, 4}));
+        assertEquals(e.eval("x = -1; y = 0.5"), compiled.eval(new double[] {-1, 0.5}));
+    }
+
+    /**
+     * Tests that a tiny tree is evaluated by the interpreter.
+     */
+    @Test
+    void compileTinyTree() {
+        CompiledExpression compiled = ExpressionCompiler.compile(
+                Expression.parse("x + 1"), Bindings.parse("x = 0"));
+        assertFalse(isCompiled(compiled));
+        assertEquals(3.0, compiled.eval(new double[] {2}));
+    }
+
+    /**
+     * Tests that trees of the same structure share the compiled class.
+     */
+    @Test
+    void compileCached() {
+        String text = "(a - b) * (a + b) / (a * b * 7 + 1)";
+        CompiledExpression first = ExpressionCompiler.compile(
+                Expression.parse(text), Bindings.parse("a = 1; b = 2"));
+        CompiledExpression second = ExpressionCompiler.compile(
+                Expression.parse(text), Bindings.parse("a = 3; b = 4"));
+        CompiledExpression swapped = ExpressionCompiler.compile(
+                Expression.parse(text), Bindings.parse("b = 1; a = 2"));
+        assertSame(first, second);
+        assertFalse(first == swapped);
+        assertEquals(-3.0 / 15, first.eval(new double[] {1, 2}), 1e-12);
+        assertEquals(-3.0 / 15, swapped.eval(new double[] {2, 1}), 1e-12);
+        assertTrue(ExpressionCompiler.cached() > 0);
+    }
+
+    /**
+     * Tests that division by zero gives NaN in compiled code.
+     */
+    @Test
+    void compileDivisionByZero() {
+        CompiledExpression compiled = ExpressionCompiler.compile(
+                Expression.parse("(x + 1) * 2 / (x - x) + 3"), Bindings.parse("x = 0"));
+        assertTrue(Double.isNaN(compiled.eval(new double[] {5})));
+    }
+
+    /**
+     * Tests that an unbound expression cannot be compiled.
+     */
+    @Test
+    void compileUnbound() {
+        assertThrows(IllegalStateException.class,
+                () -> ExpressionCompiler.compile(Expression.parse("x + 1")));
+    }
+
+    private static boolean isCompiled(CompiledExpression compiled) {
+        return compiled.getClass().isHidden()
+                && compiled.getClass().getName().startsWith("ru.nsu.vyaznikova.CompiledTree/");
+    }
+
+    private static Expression random(Random random, int depth) {
+        if (depth == 0 || random.nextInt(5) == 0) {
+            if (random.nextBoolean()) {
+                return new Variable(VARIABLES[random.nextInt(VARIABLES.length)]);
+            }
+            return new Number(random.nextInt(4) == 0
+                    ? random.nextInt(2) : random.nextDouble() * 100);
+        }
+        Expression left = random(random, depth - 1);
+        Expression right = random(random, depth - 1);
+        switch (random.nextInt(4)) {
+            case 0:
+                return new Add(left, right);
+            case 1:
+                return new Sub(left, right);
+            case 2:
+                return new Mul(left, right);
+            default:
+                return new Div(left, right);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package ru.nsu.vyaznikova;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class ExpressionFactoryTest {
+
+    /**
+     * Tests structural equality and hash codes of expressions.
+     */
+    @Test
+    void equalsStructure() {
+        Expression first = Expression.parse("(x + 2) * y / (x - 1)");
+        Expression second = Expression.parse("(x+2)*y/(x-1)");
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertNotEquals(first, Expression.parse("(x + 2) * y / (x - 2)"));
+        assertNotEquals(Expression.parse("x + y"), Expression.parse("y + x"));
+        assertNotEquals(Expression.parse("x - y"), Expression.parse("x + y"));
+        assertNotEquals(new Number(0), new Number(-0.0));
+        assertEquals(new Number(Double.NaN), new Number(Double.NaN));
+        assertNotEquals(new Variable("x"), new Variable("x", 0));
+    }
+
+    /**
+     * Tests equality and hash codes of chains of 100000 operations.
+     */
+    @Test
+    void equalsDeepChains() {
+        Expression first = new Variable("x");
+        Expression second = new Variable("x");
+        for (int i = 0; i < 100_000; i++) {
+            first = new Mul(new Add(first, new Number(i)), new Variable("y"));
+            second = new Mul(new Add(second, new Number(i)), new Variable("y"));
+        }
+        assertEquals(first.hashCode(), second.hashCode());
+        assertEquals(first, second);
+        assertNotEquals(first, new Mul(new Add(first, new Number(0)), new Variable("y")));
+        assertNotEquals(new Sub(first, new Number(1)), new Sub(second, new Number(2)));
+    }
+
+    /**
+     * Tests that equal nodes are made once.
+     */
+    @Test
+    void shareNodes() {
+        ExpressionFactory factory = new ExpressionFactory();
+        Expression x = factory.variable("x");
+        Expression first = factory.mul(factory.add(x, factory.number(1)), x);
+        Expression second = factory.mul(factory.add(factory.variable("x"), factory.number(1)), x);
+        assertSame(first, second);
+        assertEquals(4, factory.size());
+        assertSame(first, factory.intern(Expression.parse("(x + 1) * x")));
+        assertEquals(4, factory.size());
+    }
+
+    /**
+     * Tests that interning a tree shares its equal subtrees.
+     */
+    @Test
+    void internSharesSubtrees() {
+        ExpressionFactory factory = new ExpressionFactory();
+        Expression e = factory.intern(
+                Expression.parse("(x * y + 1) / (x * y + 1) - (x * y + 1)"));
+        assertEquals(7, factory.size());
+        assertEquals(-6.0, factory.eval(e, "x = 2; y = 3"));
+    }
+
+    /**
+     * Tests that a graph with exponentially many paths
+     * is evaluated once per node.
+     */
+    @Test
+    void evalShared() {
+        ExpressionFactory factory = new ExpressionFactory();
+        Bindings bindings = Bindings.parse("x = 1");
+        Expression e = factory.bind(new Variable("x"), bindings);
+        for (int i = 0; i < 60; i++) {
+            e = factory.add(factory.mul(e, e), factory.number(-1));
+        }
+        assertEquals(122, factory.size());
+        assertEquals(-1.0, factory.eval(e, bindings.values()));
+        bindings.set("x", 0);
+        assertEquals(0.0, factory.eval(e, bindings.values()));
+    }
+
+    /**
+     * Tests that a graph with exponentially many paths is bound and
+     * evaluated once per node outside the factory as well.
+     */
+    @Test
+    void evalSharedOutsideFactory() {
+        ExpressionFactory factory = new ExpressionFactory();
+        ExpressionFactory other = new ExpressionFactory();
+        Expression e = factory.variable("x");
+        Expression copy = other.variable("x");
+        for (int i = 0; i < 200; i++) {
+            e = factory.add(factory.mul(e, e), factory.number(-1));
+            copy = other.add(other.mul(copy, copy), other.number(-1));
+        }
+        assertEquals(e, copy);
+        assertEquals(e.hashCode(), copy.hashCode());
+        assertEquals(-1.0, e.eval("x = 1"));
+        assertEquals(0.0, e.eval("x = 0"));
+
+        Bindings bindings = Bindings.parse("x = 1");
+        Expression bound = e.bind(bindings);
+        assertSame(bound, bound.bind(bindings));
+        assertEquals(402, new Tape(bound).size());
+        assertEquals(-1.0, new Tape(bound).eval(bindings.values()));
+        assertEquals(-1.0, Dual.eval(bound, bindings.values(), new double[] {1}).getValue());
+        assertEquals(-1.0, ExpressionCompiler.compile(bound).eval(bindings.values()));
+        PostfixProgram program = new PostfixProgram(bound);
+        assertEquals(-1.0, program.eval(bindings.values()));
+        assertTrue(program.size() < 3 * 402);
+
+        double[] out = new double[3];
+        bound.evalBatch(new double[][] {{0, 1, 0}}, out);
+        assertArrayEquals(new double[] {0, -1, 0}, out);
+    }
+
+    /**
+     * Tests that the values of shared nodes are the values of the tree.
+     */
+    @Test
+    void evalSharedMatchesTree() {
+        ExpressionFactory factory = new ExpressionFactory();
+        Expression tree = Expression.parse("x * x / (x - y) + (x - y) * 3 - x * x / 0.5");
+        String assignments = "x = 1.5; y = -2";
+        assertEquals(tree.eval(assignments), factory.eval(tree, assignments));
+        assertEquals(Double.NaN, factory.eval(tree, "x = 1; y = 1"));
+    }
+
+    /**
+     * Tests that expressions of another factory are rejected by eval.
+     */
+    @Test
+    void evalForeign() {
+        ExpressionFactory factory = new ExpressionFactory();
+        Expression e = new ExpressionFactory().number(1);
+        assertThrows(IllegalArgumentException.class,
+                () -> factory.eval(e, new double[0]));
+        assertThrows(IllegalArgumentException.class,
+                () -> factory.bind(new Variable("x"), new Bindings()));
+    }
+}
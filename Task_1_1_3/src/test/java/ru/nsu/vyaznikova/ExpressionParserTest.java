@@ -0,0 +1,112 @@
+package ru.nsu.vyaznikova;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class ExpressionParserTest {
+
+    /**
+     * Tests parsing an expression with parentheses.
+     */
+    @Test
+    void parseParentheses() {
+        Expression e = Expression.parse("(3+(2*x))");
+        assertEquals("(3 + (2 * x))", e.printAnswer());
+        assertEquals(13.0, e.eval("x = 5"));
+    }
+
+    /**
+     * Tests that multiplication binds stronger than addition
+     * and that operators are left-associative.
+     */
+    @Test
+    void parsePrecedence() {
+        assertEquals("(1 + (2 * 3))", Expression.parse("1 + 2 * 3").printAnswer());
+        assertEquals("((8 - 3) - 2)", Expression.parse("8 - 3 - 2").printAnswer());
+        assertEquals("((8 / 4) / 2)", Expression.parse("8 / 4 / 2").printAnswer());
+        assertEquals(1.0, Expression.parse("8 / 4 / 2").eval(""));
+    }
+
+    /**
+     * Tests parsing unary minus.
+     */
+    @Test
+    void parseUnaryMinus() {
+        assertEquals("-3", Expression.parse("-3").printAnswer());
+        assertEquals("(0 - x)", Expression.parse("-x").printAnswer());
+        assertEquals("(2 - -3)", Expression.parse("2--3").printAnswer());
+        assertEquals(-6.0, Expression.parse("-(x + 1) * 2").eval("x = 2"));
+    }
+
+    /**
+     * Tests parsing numbers with fractions and exponents.
+     */
+    @Test
+    void parseDoubles() {
+        assertEquals(0.1, Expression.parse("0.1").eval(""));
+        assertEquals(2.5e-3, Expression.parse("2.5e-3").eval(""));
+        assertEquals(.5, Expression.parse(".5").eval(""));
+        assertEquals(1e300, Expression.parse("1e300").eval(""));
+        assertEquals(0.12345678901234567890,
+                Expression.parse("0.12345678901234567890").eval(""));
+        assertEquals(3.0, Expression.parse("1.5 + 1.5").simplify().eval(""));
+    }
+
+    /**
+     * Tests that occurrences of a variable share one node.
+     */
+    @Test
+    void shareVariables() {
+        ExpressionParser parser = new ExpressionParser();
+        Expression first = parser.parse("x_1");
+        assertSame(first, parser.parse(" x_1 "));
+        assertEquals("(x_1 * y)", parser.parse("x_1 * y").printAnswer());
+    }
+
+    /**
+     * Tests that invalid text is rejected with the position of the error.
+     */
+    @Test
+    void rejectInvalid() {
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> Expression.parse("(1 + 2"));
+        assertEquals("')' expected at position 6", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> Expression.parse("1 +"));
+        assertThrows(IllegalArgumentException.class, () -> Expression.parse("1 2"));
+        assertThrows(IllegalArgumentException.class, () -> Expression.parse("x $ y"));
+        assertThrows(IllegalArgumentException.class, () -> Expression.parse("1e"));
+    }
+
+    /**
+     * Tests reading one expression per line from a stream,
+     * including lines longer than the buffer.
+     *
+     * @throws IOException If the stream cannot be read.
+     */
+    @Test
+    void parseStream() throws IOException {
+        StringBuilder text = new StringBuilder("1 + 2\r\n\n  \nx * 3\n");
+        StringBuilder longLine = new StringBuilder("0");
+        for (int i = 0; i < 5000; i++) {
+            longLine.append(" + 1.0000000000000");
+        }
+        text.append(longLine).append('\n').append("4 / 2");
+        InputStream input = new ByteArrayInputStream(
+                text.toString().getBytes(StandardCharsets.US_ASCII));
+        ExpressionParser parser = new ExpressionParser(input);
+        assertEquals(3.0, parser.next().eval(""));
+        assertEquals(6.0, parser.next().eval("x = 2"));
+        assertEquals(5000.0, parser.next().eval(""));
+        assertEquals(2.0, parser.next().eval(""));
+        assertNull(parser.next());
+        assertNull(parser.next());
+    }
+}
@@ -0,0 +1,84 @@
+package ru.nsu.vyaznikova;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class PostfixProgramTest {
+
+    /**
+     * Tests that a program gives the values of the expression.
+     */
+    @Test
+    void matchesEval() {
+        String assignments = "x = 1.5; y = -2; z = 0.25";
+        Bindings bindings = Bindings.parse(assignments);
+        Expression e = Expression.parse("x * x * y / (x - z) + 3 * y * z - x / 4 + 7 - 3 * 3");
+        PostfixProgram program = new PostfixProgram(e.bind(bindings));
+        assertEquals(e.eval(assignments), program.eval(bindings.values()));
+        assertEquals(25, program.size());
+        assertEquals(3, program.constantCount());
+        bindings.set("y", 5);
+        assertEquals(e.eval("x = 1.5; y = 5; z = 0.25"), program.eval(bindings.values()));
+    }
+
+    /**
+     * Tests chains of 100000 additions, nested on either side.
+     */
+    @Test
+    void deepChains() {
+        int depth = 100_000;
+        Bindings bindings = Bindings.parse("x = 2");
+        Expression left = new Number(0);
+        Expression right = new Number(0);
+        for (int i = 0; i < depth; i++) {
+            left = new Add(left, new Variable("x"));
+            right = new Add(new Number(1), right);
+        }
+        PostfixProgram program = new PostfixProgram(left, bindings);
+        assertEquals(2.0 * depth, program.eval(bindings.values()));
+        assertEquals(2, program.stackSize());
+        program = new PostfixProgram(right);
+        assertEquals(depth, program.eval(bindings.values()));
+        assertEquals(depth + 1, program.stackSize());
+        assertEquals(2, program.constantCount());
+    }
+
+    /**
+     * Tests that a parsed chain of 100000 operations is compiled
+     * with the slots from the bindings.
+     */
+    @Test
+    void deepChainWithBindings() {
+        int depth = 100_000;
+        StringBuilder text = new StringBuilder("y");
+        for (int i = 0; i < depth; i++) {
+            text.append(i % 2 == 0 ? " + x" : " - 1");
+        }
+        Expression e = Expression.parse(text.toString());
+        Bindings bindings = Bindings.parse("x = 3; y = 0.5");
+        PostfixProgram program = new PostfixProgram(e, bindings);
+        assertEquals(0.5 + depth, program.eval(bindings.values()));
+        bindings.set("x", 1);
+        assertEquals(0.5, program.eval(bindings.values()));
+
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> new PostfixProgram(e, Bindings.parse("x = 1")));
+        assertEquals("Variable not found in the expression: y", exception.getMessage());
+    }
+
+    /**
+     * Tests division by zero and unbound variables.
+     */
+    @Test
+    void invalid() {
+        Bindings bindings = Bindings.parse("x = 0");
+        PostfixProgram program = new PostfixProgram(Expression.parse("1 / x + 1").bind(bindings));
+        assertTrue(Double.isNaN(program.eval(bindings.values())));
+        assertEquals(0.5, program.eval(new double[] {2}) - 1);
+        assertThrows(IllegalStateException.class,
+                () -> new PostfixProgram(new Add(new Number(1), new Variable("x"))));
+    }
+}
@@ -0,0 +1,120 @@
+package ru.nsu.vyaznikova;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class SimplifierTest {
+
+    /**
+     * Tests folding numbers in double.
+     */
+    @Test
+    void foldDoubles() {
+        assertEquals("6.25", Expression.parse("2.5 * 2.5").normalize().printAnswer());
+        assertEquals("((7 * x) * x)",
+                Expression.parse("2 * 3.5 * x * x + 0 * y").normalize().printAnswer());
+        assertEquals("(0.5 * x)", Expression.parse("x / 2").normalize().printAnswer());
+    }
+
+    /**
+     * Tests collecting equal terms of flattened sums.
+     */
+    @Test
+    void collectTerms() {
+        assertEquals("((6 * x) - 5)", Expression.parse("x * 5 + (x - 5)").normalize()
+                .printAnswer());
+        assertEquals("((2 * a) + c)", Expression.parse("((a + b) + (c + a)) - b").normalize()
+                .printAnswer());
+        assertEquals("0", Expression.parse("y * x + x * y - 2 * (x * y)").normalize()
+                .printAnswer());
+        assertEquals("(2 * (1 / x))", Expression.parse("1 / x + 1 / x").normalize()
+                .printAnswer());
+    }
+
+    /**
+     * Tests that equal polynomials get the same form.
+     */
+    @Test
+    void canonicalForm() {
+        Expression first = Expression.parse("(x + y) * (x + y)").normalize();
+        Expression second = Expression.parse("y * y + 2 * y * x + x * x").normalize();
+        assertEquals(first, second);
+        assertEquals("(((x * x) + ((2 * x) * y)) + (y * y))", first.printAnswer());
+        assertEquals(first, first.normalize());
+    }
+
+    /**
+     * Tests that divisions that are not by a number stay atoms.
+     */
+    @Test
+    void divisions() {
+        assertEquals("(x / 0)", Expression.parse("x / 0").normalize().printAnswer());
+        assertEquals("((x + 1) / (2 * y))", Expression.parse("(1 + x) / (y * 2)").normalize()
+                .printAnswer());
+        assertTrue(Double.isNaN(Expression.parse("x / (y - y)").normalize().eval("x = 1; y = 2")));
+    }
+
+    /**
+     * Tests that derivatives become much smaller and keep their values.
+     */
+    @Test
+    void derivativeShrinks() {
+        StringBuilder text = new StringBuilder("(x + 1)");
+        for (int i = 2; i <= 8; i++) {
+            text.append(" * (x + ").append(i).append(')');
+        }
+        Expression derivative = Expression.parse(text.toString()).derivative("x").derivative("x");
+        Expression simplified = derivative.normalize();
+        assertTrue(simplified.printAnswer().length() * 10 < derivative.printAnswer().length());
+        for (double x = -2; x <= 2; x += 0.5) {
+            String assignments = "x = " + x;
+            double expected = derivative.eval(assignments);
+            assertEquals(expected, simplified.eval(assignments), 1e-9 * Math.abs(expected));
+        }
+    }
+
+    /**
+     * Tests that a chain of 4000 divisions, which stay atoms,
+     * is normalized quickly and keeps its values.
+     */
+    @Test
+    void deepQuotients() {
+        int depth = 4000;
+        Expression e = new Variable("x");
+        for (int i = 0; i < depth; i++) {
+            e = new Div(new Add(e, new Number(1)), new Variable("y"));
+        }
+        long start = System.nanoTime();
+        Expression simplified = e.normalize();
+        assertTrue(System.nanoTime() - start < 2_000_000_000L);
+        Bindings bindings = Bindings.parse("x = 3; y = 1");
+        PostfixProgram program = new PostfixProgram(simplified, bindings);
+        assertEquals(3.0 + depth, program.eval(bindings.values()));
+        bindings.set("y", -1);
+        assertEquals(3.0, program.eval(bindings.values()));
+    }
+
+    /**
+     * Tests that a product that would grow is not multiplied out.
+     */
+    @Test
+    void largeProduct() {
+        StringBuilder text = new StringBuilder("(a1 + b1)");
+        for (int i = 2; i <= 11; i++) {
+            text.append(" * (a").append(i).append(" + b").append(i).append(')');
+        }
+        Expression e = Expression.parse(text.toString());
+        Expression simplified = e.normalize();
+        assertTrue(simplified.printAnswer().length() < 2 * e.printAnswer().length());
+        assertEquals(simplified, simplified.normalize());
+        Bindings bindings = new Bindings();
+        for (int i = 1; i <= 11; i++) {
+            bindings.set("a" + i, i);
+            bindings.set("b" + i, 0.5);
+        }
+        assertEquals(e.bind(bindings).eval(bindings.values()),
+                simplified.bind(bindings).eval(bindings.values()), 1e-6);
+    }
+}
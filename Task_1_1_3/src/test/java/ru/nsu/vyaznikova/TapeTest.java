@@ -0,0 +1,79 @@
+package ru.nsu.vyaznikova;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class TapeTest {
+
+    /**
+     * Tests the gradient against the symbolic derivatives.
+     */
+    @Test
+    void gradientMatchesSymbolic() {
+        String assignments = "x = 1.5; y = -2; z = 0.25";
+        Bindings bindings = Bindings.parse(assignments);
+        Expression e = Expression.parse("x * x * y / (x - z) + 3 * y * z - x / 4 + 7");
+        Tape tape = new Tape(e.bind(bindings));
+        double[] gradient = new double[3];
+        assertEquals(e.eval(assignments), tape.gradient(bindings.values(), gradient));
+        assertEquals(e.derivative("x").eval(assignments), gradient[0], 1e-12);
+        assertEquals(e.derivative("y").eval(assignments), gradient[1], 1e-12);
+        assertEquals(e.derivative("z").eval(assignments), gradient[2], 1e-12);
+        assertEquals(e.eval(assignments), tape.eval(bindings.values()));
+    }
+
+    /**
+     * Tests the gradient of an expression of 1000 variables.
+     */
+    @Test
+    void gradientManyVariables() {
+        int count = 1000;
+        Bindings bindings = new Bindings();
+        for (int i = 0; i < count; i++) {
+            bindings.set("x" + i, i % 7 - 3);
+        }
+        Expression e = new Number(0);
+        for (int i = 0; i + 1 < count; i++) {
+            e = new Add(e, new Mul(new Variable("x" + i), new Variable("x" + (i + 1))));
+        }
+        Tape tape = new Tape(e.bind(bindings));
+        double[] values = bindings.values();
+        double[] gradient = new double[count];
+        tape.gradient(values, gradient);
+        for (int i = 0; i < count; i++) {
+            double expected = (i > 0 ? values[i - 1] : 0) + (i + 1 < count ? values[i + 1] : 0);
+            assertEquals(expected, gradient[i]);
+        }
+    }
+
+    /**
+     * Tests that shared nodes are written once and get all their derivatives.
+     */
+    @Test
+    void sharedNodes() {
+        ExpressionFactory factory = new ExpressionFactory();
+        Bindings bindings = Bindings.parse("x = 3");
+        Expression square = factory.bind(Expression.parse("x * x"), bindings);
+        Tape tape = new Tape(factory.mul(square, square));
+        assertEquals(3, tape.size());
+        double[] gradient = new double[1];
+        assertEquals(81.0, tape.gradient(bindings.values(), gradient));
+        assertEquals(108.0, gradient[0]);
+    }
+
+    /**
+     * Tests division by zero and invalid arguments.
+     */
+    @Test
+    void invalid() {
+        Tape tape = new Tape(Expression.parse("1 / x").bind(Bindings.parse("x = 0")));
+        double[] gradient = new double[1];
+        assertTrue(Double.isNaN(tape.gradient(new double[] {0}, gradient)));
+        assertThrows(IllegalArgumentException.class,
+                () -> tape.gradient(new double[] {1}, new double[0]));
+        assertThrows(IllegalStateException.class, () -> new Tape(new Variable("x")));
+    }
+}
@@ -35,6 +35,27 @@ class VariableTest {
         assertEquals(expectedMessage, actualMessage);
     }
 
+    /**
+     * Tests the eval method of the Variable class when other assignments
+     * are malformed, which only matters for the variables of the expression.
+     */
+    @Test
+    void evalIgnoresOtherAssignments() {
+        Variable variable = new Variable("x");
+        assertEquals(10.0, variable.eval("y = abc; x = 10; z"));
+        assertEquals(3.0, new Number(3).eval("anything"));
+        assertEquals(3.0, Expression.parse("x + 1").eval("x = 2; x = abc; y = ?"));
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+            variable.eval("x = abc; y = 5");
+        });
+        assertEquals("Invalid variable value: abc", exception.getMessage());
+        exception = assertThrows(IllegalArgumentException.class, () -> {
+            new ExpressionFactory().eval(variable, "y = abc");
+        });
+        assertEquals("Variable not found in the expression: x", exception.getMessage());
+    }
+
     /**
      * Tests the derivative method of the Variable class
      * when the differentiation variable matches the variable.